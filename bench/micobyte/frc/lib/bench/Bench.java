@@ -0,0 +1,155 @@
+package micobyte.frc.lib.bench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.HLUsageReporting;
+import edu.wpi.first.wpilibj.RobotState;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.internal.HardwareHLUsageReporting;
+import edu.wpi.first.wpilibj.internal.HardwareTimer;
+
+import micobyte.frc.lib.sim.SimHAL;
+
+/**
+ * A small harness for the benchmarks in the <code>bench</code> source folder, which run on a desktop JVM against MBLib's {@link SimHAL simulated HAL},
+ * so the <code>src_sim</code> source folder must come before WPILib on the classpath, as for the {@link micobyte.frc.lib.sim.RobotSimulator RobotSimulator}.<br>
+ * Each benchmark is warmed up, then timed over several rounds, and reports the best round's time per operation, and how much the thread allocated
+ * per operation, as measured by the JVM's {@link com.sun.management.ThreadMXBean thread MX bean} (the same way the {@link micobyte.frc.lib.JVMMonitor JVMMonitor} measures it).<br>
+ * This is the same figure that JMH's GC profiler reports as its normalised allocation rate, but there is no JMH here, and no build that runs these:
+ * each benchmark is a class with a <code>main</code> method, compiled and run by hand with <code>bench</code>, <code>src_sim</code>, <code>src</code>
+ * and then WPILib's and NetworkTables' jars (and OpenCV's, for anything that loads it) on the classpath, and no native libraries.<br>
+ * <code>src_sim</code> has to come first for NetworkTables too, as every {@link edu.wpi.first.wpilibj.command.Subsystem Subsystem} starts
+ * {@link edu.wpi.first.wpilibj.livewindow.LiveWindow LiveWindow}, which starts NetworkTables: without the {@link micobyte.frc.lib.sim.SimNetworkTables stand-in},
+ * that throws an {@link UnsatisfiedLinkError}. Anything that isn't caught ends the JVM, rather than leaving it waiting on WPILib's driver station thread.
+ */
+public final class Bench {
+	/** How many rounds each benchmark is warmed up for */
+	private static final int WARMUP_ROUNDS = 5;
+	/** How many rounds each benchmark is timed for */
+	private static final int ROUNDS = 5;
+	/** How long each round lasts, in nanoseconds */
+	private static final long ROUND_TIME = 200000000L;
+	/** How many operations are run between checking the time */
+	private static final int BATCH = 100;
+	
+	/** The thread MX bean, or {@code null} if the JVM can't measure allocations */
+	private static com.sun.management.ThreadMXBean threads;
+	
+	/** Whatever the operations returned, so the JIT can't remove them */
+	private static volatile Object sink;
+	
+	private Bench() {}
+	
+	/**
+	 * Sets up WPILib the same way {@link micobyte.frc.lib.sim.RobotSimulator RobotSimulator} does, with the robot enabled in teleop, and starts measuring allocations
+	 */
+	public static void setUp() {
+		Timer.SetImplementation(new HardwareTimer());
+		HLUsageReporting.SetImplementation(new HardwareHLUsageReporting());
+		Thread.setDefaultUncaughtExceptionHandler((thread, e) -> {
+			e.printStackTrace();
+			System.exit(1);
+		});
+		
+		RobotState.SetImplementation(DriverStation.getInstance());
+		
+		SimHAL.setMode(true, false, false);
+		
+		if(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+			threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+			if(threads.isThreadAllocatedMemorySupported()) threads.setThreadAllocatedMemoryEnabled(true);
+			else threads = null;
+		}
+		
+		if(threads == null) System.out.println("This JVM can't measure allocations, so only times will be reported");
+	}
+	
+	/**
+	 * Warms up, then times an operation, and prints the result
+	 * @param name The name of the benchmark
+	 * @param op The operation
+	 */
+	public static void run(String name, Runnable op) {
+		for(int i = 0; i < WARMUP_ROUNDS; i++) round(op);
+		
+		double bestTime = Double.MAX_VALUE, bestBytes = 0;
+		for(int i = 0; i < ROUNDS; i++) {
+			double[] result = round(op);
+			
+			if(result[0] < bestTime) {
+				bestTime = result[0];
+				bestBytes = result[1];
+			}
+		}
+		
+		report(name, bestTime, bestBytes);
+	}
+	
+	/**
+	 * Runs an operation for one round
+	 * @param op The operation
+	 * @return The time per operation, in nanoseconds, and the bytes allocated per operation
+	 */
+	private static double[] round(Runnable op) {
+		long ops = 0, bytes = allocatedBytes(), start = System.nanoTime(), time;
+		
+		do {
+			for(int i = 0; i < BATCH; i++) op.run();
+			ops += BATCH;
+			
+			time = System.nanoTime() - start;
+		} while(time < ROUND_TIME);
+		
+		bytes = allocatedBytes() - bytes;
+		return new double[] { (double)time / ops, (double)bytes / ops };
+	}
+	
+	/**
+	 * Prints a result
+	 * @param name The name of the benchmark
+	 * @param nanos The time per operation, in nanoseconds
+	 * @param bytes The bytes allocated per operation
+	 */
+	public static void report(String name, double nanos, double bytes) {
+		if(threads == null) System.out.printf("%-44s %12.1f ns/op%n", name, nanos);
+		else System.out.printf("%-44s %12.1f ns/op %10.1f B/op%n", name, nanos, bytes);
+	}
+	
+	/**
+	 * Replaces {@link System#out} with a stream that throws everything away, so that what is being benchmarked is the cost of the code, not of the terminal
+	 * @return The old {@link System#out}, to be put back (with {@link System#setOut(PrintStream)}) before reporting
+	 */
+	public static PrintStream silence() {
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			public void write(int b) {}
+			public void write(byte[] b, int off, int len) {}
+		}));
+		
+		return out;
+	}
+	
+	/** @return How much the current thread has allocated, in bytes, or 0 if the JVM can't tell */
+	public static long allocatedBytes() { return (threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId())); }
+	
+	/**
+	 * Keeps a value, so the JIT can't remove the code that worked it out
+	 * @param value The value
+	 */
+	public static void consume(Object value) { sink = value; }
+	
+	/**
+	 * Keeps a value, so the JIT can't remove the code that worked it out
+	 * @param value The value
+	 */
+	public static void consume(double value) { if(value == Double.MIN_VALUE) sink = value; }
+	
+	/**
+	 * Keeps a value, so the JIT can't remove the code that worked it out
+	 * @param value The value
+	 */
+	public static void consume(boolean value) { if(value && sink == null) sink = Boolean.TRUE; }
+}
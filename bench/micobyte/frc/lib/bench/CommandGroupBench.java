@@ -0,0 +1,116 @@
+package micobyte.frc.lib.bench;
+
+import java.io.PrintStream;
+
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.Scheduler;
+import edu.wpi.first.wpilibj.command.Subsystem;
+
+import micobyte.frc.lib.command.CompiledCommandGroup;
+import micobyte.frc.lib.command.SimpleCommandGroup;
+import micobyte.frc.lib.sim.SimHAL;
+
+/**
+ * Benchmarks a {@link SimpleCommandGroup} of 50 nested groups, each with a log, a 50 ms wait and a command that runs for 3 ticks,
+ * run as it is and {@link CompiledCommandGroup compiled}, under WPILib's {@link Scheduler}, with simulated time moving 20 ms each tick.<br>
+ * Each reports the average time and allocation per tick of running the whole group to the end. {@link System#out} is thrown away whilst the groups run,
+ * as the logs print to it.<br>
+ * The wait is not a whole number of ticks long, as a 40 ms wait could end on the second or third tick depending on how the timestamps rounded,
+ * which made the two take a different number of ticks from one run to the next.
+ */
+public final class CommandGroupBench {
+	/** The number of nested groups */
+	private static final int GROUPS = 50;
+	/** How many times each way of running it is timed, after as many again to warm up */
+	private static final int RUNS = 20;
+	
+	private CommandGroupBench() {}
+	
+	/**
+	 * Runs the benchmark
+	 * @param args Ignored
+	 */
+	public static void main(String[] args) {
+		Bench.setUp();
+		SimpleCommandGroup.setDefaultLogger(msg -> {});
+		
+		Subsystem subsystem = new Subsystem("Bench Subsystem") { protected void initDefaultCommand() {} };
+		
+		for(boolean compiled : new boolean[] { false, true }) {
+			long ticks = 0, nanos = 0, bytes = 0;
+			PrintStream out = Bench.silence();
+			
+			for(int run = 0; run < RUNS * 2; run++) {
+				SimpleCommandGroup group = build(subsystem);
+				Command cmd = (compiled ? group.compile() : group);
+				
+				cmd.start();
+				long runTicks = 0, start = System.nanoTime(), allocated = Bench.allocatedBytes();
+				while(runTicks < 2 || cmd.isRunning()) {
+					Scheduler.getInstance().run();
+					SimHAL.advance(0.02);
+					runTicks++;
+				}
+				
+				if(run >= RUNS) {
+					nanos += System.nanoTime() - start;
+					bytes += Bench.allocatedBytes() - allocated;
+					ticks += runTicks;
+				}
+			}
+			
+			System.setOut(out);
+			Bench.report((compiled ? "Compiled" : "Nested") + " group, per tick (" + (ticks / RUNS) + " ticks)", (double)nanos / ticks, (double)bytes / ticks);
+		}
+		
+		System.exit(0);
+	}
+	
+	/**
+	 * Builds the group
+	 * @param subsystem The {@link Subsystem} its {@link Command commands} require
+	 * @return The group
+	 */
+	private static SimpleCommandGroup build(Subsystem subsystem) {
+		SimpleCommandGroup group = new SimpleCommandGroup("Bench Group");
+		
+		for(int i = 0; i < GROUPS; i++) {
+			SimpleCommandGroup inner = new SimpleCommandGroup("Inner " + i);
+			inner.addLog(() -> "Bench");
+			inner.addWait(0.05);
+			inner.addSequential(new TickCommand(subsystem, 3));
+			
+			group.addSequential(inner);
+		}
+		
+		return group;
+	}
+	
+	/**
+	 * A {@link Command} that runs for a number of ticks
+	 */
+	private static final class TickCommand extends Command {
+		/** How many ticks it runs for */
+		private final int ticks;
+		/** How many ticks it has run for */
+		private int executed;
+		
+		/**
+		 * Creates the command
+		 * @param subsystem The {@link Subsystem} it requires
+		 * @param ticks How many ticks it runs for
+		 */
+		private TickCommand(Subsystem subsystem, int ticks) {
+			super("Tick");
+			
+			this.ticks = ticks;
+			requires(subsystem);
+		}
+		
+		protected void initialize() { executed = 0; }
+		
+		protected void execute() { executed++; }
+		
+		protected boolean isFinished() { return executed >= ticks; }
+	}
+}
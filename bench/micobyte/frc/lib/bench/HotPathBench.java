@@ -0,0 +1,144 @@
+package micobyte.frc.lib.bench;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import edu.wpi.first.wpilibj.GenericHID;
+import edu.wpi.first.wpilibj.Joystick;
+import edu.wpi.first.wpilibj.SerialPort.Port;
+import edu.wpi.first.wpilibj.Spark;
+import edu.wpi.first.wpilibj.XboxController;
+import edu.wpi.first.wpilibj.drive.RobotDriveBase;
+
+import micobyte.frc.lib.CommonIDs;
+import micobyte.frc.lib.MBLibUtil;
+
+import micobyte.frc.lib.io.HIDSnapshot;
+import micobyte.frc.lib.io.POVPosition;
+import micobyte.frc.lib.io.TextMeter;
+import micobyte.frc.lib.sim.SimHAL;
+import micobyte.frc.lib.subsystem.SubsystemDrive;
+import micobyte.frc.lib.subsystem.SubsystemSerial;
+import micobyte.frc.lib.triggers.HIDAxisTrigger;
+import micobyte.frc.lib.triggers.MBTrigger;
+import micobyte.frc.lib.triggers.POVButton;
+import micobyte.frc.lib.vision.TargetStore;
+
+/**
+ * Benchmarks MBLib's per-tick paths: {@link micobyte.frc.lib.subsystem.IDriveSubsystem#updateDrive() updateDrive},
+ * {@link MBLibUtil#getAxisWithDeadband(GenericHID, int, double) getAxisWithDeadband}, a composed {@link MBTrigger#get()}, {@link POVPosition#accepts(int) POVPosition.accepts},
+ * {@link SubsystemSerial#periodic()} receiving and {@link TargetStore#decode(CharSequence) decoding} a line, {@link TextMeter#draw()} and {@link MBLibUtil#log(String)}.<br>
+ * The joysticks are read from a {@link HIDSnapshot}, as they are in a {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}, and the serial line's bytes
+ * are sent through the {@link SimHAL simulated HAL}, whose own (synchronized) stand-in is included in that benchmark's figures.
+ * {@link MBLibUtil#log(String) Logging} is measured with {@link System#out} thrown away, so it is the cost of formatting the message, not of the terminal.
+ */
+public final class HotPathBench {
+	private HotPathBench() {}
+	
+	/**
+	 * Runs the benchmarks
+	 * @param args Ignored
+	 */
+	public static void main(String[] args) {
+		Bench.setUp();
+		
+		SimHAL.setJoystickCounts(0, 6, 1, 10);
+		SimHAL.setJoystickInfo(0, true, 1, "Bench gamepad");
+		SimHAL.setJoystickAxis(0, CommonIDs.Gamepad.AXIS_LEFT_X, 0.03);
+		SimHAL.setJoystickAxis(0, CommonIDs.Gamepad.AXIS_LEFT_Y, -0.6);
+		SimHAL.setJoystickAxis(0, CommonIDs.Gamepad.AXIS_RIGHT_X, 0.4);
+		SimHAL.setJoystickAxis(0, CommonIDs.Gamepad.AXIS_RIGHT_Y, -0.6);
+		SimHAL.setJoystickPOV(0, 0, 90);
+		HIDSnapshot.update();
+		
+		XboxController gamepad = new XboxController(0);
+		Joystick joystick = new Joystick(0);
+		
+		BenchDrive drive = new BenchDrive(gamepad);
+		Bench.run("IDriveSubsystem.updateDrive", drive::updateDrive);
+		
+		Bench.run("MBLibUtil.getAxisWithDeadband (Xbox)", () -> Bench.consume(MBLibUtil.getAxisWithDeadband(gamepad, CommonIDs.Gamepad.AXIS_LEFT_Y, 0.1)));
+		Bench.run("MBLibUtil.getAxisWithDeadband (Joystick)", () -> Bench.consume(MBLibUtil.getAxisWithDeadband(joystick, CommonIDs.Joystick.AXIS_X, 0.1)));
+		
+		MBTrigger trigger = HIDAxisTrigger.forRange(0, CommonIDs.Gamepad.AXIS_RIGHT_X, 0.2, 1.1)
+			.and(new POVButton(gamepad, POVPosition.ALL_RIGHTS))
+			.or(MBTrigger.from(() -> false))
+			.not();
+		Bench.run("MBTrigger.get (and/or/not)", () -> Bench.consume(trigger.get()));
+		
+		int[] id = { 0 };
+		Bench.run("POVPosition.accepts", () -> Bench.consume(POVPosition.ALL_UPS.accepts(id[0]++ & 7)));
+		Bench.run("POVPosition.accepts (HID)", () -> Bench.consume(POVPosition.ALL_RIGHTS.accepts(gamepad)));
+		
+		BenchSerial serial = new BenchSerial();
+		byte[] line = "25:1.25,3.50,120;-4.0,2.75,80\n".getBytes(StandardCharsets.US_ASCII);
+		Bench.run("SubsystemSerial.periodic (30-byte line)", () -> {
+			SimHAL.sendSerial(Port.kUSB.value, line);
+			serial.periodic();
+		});
+		
+		TextMeter meter = new TextMeter(0, 1, 0, "Bench");
+		float[] value = { 0 };
+		Bench.run("TextMeter.draw", () -> {
+			meter.setValue(value[0] = (value[0] + 0.01F) % 1);
+			meter.draw();
+		});
+		
+		PrintStream out = Bench.silence();
+		double[] result = measureLog();
+		System.setOut(out);
+		Bench.report("MBLibUtil.log", result[0], result[1]);
+		
+		System.exit(0);
+	}
+	
+	/**
+	 * Benchmarks {@link MBLibUtil#log(String)}, whilst {@link System#out} is replaced, so it can't print its result as it goes
+	 * @return The time per operation, in nanoseconds, and the bytes allocated per operation
+	 */
+	private static double[] measureLog() {
+		for(int i = 0; i < 20000; i++) MBLibUtil.log("Bench message");
+		
+		int ops = 100000;
+		long bytes = Bench.allocatedBytes(), start = System.nanoTime();
+		for(int i = 0; i < ops; i++) MBLibUtil.log("Bench message");
+		
+		return new double[] { (double)(System.nanoTime() - start) / ops, (double)(Bench.allocatedBytes() - bytes) / ops };
+	}
+	
+	/**
+	 * A differential drive on two {@link Spark Sparks}, driven from a gamepad
+	 */
+	private static final class BenchDrive extends SubsystemDrive {
+		/** The gamepad */
+		private final GenericHID[] hids;
+		
+		/**
+		 * Creates the drive
+		 * @param gamepad The gamepad
+		 */
+		private BenchDrive(GenericHID gamepad) {
+			super(new Spark(0), new Spark(1));
+			hids = new GenericHID[] { gamepad };
+		}
+		
+		public RobotDriveBase getDrive() { return drive; }
+		public GenericHID[] getDriveHIDDevices() { return hids; }
+		public double getDriveDeadband() { return 0.1; }
+		
+		protected void initDefaultCommand() {}
+	}
+	
+	/**
+	 * A {@link SubsystemSerial} on the first USB port, that {@link TargetStore#decode(CharSequence) decodes} the lines it receives without copying them
+	 */
+	private static final class BenchSerial extends SubsystemSerial {
+		/** Where the lines are decoded into */
+		private final TargetStore targets = new TargetStore("bench", 4);
+		
+		/** Creates the subsystem */
+		private BenchSerial() { super("Bench Serial", 115200, Port.kUSB); }
+		
+		public void onLineRecieved(CharSequence line) { Bench.consume(targets.decode(line)); }
+	}
+}
@@ -0,0 +1,106 @@
+package micobyte.frc.lib.bench;
+
+import java.util.Random;
+
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.Scheduler;
+import edu.wpi.first.wpilibj.command.Subsystem;
+
+import micobyte.frc.lib.command.MBScheduler;
+
+/**
+ * Benchmarks a tick of WPILib's {@link Scheduler} against a tick of the {@link MBScheduler}, with 50 {@link Subsystem subsystems} and 500 {@link Command commands},
+ * a fifth of which require two {@link Subsystem subsystems}, and 20 of which are started each tick.<br>
+ * Both schedulers take their {@link Command commands} from the {@link Scheduler}'s queues, so only one of them can be benchmarked per run:
+ * the first argument is <code>wpilib</code> or <code>mb</code>.
+ */
+public final class SchedulerBench {
+	/** The number of {@link Subsystem subsystems} */
+	private static final int SUBSYSTEMS = 50;
+	/** The number of {@link Command commands} */
+	private static final int COMMANDS = 500;
+	/** How many {@link Command commands} are started each tick */
+	private static final int STARTS_PER_TICK = 20;
+	
+	private SchedulerBench() {}
+	
+	/**
+	 * Runs the benchmark
+	 * @param args <code>wpilib</code> to benchmark the {@link Scheduler}, or <code>mb</code> for the {@link MBScheduler}
+	 */
+	public static void main(String[] args) {
+		if(args.length != 1 || !(args[0].equals("wpilib") || args[0].equals("mb"))) {
+			System.out.println("Usage: SchedulerBench wpilib|mb");
+			System.exit(1);
+		}
+		
+		Bench.setUp();
+		
+		Subsystem[] subsystems = new Subsystem[SUBSYSTEMS];
+		for(int i = 0; i < SUBSYSTEMS; i++) subsystems[i] = new BenchSubsystem("Subsystem " + i);
+		
+		Random random = new Random(1);
+		Command[] commands = new Command[COMMANDS];
+		for(int i = 0; i < COMMANDS; i++) {
+			Subsystem[] requirements = (i % 5 == 0 ? new Subsystem[] { subsystems[random.nextInt(SUBSYSTEMS)], subsystems[random.nextInt(SUBSYSTEMS)] } : new Subsystem[0]);
+			commands[i] = new BenchCommand("Command " + i, 1 + random.nextInt(50), requirements);
+		}
+		
+		Runnable scheduler = (args[0].equals("mb") ? MBScheduler.getInstance()::run : Scheduler.getInstance()::run);
+		int[] tick = { 0 };
+		
+		Bench.run((args[0].equals("mb") ? "MBScheduler" : "Scheduler") + ".run (" + SUBSYSTEMS + " subsystems, " + COMMANDS + " commands)", () -> {
+			for(int k = 0; k < STARTS_PER_TICK; k++) {
+				Command cmd = commands[(tick[0] * STARTS_PER_TICK + k) % COMMANDS];
+				if(!cmd.isRunning()) cmd.start();
+			}
+			
+			scheduler.run();
+			tick[0]++;
+		});
+		
+		System.exit(0);
+	}
+	
+	/**
+	 * A {@link Subsystem} that does nothing
+	 */
+	private static final class BenchSubsystem extends Subsystem {
+		/**
+		 * Creates the subsystem
+		 * @param name The name
+		 */
+		private BenchSubsystem(String name) { super(name); }
+		
+		protected void initDefaultCommand() {}
+	}
+	
+	/**
+	 * A {@link Command} that runs for a number of ticks
+	 */
+	private static final class BenchCommand extends Command {
+		/** How many ticks it runs for */
+		private final int ticks;
+		/** How many ticks it has run for */
+		private int executed;
+		
+		/**
+		 * Creates the command
+		 * @param name The name
+		 * @param ticks How many ticks it runs for
+		 * @param requirements The {@link Subsystem subsystems} it requires
+		 */
+		private BenchCommand(String name, int ticks, Subsystem... requirements) {
+			super(name);
+			
+			this.ticks = ticks;
+			for(Subsystem sys : requirements) requires(sys);
+		}
+		
+		protected void initialize() { executed = 0; }
+		
+		protected void execute() { executed++; }
+		
+		protected boolean isFinished() { return executed >= ticks; }
+	}
+}
@@ -0,0 +1,197 @@
+package edu.wpi.first.wpilibj.command;
+
+import java.lang.reflect.Field;
+import java.util.Enumeration;
+import java.util.Vector;
+
+import edu.wpi.first.wpilibj.buttons.Trigger.ButtonScheduler;
+
+/**
+ * A bridge into the package-private parts of the {@link Command}/{@link Subsystem}/{@link Scheduler} API,
+ * so that {@link micobyte.frc.lib.command.MBScheduler MBLib's scheduler} and {@link micobyte.frc.lib.command.CompiledCommandGroup compiled command groups}
+ * can drive {@link Command commands} with the same semantics as the {@link Scheduler} and {@link CommandGroup}.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public final class MBLibCommandAccess {
+	/** The {@link Scheduler}'s queue of {@link Command commands} waiting to be added */
+	private static final Field ADDITIONS;
+	/** The {@link Scheduler}'s {@link Set} of {@link Subsystem subsystems} */
+	private static final Field SUBSYSTEMS;
+	/** The {@link Scheduler}'s (lazily created) list of {@link ButtonScheduler buttons} */
+	private static final Field BUTTONS;
+	/** The backing {@link Vector} of a {@link Set} */
+	private static final Field SET_ELEMENTS;
+	/** The timeout of a {@link Command} */
+	private static final Field TIMEOUT;
+	/** The entries of a {@link CommandGroup} */
+	private static final Field GROUP_ENTRIES;
+	/** The {@link Command} of a {@link CommandGroup} entry */
+	private static final Field ENTRY_COMMAND;
+	/** The state (in sequence, or a branch) of a {@link CommandGroup} entry */
+	private static final Field ENTRY_STATE;
+	/** The timeout of a {@link CommandGroup} entry */
+	private static final Field ENTRY_TIMEOUT;
+	/** The {@link Command} run by a {@link ConditionalCommand} if its condition is true */
+	private static final Field ON_TRUE;
+	/** The {@link Command} run by a {@link ConditionalCommand} if its condition is false */
+	private static final Field ON_FALSE;
+	
+	static {
+		try {
+			ADDITIONS = Scheduler.class.getDeclaredField("m_additions");
+			SUBSYSTEMS = Scheduler.class.getDeclaredField("m_subsystems");
+			BUTTONS = Scheduler.class.getDeclaredField("m_buttons");
+			SET_ELEMENTS = Set.class.getDeclaredField("m_set");
+			TIMEOUT = Command.class.getDeclaredField("m_timeout");
+			GROUP_ENTRIES = CommandGroup.class.getDeclaredField("m_commands");
+			
+			Class<?> entry = Class.forName(CommandGroup.class.getName() + "$Entry");
+			ENTRY_COMMAND = entry.getDeclaredField("m_command");
+			ENTRY_STATE = entry.getDeclaredField("m_state");
+			ENTRY_TIMEOUT = entry.getDeclaredField("m_timeout");
+			
+			ON_TRUE = ConditionalCommand.class.getDeclaredField("m_onTrue");
+			ON_FALSE = ConditionalCommand.class.getDeclaredField("m_onFalse");
+			
+			for(Field field : new Field[] { ADDITIONS, SUBSYSTEMS, BUTTONS, SET_ELEMENTS, TIMEOUT, GROUP_ENTRIES, ENTRY_COMMAND, ENTRY_STATE, ENTRY_TIMEOUT, ON_TRUE, ON_FALSE }) field.setAccessible(true);
+		} catch(Exception e) {
+			throw new IllegalStateException("Unsupported WPILib Scheduler layout", e);
+		}
+	}
+	
+	private MBLibCommandAccess() {}
+	
+	/**
+	 * Gets the value of one of the reflected fields
+	 * @param field The field
+	 * @param owner The object that owns the field
+	 * @return The value of the field
+	 */
+	private static Object get(Field field, Object owner) {
+		try {
+			return field.get(owner);
+		} catch(IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/** @return The live queue of {@link Command commands} that have been {@link Command#start() started}, but not yet added */
+	@SuppressWarnings("unchecked")
+	public static Vector<Command> getAdditions() { return (Vector<Command>)get(ADDITIONS, Scheduler.getInstance()); }
+	
+	/** @return The live list of every registered {@link Subsystem} */
+	@SuppressWarnings("unchecked")
+	public static Vector<Subsystem> getSubsystems() { return (Vector<Subsystem>)get(SET_ELEMENTS, get(SUBSYSTEMS, Scheduler.getInstance())); }
+	
+	/** @return The live list of {@link ButtonScheduler buttons}, or {@code null} if none were ever added */
+	@SuppressWarnings("unchecked")
+	public static Vector<ButtonScheduler> getButtons() { return (Vector<ButtonScheduler>)get(BUTTONS, Scheduler.getInstance()); }
+	
+	/**
+	 * Runs one iteration of a {@link Command}
+	 * @param cmd The {@link Command}
+	 * @return Whether it should keep running
+	 */
+	public static boolean run(Command cmd) { return cmd.run(); }
+	
+	/**
+	 * Marks a {@link Command} as started
+	 * @param cmd The {@link Command}
+	 */
+	public static void startRunning(Command cmd) { cmd.startRunning(); }
+	
+	/**
+	 * Tells a {@link Command} it has been removed, which will end or interrupt it
+	 * @param cmd The {@link Command}
+	 */
+	public static void removed(Command cmd) { cmd.removed(); }
+	
+	/**
+	 * Gets the {@link Subsystem subsystems} required by a {@link Command}
+	 * @param cmd The {@link Command}
+	 * @return The {@link Subsystem subsystems}
+	 */
+	public static Subsystem[] getRequirements(Command cmd) {
+		Vector<Subsystem> reqs = new Vector<Subsystem>();
+		for(Enumeration<?> e = cmd.getRequirements(); e.hasMoreElements();) reqs.add((Subsystem)e.nextElement());
+		
+		return reqs.toArray(new Subsystem[reqs.size()]);
+	}
+	
+	/**
+	 * Cancels a {@link Command}, even if it is part of a {@link CommandGroup}
+	 * @param cmd The {@link Command}
+	 */
+	public static void cancel(Command cmd) { cmd._cancel(); }
+	
+	/**
+	 * Prevents any more changes being made to a {@link Command}, such as adding requirements, or adding to a {@link CommandGroup}
+	 * @param cmd The {@link Command}
+	 */
+	public static void lockChanges(Command cmd) { cmd.lockChanges(); }
+	
+	/**
+	 * Gets the timeout of a {@link Command}
+	 * @param cmd The {@link Command}
+	 * @return The timeout, in seconds, or -1 for none
+	 */
+	public static double getTimeout(Command cmd) { return (Double)get(TIMEOUT, cmd); }
+	
+	/**
+	 * Gets the {@link Command commands} that a {@link ConditionalCommand} chooses between
+	 * @param cmd The {@link ConditionalCommand}
+	 * @return The {@link Command commands} in order {onTrue, onFalse}, either of which may be {@code null}
+	 */
+	public static Command[] getConditionalCommands(ConditionalCommand cmd) { return new Command[] { (Command)get(ON_TRUE, cmd), (Command)get(ON_FALSE, cmd) }; }
+	
+	/**
+	 * Gets the entries of a {@link CommandGroup}
+	 * @param group The {@link CommandGroup}
+	 * @return The entries, in order
+	 */
+	public static GroupEntry[] getGroupEntries(CommandGroup group) {
+		Vector<?> entries = (Vector<?>)get(GROUP_ENTRIES, group);
+		GroupEntry[] out = new GroupEntry[entries.size()];
+		
+		for(int i = 0; i < out.length; i++) {
+			Object entry = entries.elementAt(i);
+			// State 0 is "in sequence"; anything else is a parallel branch
+			out[i] = new GroupEntry((Command)get(ENTRY_COMMAND, entry), (Integer)get(ENTRY_STATE, entry) == 0, (Double)get(ENTRY_TIMEOUT, entry));
+		}
+		
+		return out;
+	}
+	
+	/**
+	 * Sets which {@link Command} currently holds a {@link Subsystem}
+	 * @param sys The {@link Subsystem}
+	 * @param cmd The {@link Command}, or {@code null} for none
+	 */
+	public static void setCurrentCommand(Subsystem sys, Command cmd) { sys.setCurrentCommand(cmd); }
+	
+	/**
+	 * Confirms a {@link Subsystem}'s current {@link Command}
+	 * @param sys The {@link Subsystem}
+	 */
+	public static void confirmCommand(Subsystem sys) { sys.confirmCommand(); }
+	
+	/**
+	 * A copy of one of the entries of a {@link CommandGroup}
+	 */
+	public static final class GroupEntry {
+		/** The {@link Command} */
+		public final Command command;
+		/** Whether it was {@link CommandGroup#addSequential(Command) added sequentially}, rather than {@link CommandGroup#addParallel(Command) in parallel} */
+		public final boolean sequential;
+		/** The timeout, in seconds, or -1 for none */
+		public final double timeout;
+		
+		/**
+		 * Creates the entry
+		 * @param command The {@link Command}
+		 * @param sequential Whether it was added sequentially
+		 * @param timeout The timeout, in seconds, or -1 for none
+		 */
+		private GroupEntry(Command command, boolean sequential, double timeout) { this.command = command; this.sequential = sequential; this.timeout = timeout; }
+	}
+}
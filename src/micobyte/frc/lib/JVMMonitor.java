@@ -0,0 +1,257 @@
+package micobyte.frc.lib;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import micobyte.frc.lib.io.Telemetry;
+
+/**
+ * Monitors what the JVM does to the robot's main loop: garbage collections (from the {@link GarbageCollectorMXBean garbage collectors}' notifications),
+ * other pauses (from how late a sentinel thread wakes up from 1 ms sleeps), and how much memory the main loop allocates each tick,
+ * and in each {@link Phase phase} of the tick.<br>
+ * Once {@link #start() started} (by {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}, if it {@link micobyte.frc.lib.robot.BasicRobot#useJVMMonitor() uses it}),
+ * the results go into {@link Metrics}, the {@code JVM} {@link Telemetry} channel, and the log file, which gets a breakdown of each tick that overruns,
+ * and each long garbage collection.
+ */
+public final class JVMMonitor {
+	/** How long the sentinel thread sleeps for, in milliseconds */
+	private static final long SENTINEL_PERIOD = 1;
+	/** How long a tick can take before it is logged as an overrun, in seconds */
+	public static final double OVERRUN_THRESHOLD = 0.02;
+	/** How long a garbage collection can take before it is logged, in seconds */
+	public static final double GC_LOG_THRESHOLD = 0.005;
+	
+	/** How long each garbage collection takes, in seconds */
+	public static final Metrics.Histogram GC_PAUSE = Metrics.histogram("jvm.gc.pause");
+	/** How late the sentinel thread wakes up, in seconds */
+	public static final Metrics.Histogram HICCUP = Metrics.histogram("jvm.hiccup");
+	/** How long each tick of the main loop takes, in seconds */
+	public static final Metrics.Histogram TICK = Metrics.histogram("jvm.tick");
+	/** The number of bytes the main loop has allocated */
+	public static final Metrics.Counter ALLOCATED = Metrics.counter("jvm.allocated");
+	
+	/** Every phase */
+	private static final ArrayList<Phase> phases = new ArrayList<Phase>();
+	
+	/** Whether the monitor has been started */
+	private static volatile boolean started;
+	/** The bean that reports how much each thread has allocated, or {@code null} if the JVM can't */
+	private static com.sun.management.ThreadMXBean threads;
+	
+	/** The time spent in garbage collections since the last tick ended, in microseconds */
+	private static final AtomicLong gcMicros = new AtomicLong();
+	/** The latest the sentinel thread has woken up since the last tick ended, in nanoseconds */
+	private static final AtomicLong hiccupNanos = new AtomicLong();
+	/** The name of the phase the main loop is in, or {@code null} for none */
+	private static volatile String currentPhase;
+	
+	/** When the current tick started, from {@link System#nanoTime()} */
+	private static long tickStart;
+	/** How much the main loop had allocated when the current tick started, in bytes */
+	private static long tickAllocStart;
+	
+	/** How long the last tick took, in seconds */
+	private static volatile double lastTickTime;
+	/** How much the last tick allocated, in bytes */
+	private static volatile long lastTickAllocated;
+	/** How long was spent in garbage collections during the last tick, in seconds */
+	private static volatile double lastTickGC;
+	/** The latest the sentinel thread woke up during the last tick, in seconds */
+	private static volatile double lastTickHiccup;
+	
+	private JVMMonitor() {}
+	
+	/**
+	 * A phase of the main loop (such as running the scheduler), whose allocations are counted separately.
+	 * Phases can be nested, in which case an inner phase's allocations are also counted in the outer one.
+	 */
+	public static final class Phase {
+		/** The name */
+		private final String name;
+		/** The number of bytes allocated in the phase */
+		private final Metrics.Counter allocated;
+		
+		/** How much the main loop had allocated when the phase began, in bytes */
+		private long allocStart;
+		/** How much the phase allocated in the current tick, in bytes */
+		private long tickAllocated;
+		/** The phase this one is nested in */
+		private String outer;
+		
+		private Phase(String name) {
+			this.name = name;
+			allocated = Metrics.counter("jvm.allocated." + name);
+		}
+		
+		/** @return The name */
+		public String getName() { return name; }
+		
+		/**
+		 * Begins the phase, on the main loop's thread
+		 */
+		public void begin() {
+			if(!started) return;
+			
+			outer = currentPhase;
+			currentPhase = name;
+			allocStart = allocatedBytes();
+		}
+		
+		/**
+		 * Ends the phase, on the main loop's thread
+		 */
+		public void end() {
+			if(!started) return;
+			
+			long bytes = allocatedBytes() - allocStart;
+			tickAllocated += bytes;
+			allocated.add(bytes);
+			currentPhase = outer;
+		}
+	}
+	
+	/**
+	 * Gets a phase, creating it if it doesn't exist
+	 * @param name The name
+	 * @return The phase
+	 */
+	public static Phase phase(String name) {
+		synchronized(phases) {
+			for(Phase p : phases) if(p.name.equals(name)) return p;
+			
+			Phase p = new Phase(name);
+			phases.add(p);
+			return p;
+		}
+	}
+	
+	/** @return How much the current thread has allocated, in bytes, or 0 if the JVM can't tell */
+	private static long allocatedBytes() { return (threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId())); }
+	
+	/** @return Whether the monitor has been started */
+	public static boolean isStarted() { return started; }
+	
+	/**
+	 * Starts the monitor: listens for garbage collections, starts the sentinel thread, and adds the {@code JVM} {@link Telemetry} channel
+	 */
+	public static synchronized void start() {
+		if(started) return;
+		
+		if(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+			threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+			if(threads.isThreadAllocatedMemorySupported()) threads.setThreadAllocatedMemoryEnabled(true);
+			else threads = null;
+		}
+		
+		if(threads == null) MBLibUtil.log("This JVM can't measure allocations, so the JVM monitor will only report pauses");
+		
+		for(GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			if(gc instanceof NotificationEmitter) ((NotificationEmitter)gc).addNotificationListener((n, handback) -> {
+				if(n.getType().equals("com.sun.management.gc.notification")) onGC((CompositeData)n.getUserData());
+			}, null, null);
+		}
+		
+		Thread sentinel = new Thread(JVMMonitor::runSentinel, "MBLib JVM monitor");
+		sentinel.setDaemon(true);
+		sentinel.setPriority(Thread.MAX_PRIORITY);
+		sentinel.start();
+		
+		new Telemetry("JVM")
+			.addFloat("tickTime", () -> lastTickTime)
+			.addInt("tickAllocated", () -> (int)Math.min(lastTickAllocated, Integer.MAX_VALUE))
+			.addFloat("tickGC", () -> lastTickGC)
+			.addFloat("tickHiccup", () -> lastTickHiccup);
+		
+		started = true;
+	}
+	
+	/**
+	 * Handles a garbage collection notification
+	 * @param info The {@code GarbageCollectionNotificationInfo}, as {@link CompositeData}
+	 */
+	private static void onGC(CompositeData info) {
+		long millis = (Long)((CompositeData)info.get("gcInfo")).get("duration");
+		
+		gcMicros.addAndGet(millis * 1000);
+		GC_PAUSE.record(millis / 1000.0);
+		
+		if(millis / 1000.0 >= GC_LOG_THRESHOLD) {
+			String phase = currentPhase;
+			MBLibUtil.log("GC: " + info.get("gcName") + " (" + info.get("gcAction") + ", " + info.get("gcCause") + ") took " + millis + " ms" + (phase == null ? "" : ", during " + phase));
+		}
+	}
+	
+	/**
+	 * Runs the sentinel thread, which measures how late it wakes up from each sleep
+	 */
+	private static void runSentinel() {
+		while(true) {
+			long start = System.nanoTime();
+			
+			try {
+				Thread.sleep(SENTINEL_PERIOD);
+			} catch(InterruptedException e) {
+				return;
+			}
+			
+			long late = Math.max(0, System.nanoTime() - start - SENTINEL_PERIOD * 1000000);
+			HICCUP.record(late / 1e9);
+			hiccupNanos.accumulateAndGet(late, Math::max);
+		}
+	}
+	
+	/**
+	 * Begins a tick of the main loop, which is called by {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 */
+	public static void beginTick() {
+		if(!started) return;
+		
+		tickStart = System.nanoTime();
+		tickAllocStart = allocatedBytes();
+	}
+	
+	/**
+	 * Ends a tick of the main loop, and logs a breakdown of it if it overran, which is called by {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 */
+	public static void endTick() {
+		if(!started) return;
+		
+		double time = (System.nanoTime() - tickStart) / 1e9;
+		long allocated = allocatedBytes() - tickAllocStart;
+		double gc = gcMicros.getAndSet(0) / 1e6, hiccup = hiccupNanos.getAndSet(0) / 1e9;
+		
+		TICK.record(time);
+		ALLOCATED.add(allocated);
+		
+		lastTickTime = time;
+		lastTickAllocated = allocated;
+		lastTickGC = gc;
+		lastTickHiccup = hiccup;
+		
+		if(time > OVERRUN_THRESHOLD) {
+			StringBuilder msg = new StringBuilder("Loop overrun: ").append(Math.round(time * 1e4) / 10.0).append(" ms, with ")
+				.append(Math.round(gc * 1e4) / 10.0).append(" ms of GC and a ").append(Math.round(hiccup * 1e4) / 10.0).append(" ms hiccup");
+			
+			if(threads != null) {
+				msg.append("; allocated ").append(allocated).append(" bytes");
+				
+				synchronized(phases) {
+					for(Phase p : phases) if(p.tickAllocated > 0) msg.append(", ").append(p.name).append(": ").append(p.tickAllocated);
+				}
+			}
+			
+			MBLibUtil.log(msg.toString());
+		}
+		
+		synchronized(phases) {
+			for(int i = 0; i < phases.size(); i++) phases.get(i).tickAllocated = 0;
+		}
+	}
+}
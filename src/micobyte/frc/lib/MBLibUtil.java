@@ -13,6 +13,8 @@ import java.util.Date;
 import edu.wpi.first.wpilibj.GenericHID;
 import edu.wpi.first.wpilibj.command.Command;
 
+import micobyte.frc.lib.io.HIDSnapshot;
+
 /**
  * A collection of Utility methods that are (mostly) intended to be internal to the library
  */
@@ -23,6 +25,20 @@ public final class MBLibUtil {
 	 */
 	private static transient BufferedWriter logWriter;
 	
+	/**
+	 * Whether each {@link GenericHID} class reads its axes the way {@link GenericHID} does (without overriding {@link GenericHID#getRawAxis(int) getRawAxis}),
+	 * so they may be read from the {@link HIDSnapshot snapshot} instead
+	 */
+	private static final ClassValue<Boolean> readsSnapshotAxes = new ClassValue<Boolean>() {
+		protected Boolean computeValue(Class<?> c) {
+			try {
+				return c.getMethod("getRawAxis", int.class).getDeclaringClass() == GenericHID.class;
+			} catch(NoSuchMethodException e) {
+				return false;
+			}
+		}
+	};
+	
 	/**
 	 * The method to initialize the log writer<br>
 	 * <b>This is an internal method. It should not be called by the end user.</b>
@@ -65,11 +81,15 @@ public final class MBLibUtil {
 	 */
 	public static void writeToLogFile(String msg) {
 		if(logWriter != null) {
+			long start = System.nanoTime();
+			
 			try {
 				logWriter.write(msg);
 				
 				logWriter.newLine();
 				logWriter.flush();
+				
+				Metrics.LOG_WRITE.recordSince(start);
 			} catch(Exception e) {
 				System.out.println("Failed to log message \"" + msg + "\" to log file: ");
 				e.printStackTrace();
@@ -159,13 +179,15 @@ public final class MBLibUtil {
 	
 	/**
 	 * {@link GenericHID#getRawAxis(int) Returns the given axis} from an {@link GenericHID HID device}, with a dead-band (returning 0) from {@code -deadband..0..deadband}.
+	 * The axis is read from this tick's {@link HIDSnapshot snapshot}, unless the {@link GenericHID HID device}'s class overrides {@link GenericHID#getRawAxis(int) getRawAxis}
+	 * (such as to remap or invert its axes), in which case its {@link GenericHID#getRawAxis(int) getRawAxis} is called, as it was before there were snapshots.
 	 * @param hid The {@link GenericHID HID device}
 	 * @param axis The axis
 	 * @param deadband The dead-band
 	 * @return The dead-banded axis value
 	 */
 	public static double getAxisWithDeadband(GenericHID hid, int axis, double deadband) {
-		double raw = hid.getRawAxis(axis);
+		double raw = (readsSnapshotAxes.get(hid.getClass()) ? HIDSnapshot.getAxis(hid.getPort(), axis) : hid.getRawAxis(axis));
 		if(Math.abs(raw) < deadband) return 0;
 		
 		double totalDelta = 1 - deadband;
@@ -0,0 +1,325 @@
+package micobyte.frc.lib;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Notifier;
+
+/**
+ * A registry of metrics: {@link Counter counters}, {@link Gauge gauges} and {@link Histogram histograms}.<br>
+ * Metrics are created once (such as in a constructor) by name, and can then be updated from any thread (such as the main loop, a
+ * {@link edu.wpi.first.wpilibj.PIDController PIDController}'s thread or a {@link Notifier}) without locks.
+ * Once {@link #startPublishing(double, boolean) started}, a snapshot of every metric is published to the {@value #TABLE} NetworkTables table,
+ * and optionally to the log file, periodically.
+ */
+public final class Metrics {
+	/** The NetworkTables table the metrics are published in */
+	public static final String TABLE = "MBLib Metrics";
+	
+	/** The default histogram buckets for latencies: the upper bound of each, in seconds */
+	public static final double[] LATENCY_BUCKETS = { 50e-6, 100e-6, 200e-6, 500e-6, 1e-3, 2e-3, 5e-3, 10e-3, 20e-3, 50e-3, 100e-3 };
+	/** The histogram buckets for sizes: the upper bound of each, in bytes */
+	public static final double[] SIZE_BUCKETS = { 64, 128, 256, 512, 1024, 2048, 4096, 8192, 16384 };
+	
+	/** Every metric, by name */
+	private static final ConcurrentHashMap<String, Metric> metrics = new ConcurrentHashMap<String, Metric>();
+	
+	/** How long each run of the {@link edu.wpi.first.wpilibj.command.Scheduler scheduler} takes, in seconds */
+	public static final Histogram SCHEDULER_TICK = histogram("scheduler.tick");
+	/** The number of bytes read by every {@link micobyte.frc.lib.subsystem.SubsystemSerial serial subsystem} */
+	public static final Counter SERIAL_BYTES = counter("serial.bytes");
+	/** The number of lines read by every {@link micobyte.frc.lib.subsystem.SubsystemSerial serial subsystem} */
+	public static final Counter SERIAL_LINES = counter("serial.lines");
+	/** How long each write to the log file takes, in seconds */
+	public static final Histogram LOG_WRITE = histogram("log.write");
+	/** The number of times the robot has been {@link micobyte.frc.lib.subsystem.IDriveSubsystem#drive(double, double, double, double) driven} */
+	public static final Counter DRIVE_OUTPUTS = counter("drive.outputs");
+	/** The number of times the robot has been {@link micobyte.frc.lib.subsystem.IDriveSubsystem#drive(double, double, double, double) driven} with an input at or beyond full scale */
+	public static final Counter DRIVE_SATURATED = counter("drive.saturated");
+	/** The estimated number of bytes of NetworkTables updates sent by the {@link micobyte.frc.lib.io.Dashboard Dashboard} and {@link micobyte.frc.lib.io.Telemetry Telemetry} */
+	public static final Counter NT_BYTES = counter("nt.bytes");
+	/** The estimated number of bytes of NetworkTables updates sent by the {@link micobyte.frc.lib.io.Dashboard Dashboard} and {@link micobyte.frc.lib.io.Telemetry Telemetry} each tick */
+	public static final Histogram NT_TICK_BYTES = histogram("nt.tickBytes", SIZE_BUCKETS);
+	
+	/** The {@link Notifier} that publishes the metrics, or {@code null} if they aren't being published */
+	private static Notifier publisher;
+	
+	private Metrics() {}
+	
+	/**
+	 * A metric
+	 */
+	private static abstract class Metric {
+		/** The name */
+		private final String name;
+		
+		private Metric(String name) { this.name = name; }
+		
+		/**
+		 * Publishes the metric's snapshot
+		 * @param table The table to publish it in
+		 * @param log The log line to append it to, or {@code null} for none
+		 */
+		abstract void publish(NetworkTable table, StringBuilder log);
+	}
+	
+	/**
+	 * A count of something, which is striped, so threads adding to it at the same time don't slow each other down
+	 */
+	public static final class Counter extends Metric {
+		/** The count */
+		private final LongAdder count = new LongAdder();
+		
+		private Counter(String name) { super(name); }
+		
+		/** Adds one to the count */
+		public void increment() { count.increment(); }
+		
+		/**
+		 * Adds to the count
+		 * @param n How much to add
+		 */
+		public void add(long n) { count.add(n); }
+		
+		/** @return The count */
+		public long get() { return count.sum(); }
+		
+		void publish(NetworkTable table, StringBuilder log) {
+			long value = get();
+			
+			table.getEntry(super.name).setDouble(value);
+			if(log != null) log.append(super.name).append('=').append(value).append(' ');
+		}
+	}
+	
+	/**
+	 * A value that is {@link #set(double) set}, or read from a {@link DoubleSupplier} when it is published
+	 */
+	public static final class Gauge extends Metric {
+		/** The value */
+		private volatile double value;
+		/** The supplier of the value, or {@code null} if it is set */
+		private final DoubleSupplier supplier;
+		
+		private Gauge(String name, DoubleSupplier supplier) { super(name); this.supplier = supplier; }
+		
+		/**
+		 * Sets the value
+		 * @param value The value
+		 */
+		public void set(double value) { this.value = value; }
+		
+		/** @return The value */
+		public double get() { return (supplier == null ? value : supplier.getAsDouble()); }
+		
+		void publish(NetworkTable table, StringBuilder log) {
+			double value = get();
+			
+			table.getEntry(super.name).setDouble(value);
+			if(log != null) log.append(super.name).append('=').append(value).append(' ');
+		}
+	}
+	
+	/**
+	 * A histogram of values (such as latencies, in seconds), counted in fixed buckets
+	 */
+	public static final class Histogram extends Metric {
+		/** The upper bound of each bucket but the last, which has none */
+		private final double[] bounds;
+		/** The number of values in each bucket */
+		private final AtomicLongArray buckets;
+		/** The sum of every value */
+		private final DoubleAdder sum = new DoubleAdder();
+		/** The largest value, as its {@link Double#doubleToLongBits(double) bits} */
+		private final AtomicLong max = new AtomicLong(Double.doubleToLongBits(0));
+		
+		private Histogram(String name, double[] bounds) {
+			super(name);
+			
+			this.bounds = bounds.clone();
+			buckets = new AtomicLongArray(bounds.length + 1);
+		}
+		
+		/**
+		 * Records a value
+		 * @param value The value
+		 */
+		public void record(double value) {
+			int i = 0;
+			while(i < bounds.length && value > bounds[i]) i++;
+			
+			buckets.incrementAndGet(i);
+			sum.add(value);
+			
+			long current;
+			while(value > Double.longBitsToDouble(current = max.get()) && !max.compareAndSet(current, Double.doubleToLongBits(value)));
+		}
+		
+		/**
+		 * Records the time since a {@link System#nanoTime() start time}, in seconds
+		 * @param startNanos The start time, from {@link System#nanoTime()}
+		 */
+		public void recordSince(long startNanos) { record((System.nanoTime() - startNanos) / 1e9); }
+		
+		/** @return The number of values recorded */
+		public long getCount() {
+			long count = 0;
+			for(int i = 0; i < buckets.length(); i++) count += buckets.get(i);
+			
+			return count;
+		}
+		
+		/** @return The mean of the values recorded, or 0 if there are none */
+		public double getMean() {
+			long count = getCount();
+			return (count == 0 ? 0 : sum.sum() / count);
+		}
+		
+		/** @return The largest value recorded */
+		public double getMax() { return Double.longBitsToDouble(max.get()); }
+		
+		/**
+		 * Estimates a percentile of the values recorded, as the upper bound of the bucket it is in
+		 * @param fraction The percentile, from 0 to 1
+		 * @return The estimate, which is the {@link #getMax() largest value} if it is in the last bucket, or 0 if there are no values
+		 */
+		public double getPercentile(double fraction) {
+			long count = getCount(), seen = 0;
+			if(count == 0) return 0;
+			
+			for(int i = 0; i < bounds.length; i++) {
+				seen += buckets.get(i);
+				if(seen >= fraction * count) return Math.min(bounds[i], getMax());
+			}
+			
+			return getMax();
+		}
+		
+		void publish(NetworkTable table, StringBuilder log) {
+			NetworkTable sub = table.getSubTable(super.name);
+			long count = getCount();
+			double mean = getMean(), p95 = getPercentile(0.95), max = getMax();
+			
+			sub.getEntry("count").setDouble(count);
+			sub.getEntry("mean").setDouble(mean);
+			sub.getEntry("p50").setDouble(getPercentile(0.5));
+			sub.getEntry("p95").setDouble(p95);
+			sub.getEntry("p99").setDouble(getPercentile(0.99));
+			sub.getEntry("max").setDouble(max);
+			
+			if(log != null) log.append(super.name).append("={count=").append(count).append(" mean=").append(mean).append(" p95=").append(p95).append(" max=").append(max).append("} ");
+		}
+	}
+	
+	/**
+	 * Gets the metric with a name, creating it if there isn't one
+	 * @param name The name
+	 * @param type The type of metric
+	 * @param metric The metric to add if there isn't one
+	 * @return The metric
+	 * @throws IllegalArgumentException If a metric of another type has the name
+	 */
+	private static <M extends Metric> M get(String name, Class<M> type, M metric) {
+		Metric existing = metrics.putIfAbsent(name, metric);
+		if(existing == null) return metric;
+		
+		if(!type.isInstance(existing)) throw new IllegalArgumentException("Metric \"" + name + "\" is not a " + type.getSimpleName());
+		return type.cast(existing);
+	}
+	
+	/**
+	 * Gets a {@link Counter}, creating it if it doesn't exist
+	 * @param name The name
+	 * @return The {@link Counter}
+	 * @throws IllegalArgumentException If another type of metric has the name
+	 */
+	public static Counter counter(String name) { return get(name, Counter.class, new Counter(name)); }
+	
+	/**
+	 * Gets a {@link Gauge} that is {@link Gauge#set(double) set}, creating it if it doesn't exist
+	 * @param name The name
+	 * @return The {@link Gauge}
+	 * @throws IllegalArgumentException If another type of metric has the name
+	 */
+	public static Gauge gauge(String name) { return get(name, Gauge.class, new Gauge(name, null)); }
+	
+	/**
+	 * Creates a {@link Gauge} that is read from a {@link DoubleSupplier} when it is published, replacing any gauge with the name
+	 * @param name The name
+	 * @param supplier The supplier of the value
+	 * @return The {@link Gauge}
+	 * @throws IllegalArgumentException If another type of metric has the name
+	 */
+	public static Gauge gauge(String name, DoubleSupplier supplier) {
+		Gauge gauge = new Gauge(name, supplier);
+		Metric existing = metrics.put(name, gauge);
+		
+		if(existing != null && !(existing instanceof Gauge)) {
+			metrics.put(name, existing);
+			throw new IllegalArgumentException("Metric \"" + name + "\" is not a Gauge");
+		}
+		
+		return gauge;
+	}
+	
+	/**
+	 * Gets a {@link Histogram} with the {@link #LATENCY_BUCKETS default latency buckets}, creating it if it doesn't exist
+	 * @param name The name
+	 * @return The {@link Histogram}
+	 * @throws IllegalArgumentException If another type of metric has the name
+	 */
+	public static Histogram histogram(String name) { return histogram(name, LATENCY_BUCKETS); }
+	
+	/**
+	 * Gets a {@link Histogram}, creating it if it doesn't exist
+	 * @param name The name
+	 * @param bounds The upper bound of each bucket, in ascending order. Values above the last bound go into one more bucket.
+	 * @return The {@link Histogram}
+	 * @throws IllegalArgumentException If another type of metric has the name
+	 */
+	public static Histogram histogram(String name, double[] bounds) { return get(name, Histogram.class, new Histogram(name, bounds)); }
+	
+	/**
+	 * Publishes a snapshot of every metric
+	 * @param toLog Whether to also write it to the log file
+	 */
+	public static void publish(boolean toLog) {
+		NetworkTable table = NetworkTableInstance.getDefault().getTable(TABLE);
+		StringBuilder log = (toLog ? new StringBuilder("Metrics: ") : null);
+		
+		ArrayList<String> names = new ArrayList<String>(metrics.keySet());
+		names.sort(null);
+		for(String name : names) metrics.get(name).publish(table, log);
+		
+		if(log != null) MBLibUtil.writeToLogFile(MBLibUtil.getDateTimeString() + " : " + log.toString().trim());
+	}
+	
+	/**
+	 * Starts publishing a snapshot of every metric periodically, on a {@link Notifier}'s thread
+	 * @param period How often to publish it, in seconds
+	 * @param toLog Whether to also write it to the log file
+	 */
+	public static synchronized void startPublishing(double period, boolean toLog) {
+		stopPublishing();
+		
+		publisher = new Notifier(() -> publish(toLog));
+		publisher.startPeriodic(period);
+	}
+	
+	/**
+	 * Stops publishing the metrics periodically
+	 */
+	public static synchronized void stopPublishing() {
+		if(publisher != null) {
+			publisher.stop();
+			publisher = null;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package micobyte.frc.lib.command;
+
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.Subsystem;
+
+import micobyte.frc.lib.motion.MotionProfile;
+import micobyte.frc.lib.subsystem.IDriveSubsystem;
+
+/**
+ * A {@link Command} that drives an {@link IDriveSubsystem} forward along a precomputed {@link MotionProfile}, by looking up the setpoint for the time each tick,
+ * which takes O(1) time, and {@link IDriveSubsystem#drive(double, double, double, double) driving} with the feed-forward for its velocity and acceleration,
+ * plus a proportional correction for how far the robot is from its position (if the position is measured).<br>
+ * The {@link edu.wpi.first.wpilibj.command.Scheduler scheduler} runs commands after the subsystems' {@link Subsystem#periodic() periodic methods},
+ * so the command's outputs override whatever the subsystem's {@link IDriveSubsystem#driveAuto() autonomous drive} gives.
+ */
+public class CommandFollowProfile extends Command {
+	/** The drive subsystem */
+	private final IDriveSubsystem drive;
+	/** The profile */
+	private final MotionProfile profile;
+	/** The output per unit of velocity */
+	private final double kV;
+	/** The output per unit of acceleration */
+	private final double kA;
+	/** The output per unit of position error */
+	private final double kP;
+	/** The position (such as from an encoder), or {@code null} to follow the profile without feedback */
+	private final DoubleSupplier position;
+	
+	/** When the profile started, in seconds */
+	private double startTime;
+	/** The position when the profile started */
+	private double startPosition;
+	
+	/**
+	 * Creates the command, which follows the profile without feedback
+	 * @param drive The drive subsystem
+	 * @param profile The profile
+	 * @param kV The output per unit of velocity (per second)
+	 * @param kA The output per unit of acceleration (per second squared)
+	 */
+	public CommandFollowProfile(IDriveSubsystem drive, MotionProfile profile, double kV, double kA) { this(drive, profile, kV, kA, 0, null); }
+	
+	/**
+	 * Creates the command
+	 * @param drive The drive subsystem
+	 * @param profile The profile
+	 * @param kV The output per unit of velocity (per second)
+	 * @param kA The output per unit of acceleration (per second squared)
+	 * @param kP The output per unit of position error
+	 * @param position The position, in the profile's units (such as an {@link edu.wpi.first.wpilibj.Encoder encoder}'s {@link edu.wpi.first.wpilibj.Encoder#getDistance() distance}),
+	 * or {@code null} to follow the profile without feedback
+	 */
+	public CommandFollowProfile(IDriveSubsystem drive, MotionProfile profile, double kV, double kA, double kP, DoubleSupplier position) {
+		super("Follow Profile");
+		
+		if(drive instanceof Subsystem) requires((Subsystem)drive);
+		
+		this.drive = drive;
+		this.profile = profile;
+		this.kV = kV;
+		this.kA = kA;
+		this.kP = kP;
+		this.position = position;
+	}
+	
+	protected void initialize() {
+		startTime = Timer.getFPGATimestamp();
+		startPosition = (position == null ? 0 : position.getAsDouble());
+	}
+	
+	protected void execute() {
+		int i = profile.getIndex(Timer.getFPGATimestamp() - startTime);
+		
+		double speed = kV * profile.getVelocity(i) + kA * profile.getAcceleration(i);
+		if(position != null) speed += kP * (profile.getPosition(i) - (position.getAsDouble() - startPosition));
+		
+		if(drive.isMecanumEsque()) drive.drive(0, speed, 0, 0);
+		else drive.drive(0, speed, 0, speed);
+	}
+	
+	protected boolean isFinished() { return Timer.getFPGATimestamp() - startTime >= profile.getDuration(); }
+	
+	protected void end() { drive.drive(0, 0, 0, 0); }
+	protected void interrupted() { end(); }
+}
@@ -0,0 +1,68 @@
+package micobyte.frc.lib.command;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.Subsystem;
+
+import micobyte.frc.lib.motion.Trajectory;
+import micobyte.frc.lib.subsystem.IDriveSubsystem;
+
+/**
+ * A {@link Command} that drives an {@link IDriveSubsystem} along a {@link micobyte.frc.lib.motion.PathPlanner planned} {@link Trajectory}, by looking up the state for the time each tick,
+ * which takes O(1) time, and {@link IDriveSubsystem#drive(double, double, double, double) driving} with the feed-forward for its velocity and acceleration,
+ * turned by its {@link Trajectory#getCurvature(int) curvature}, which is positive when turning counterclockwise: a differential drive's right side is sped up
+ * and its left side slowed down, whilst a mecanum or Killough drive is given the negated turn as its rotation, which is clockwise-positive.<br>
+ * Like a {@link CommandFollowProfile}, its outputs override whatever the subsystem's {@link IDriveSubsystem#driveAuto() autonomous drive} gives.
+ */
+public class CommandFollowTrajectory extends Command {
+	/** The drive subsystem */
+	private final IDriveSubsystem drive;
+	/** The trajectory */
+	private final Trajectory trajectory;
+	/** The output per unit of velocity */
+	private final double kV;
+	/** The output per unit of acceleration */
+	private final double kA;
+	/** The distance between the left and right wheels */
+	private final double trackWidth;
+	
+	/** When the trajectory started, in seconds */
+	private double startTime;
+	
+	/**
+	 * Creates the command
+	 * @param drive The drive subsystem
+	 * @param trajectory The trajectory
+	 * @param kV The output per unit of velocity (per second)
+	 * @param kA The output per unit of acceleration (per second squared)
+	 * @param trackWidth The distance between the left and right wheels, which works out how much faster the outside wheels go
+	 */
+	public CommandFollowTrajectory(IDriveSubsystem drive, Trajectory trajectory, double kV, double kA, double trackWidth) {
+		super("Follow Trajectory");
+		
+		if(drive instanceof Subsystem) requires((Subsystem)drive);
+		
+		this.drive = drive;
+		this.trajectory = trajectory;
+		this.kV = kV;
+		this.kA = kA;
+		this.trackWidth = trackWidth;
+	}
+	
+	protected void initialize() { startTime = Timer.getFPGATimestamp(); }
+	
+	protected void execute() {
+		int i = trajectory.getIndex(Timer.getFPGATimestamp() - startTime);
+		
+		double speed = kV * trajectory.getVelocity(i) + kA * trajectory.getAcceleration(i);
+		double turn = speed * trajectory.getCurvature(i) * trackWidth / 2;
+		
+		if(drive.isMecanumEsque()) drive.drive(0, speed, -turn, 0);
+		else drive.drive(0, speed - turn, 0, speed + turn);
+	}
+	
+	protected boolean isFinished() { return Timer.getFPGATimestamp() - startTime >= trajectory.getDuration(); }
+	
+	protected void end() { drive.drive(0, 0, 0, 0); }
+	protected void interrupted() { end(); }
+}
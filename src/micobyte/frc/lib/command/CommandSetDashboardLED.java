@@ -6,6 +6,8 @@ import edu.wpi.first.wpilibj.command.InstantCommand;
 
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
+import micobyte.frc.lib.io.Dashboard;
+
 /**
  * A {@link edu.wpi.first.wpilibj.command.Command Command} to set one of the LEDs on the {@link SmartDashboard dashboard}
  */
@@ -22,5 +24,5 @@ public class CommandSetDashboardLED extends InstantCommand {
 	 */
 	public CommandSetDashboardLED(int id, Supplier<Boolean> supp) { this.id = id; this.supp = supp; }
 	
-	public void initialize() { SmartDashboard.putBoolean("DB/Button " + id, supp.get()); }
+	public void initialize() { Dashboard.putBoolean("DB/Button " + id, supp.get()); }
 }
\ No newline at end of file
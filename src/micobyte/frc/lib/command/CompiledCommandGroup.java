@@ -0,0 +1,273 @@
+package micobyte.frc.lib.command;
+
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.CommandGroup;
+import edu.wpi.first.wpilibj.command.MBLibCommandAccess;
+import edu.wpi.first.wpilibj.command.MBLibCommandAccess.GroupEntry;
+import edu.wpi.first.wpilibj.command.Subsystem;
+import edu.wpi.first.wpilibj.command.WaitCommand;
+
+/**
+ * A {@link Command} that runs a finished, sequential {@link CommandGroup} (such as a {@link SimpleCommandGroup}) that has been flattened into an array-based state machine.<br>
+ * Nested groups are inlined, {@link SimpleCommandGroup#addConditional(Command, Command, Supplier) conditionals} become precomputed jumps, and
+ * {@link SimpleCommandGroup#addLog(Supplier) logs}, {@link SimpleCommandGroup#addPrint(Supplier) prints}, {@link SimpleCommandGroup#addWait(double) waits},
+ * {@link SimpleCommandGroup#addPlayRumble(edu.wpi.first.wpilibj.GenericHID, micobyte.frc.lib.io.RumbleSeries) rumbles} and
+ * {@link SimpleCommandGroup#addSetDBLED(int, Supplier) dashboard LEDs} become single steps, so none of them are {@link Command commands} any more.
+ * Any other {@link Command} (including a nested group that has a timeout of its own) is kept, and run as a child in its place.<br>
+ * It is {@link Command#isInterruptible() interruptible}, {@link Command#willRunWhenDisabled() runs when disabled} and times out in the same way as the group it was compiled from.<br>
+ * Steps that don't wait run one after another in the same tick, as does the next step after a wait or child finishes. This is what a {@link CommandGroup}
+ * (nested or not) does when one of its {@link Command commands} finishes, so a compiled group takes the same number of ticks as the group it was compiled from.
+ * A wait that is a whole number of ticks long may still end a tick earlier or later than it would have in the group, as both compare
+ * {@link Timer#getFPGATimestamp() floating-point timestamps}, which round differently depending on the time it started at.
+ */
+public class CompiledCommandGroup extends Command {
+	/** Step that runs an action, then moves on straight away */
+	private static final byte OP_ACTION = 0;
+	/** Step that waits for its time to pass */
+	private static final byte OP_WAIT = 1;
+	/** Step that moves on if its {@link Supplier predicate} is true, and jumps to its target if not */
+	private static final byte OP_BRANCH = 2;
+	/** Step that jumps to its target */
+	private static final byte OP_JUMP = 3;
+	/** Step that runs a child {@link Command} until it finishes, or its time (if not negative) runs out */
+	private static final byte OP_CHILD = 4;
+	
+	/** The kind of each step */
+	private final byte[] ops;
+	/** The {@link Runnable action}, {@link Supplier predicate} or child {@link Command} of each step */
+	private final Object[] operands;
+	/** The time of each step, in seconds */
+	private final double[] times;
+	/** The step that each step jumps to */
+	private final int[] targets;
+	
+	/** The current step */
+	private transient int step;
+	/** Whether the current step has started */
+	private transient boolean stepStarted;
+	/** When the current step started */
+	private transient double stepStartTime;
+	
+	/**
+	 * Creates the {@link CompiledCommandGroup} from the output of a {@link Compiler}
+	 * @param group The {@link CommandGroup} that was compiled
+	 * @param compiler The {@link Compiler}
+	 */
+	private CompiledCommandGroup(CommandGroup group, Compiler compiler) {
+		super(group.getName());
+		
+		int size = compiler.ops.size();
+		ops = new byte[size];
+		operands = compiler.operands.toArray();
+		times = new double[size];
+		targets = new int[size];
+		
+		for(int i = 0; i < size; i++) {
+			ops[i] = compiler.ops.get(i);
+			times[i] = compiler.times.get(i);
+			targets[i] = compiler.targets.get(i);
+		}
+		
+		for(Subsystem sys : MBLibCommandAccess.getRequirements(group)) requires(sys);
+		
+		setInterruptible(group.isInterruptible());
+		setRunWhenDisabled(group.willRunWhenDisabled());
+		
+		double timeout = MBLibCommandAccess.getTimeout(group);
+		if(timeout >= 0) setTimeout(timeout);
+	}
+	
+	/**
+	 * Compiles a {@link CommandGroup}. No more {@link Command commands} may be added to it afterwards, and it should not be started itself.
+	 * @param group The {@link CommandGroup}
+	 * @return The {@link CompiledCommandGroup}
+	 * @throws IllegalArgumentException If the {@link CommandGroup}, or a group inside it, has a {@link CommandGroup#addParallel(Command) parallel} {@link Command}
+	 */
+	public static CompiledCommandGroup compile(CommandGroup group) {
+		MBLibCommandAccess.lockChanges(group);
+		
+		Compiler compiler = new Compiler();
+		compiler.inline(group);
+		
+		return new CompiledCommandGroup(group, compiler);
+	}
+	
+	/**
+	 * @return How many steps the {@link CommandGroup} was compiled into
+	 */
+	public int getStepCount() { return ops.length; }
+	
+	protected void initialize() {
+		step = 0;
+		stepStarted = false;
+	}
+	
+	@SuppressWarnings("unchecked")
+	protected void execute() {
+		while(step < ops.length) {
+			switch(ops[step]) {
+				case OP_ACTION:
+					((Runnable)operands[step]).run();
+					step++;
+					break;
+				
+				case OP_WAIT:
+					if(!stepStarted) startStep();
+					if(Timer.getFPGATimestamp() - stepStartTime < times[step]) return;
+					
+					stepStarted = false;
+					step++;
+					break;
+				
+				case OP_BRANCH:
+					step = (((Supplier<Boolean>)operands[step]).get() ? step + 1 : targets[step]);
+					break;
+				
+				case OP_JUMP:
+					step = targets[step];
+					break;
+				
+				case OP_CHILD:
+					Command child = (Command)operands[step];
+					if(!stepStarted) {
+						startStep();
+						MBLibCommandAccess.startRunning(child);
+					}
+					
+					if(times[step] >= 0 && Timer.getFPGATimestamp() - stepStartTime >= times[step]) MBLibCommandAccess.cancel(child);
+					if(MBLibCommandAccess.run(child)) return;
+					
+					MBLibCommandAccess.removed(child);
+					stepStarted = false;
+					step++;
+					break;
+			}
+		}
+	}
+	
+	/** Marks the current step as started */
+	private void startStep() {
+		stepStarted = true;
+		stepStartTime = Timer.getFPGATimestamp();
+	}
+	
+	protected boolean isFinished() { return step >= ops.length; }
+	
+	protected void interrupted() {
+		if(stepStarted && ops[step] == OP_CHILD) {
+			Command child = (Command)operands[step];
+			MBLibCommandAccess.cancel(child);
+			MBLibCommandAccess.removed(child);
+		}
+		
+		stepStarted = false;
+	}
+	
+	/**
+	 * Flattens {@link Command commands} into steps<br>
+	 * <b>This is an internal class. It should not be used by the end user.</b>
+	 */
+	private static final class Compiler {
+		/** The kind of each step */
+		private final ArrayList<Byte> ops = new ArrayList<Byte>();
+		/** The operand of each step */
+		private final ArrayList<Object> operands = new ArrayList<Object>();
+		/** The time of each step */
+		private final ArrayList<Double> times = new ArrayList<Double>();
+		/** The jump target of each step */
+		private final ArrayList<Integer> targets = new ArrayList<Integer>();
+		
+		/**
+		 * Adds a step
+		 * @param op The kind of step
+		 * @param operand The operand
+		 * @param time The time
+		 * @return The index of the step
+		 */
+		private int add(byte op, Object operand, double time) {
+			ops.add(op);
+			operands.add(operand);
+			times.add(time);
+			targets.add(-1);
+			
+			return ops.size() - 1;
+		}
+		
+		/**
+		 * Inlines every entry of a {@link CommandGroup}
+		 * @param group The {@link CommandGroup}
+		 */
+		private void inline(CommandGroup group) {
+			for(GroupEntry entry : MBLibCommandAccess.getGroupEntries(group)) {
+				if(!entry.sequential) throw new IllegalArgumentException("Can't compile \"" + group.getName() + "\", because \"" + entry.command.getName() + "\" is run in parallel");
+				add(entry.command, entry.timeout);
+			}
+		}
+		
+		/**
+		 * Adds the steps for a {@link Command}
+		 * @param cmd The {@link Command}
+		 * @param timeout Its timeout in the group, in seconds, or -1 for none
+		 */
+		private void add(Command cmd, double timeout) {
+			Class<?> c = cmd.getClass();
+			
+			if(timeout < 0 && cmd instanceof CommandGroup && MBLibCommandAccess.getTimeout(cmd) < 0 && isPlainGroup(c)) inline((CommandGroup)cmd);
+			else if(c == WaitCommand.class) add(OP_WAIT, null, limit(MBLibCommandAccess.getTimeout(cmd), timeout));
+			else if(c == CommandPrint.class || c == CommandLog.class) add(OP_ACTION, (Runnable)((CommandPrint)cmd)::initialize, 0);
+			else if(c == CommandSetDashboardLED.class) add(OP_ACTION, (Runnable)((CommandSetDashboardLED)cmd)::initialize, 0);
+			else if(c == CommandPlayRumble.class) {
+				add(OP_ACTION, (Runnable)((CommandPlayRumble)cmd)::initialize, 0);
+				
+				double wait = limit(MBLibCommandAccess.getTimeout(cmd), timeout);
+				if(wait > 0) add(OP_WAIT, null, wait);
+			} else if(timeout < 0 && c == PredicatedCommand.class) {
+				Command[] branches = MBLibCommandAccess.getConditionalCommands((PredicatedCommand)cmd);
+				int branch = add(OP_BRANCH, ((PredicatedCommand)cmd).predicate, 0);
+				
+				if(branches[0] != null) add(branches[0], -1);
+				if(branches[1] != null) {
+					int jump = add(OP_JUMP, null, 0);
+					targets.set(branch, ops.size());
+					
+					add(branches[1], -1);
+					targets.set(jump, ops.size());
+				} else targets.set(branch, ops.size());
+			} else add(OP_CHILD, cmd, timeout);
+		}
+		
+		/**
+		 * Limits a time to a timeout
+		 * @param time The time, in seconds, or -1 for none
+		 * @param timeout The timeout, in seconds, or -1 for none
+		 * @return The lesser of the two that isn't negative
+		 */
+		private static double limit(double time, double timeout) {
+			if(time < 0) return timeout;
+			else if(timeout < 0) return time;
+			else return Math.min(time, timeout);
+		}
+		
+		/**
+		 * Checks that a {@link CommandGroup} class doesn't change what the group does when run, so it can be inlined
+		 * @param c The class
+		 * @return Whether it can be inlined
+		 */
+		private static boolean isPlainGroup(Class<?> c) {
+			for(; c != CommandGroup.class; c = c.getSuperclass()) {
+				for(String method : new String[] { "initialize", "execute", "isFinished", "end", "interrupted" }) {
+					try {
+						c.getDeclaredMethod(method);
+						return false;
+					} catch(NoSuchMethodException e) {}
+				}
+			}
+			
+			return true;
+		}
+	}
+}
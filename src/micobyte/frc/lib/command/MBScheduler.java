@@ -0,0 +1,704 @@
+package micobyte.frc.lib.command;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+
+import edu.wpi.first.wpilibj.buttons.Trigger.ButtonScheduler;
+import edu.wpi.first.wpilibj.command.Command;
+import edu.wpi.first.wpilibj.command.MBLibCommandAccess;
+import edu.wpi.first.wpilibj.command.Scheduler;
+import edu.wpi.first.wpilibj.command.Subsystem;
+
+import micobyte.frc.lib.MBLibUtil;
+import micobyte.frc.lib.subsystem.IConcurrentSubsystem;
+
+/**
+ * A replacement for {@link Scheduler#run()} that keeps the same {@link Command}/{@link Subsystem} semantics, but is backed by index-addressed arrays
+ * instead of a {@link java.util.Hashtable Hashtable} and a linked list.<br>
+ * {@link Subsystem Subsystems} and {@link Command commands} are given dense integer IDs the first time they are seen, requirement conflicts are checked
+ * with bitsets, and once every {@link Command} has been seen once nothing is allocated per tick.<br>
+ * {@link Command#start() Started commands}, {@link Subsystem subsystems} and {@link edu.wpi.first.wpilibj.buttons.Button buttons} still register
+ * themselves with the {@link Scheduler}, and are taken from it each tick, so the {@link Scheduler} itself must not also be run.
+ * Likewise, {@link Scheduler#disable()} and {@link Scheduler#removeAll()} don't affect this, so its own {@link #disable()} and {@link #removeAll()} must be used.<br>
+ * Every {@link Command} is remembered for the lifetime of the robot program, so {@link Command commands} should be created once and reused, rather than
+ * being created each time they are started.<br>
+ * Each tick may also be given a {@link #setTickBudget(double, OverrunPolicy) time budget}, with the execution time of every {@link Command} and
+ * {@link Subsystem#periodic()} being measured, and an {@link OverrunPolicy} deciding what happens when the budget is used up.
+ * Without a budget, nothing is timed unless {@link #setTiming(boolean) timing} is turned on, as reading the clock around every {@link Command} is
+ * a large part of the cost of a tick.<br>
+ * The {@link Subsystem#periodic()} methods of {@link IConcurrentSubsystem concurrent subsystems} may also be {@link #setParallelPeriodic(int) run in parallel},
+ * with every one of them finishing before any {@link Command} is executed.
+ */
+public final class MBScheduler {
+	/** Singleton instance */
+	private static MBScheduler instance;
+	
+	/** The {@link Subsystem subsystems}, by ID */
+	private Subsystem[] subsystems = new Subsystem[16];
+	/** The ID of the {@link Command} that holds each {@link Subsystem}, or -1 */
+	private int[] owners = new int[16];
+	/** How many {@link Subsystem subsystems} have IDs */
+	private int subsystemCount;
+	/** How many of the {@link Scheduler}'s registered {@link Subsystem subsystems} have been looked at */
+	private int registeredSeen;
+	/** The IDs of the {@link Subsystem subsystems}. Only used when a new {@link Command} is seen. */
+	private final IdentityHashMap<Subsystem, Integer> subsystemIds = new IdentityHashMap<Subsystem, Integer>();
+	
+	/** How many {@code long}s a bitset of {@link Subsystem subsystems} takes */
+	private int words = 1;
+	/** Bitset of the {@link Subsystem subsystems} currently held by a {@link Command} */
+	private long[] held = new long[1];
+	
+	/** The {@link Command commands}, by ID */
+	private Command[] commands = new Command[64];
+	/** The IDs of the {@link Subsystem subsystems} required by each {@link Command} */
+	private int[][] requirements = new int[64][];
+	/** Bitsets of the {@link Subsystem subsystems} required by each {@link Command}, {@link #words} per {@link Command} */
+	private long[] masks = new long[64];
+	/** Whether each {@link Command} is currently running */
+	private boolean[] running = new boolean[64];
+	/** How many {@link Command commands} have IDs */
+	private int commandCount;
+	/** The IDs of the {@link Command commands}. Looked up when a {@link Command} is added, never when it is run. */
+	private final IdentityHashMap<Command, Integer> commandIds = new IdentityHashMap<Command, Integer>();
+	
+	/** The IDs of the running {@link Command commands}, in the order they were added */
+	private int[] order = new int[64];
+	/** How many {@link Command commands} are running */
+	private int runningCount;
+	
+	/** The {@link Scheduler}'s queue of started {@link Command commands} */
+	private Vector<Command> additions;
+	/** The {@link Scheduler}'s list of registered {@link Subsystem subsystems} */
+	private Vector<Subsystem> registered;
+	/** The {@link Scheduler}'s list of {@link ButtonScheduler buttons}, which is created lazily */
+	private Vector<ButtonScheduler> buttons;
+	
+	/** Whether or not a {@link Command} is currently being added */
+	private boolean adding = false;
+	/** Whether or not the scheduler is disabled */
+	private boolean disabled = false;
+	
+	/** The minimum time between two logged overruns, in nanoseconds */
+	private static final long OVERRUN_LOG_INTERVAL = 1000000000L;
+	
+	/** The time budget for each tick, in nanoseconds, or 0 for none */
+	private long budget = 0;
+	/** What to do when the {@link #budget} is overrun */
+	private OverrunPolicy policy = OverrunPolicy.LOG;
+	/** Whether execution times are measured even without a {@link #budget} */
+	private boolean timing = false;
+	/** Whether execution times are being measured this tick */
+	private volatile boolean timed = false;
+	/** Whether each {@link Command} is low-priority */
+	private boolean[] lowPriority = new boolean[64];
+	/** Whether each {@link Command} that has been made (or unmade) low-priority before it had an ID is low-priority, until it is given one */
+	private final IdentityHashMap<Command, Boolean> pendingLowPriority = new IdentityHashMap<Command, Boolean>();
+	/** How long each {@link Command} took the last time it was executed, in nanoseconds */
+	private long[] lastTimes = new long[64];
+	/** How long each {@link Command} has taken to execute in total, in nanoseconds */
+	private long[] totalTimes = new long[64];
+	/** How many times each {@link Command} has been executed */
+	private long[] runCounts = new long[64];
+	/** How long the {@link Subsystem#periodic()} method of each {@link Subsystem} took last tick, in nanoseconds */
+	private long[] periodicTimes = new long[16];
+	
+	/** The IDs of the running {@link Command commands}, in the order they are executed this tick */
+	private int[] tickOrder = new int[64];
+	/** Where in the running {@link Command commands} the next tick starts, for {@link OverrunPolicy#ROTATE} */
+	private int rotation = 0;
+	/** How long the last tick took, in nanoseconds */
+	private long lastTickTime = 0;
+	/** How many ticks have overrun the budget */
+	private int overrunCount = 0;
+	/** When an overrun was last logged, in nanoseconds */
+	private long lastOverrunLog = System.nanoTime() - OVERRUN_LOG_INTERVAL;
+	
+	/** The pool that {@link IConcurrentSubsystem concurrent subsystems} have their {@link Subsystem#periodic()} methods run on, or {@code null} to run every one serially */
+	private ForkJoinPool periodicPool;
+	/** Whether the plan for running the {@link Subsystem#periodic()} methods in parallel has to be rebuilt */
+	private boolean periodicPlanStale = true;
+	/** Whether each {@link Subsystem} is an {@link IConcurrentSubsystem} */
+	private boolean[] concurrent;
+	/** How many {@link IConcurrentSubsystem concurrent subsystems} there are */
+	private int concurrentCount;
+	/** The IDs of the {@link IConcurrentSubsystem concurrent subsystems} that depend on each {@link Subsystem} */
+	private int[][] dependents;
+	/** How many dependencies each {@link Subsystem} has */
+	private int[] dependencyCounts;
+	/** How many of each {@link Subsystem}'s dependencies have not yet finished their {@link Subsystem#periodic()} this tick */
+	private AtomicIntegerArray pendingDependencies;
+	/** How many {@link IConcurrentSubsystem concurrent subsystems} have not yet finished their {@link Subsystem#periodic()} this tick */
+	private final AtomicInteger pendingPeriodics = new AtomicInteger();
+	/** The task for each {@link IConcurrentSubsystem concurrent subsystem}, reused every tick */
+	private PeriodicTask[] periodicTasks;
+	/** The thread waiting for the {@link IConcurrentSubsystem concurrent subsystems} to finish */
+	private volatile Thread periodicWaiter;
+	/** The first error thrown by a {@link IConcurrentSubsystem concurrent subsystem} this tick */
+	private volatile Throwable periodicError;
+	
+	private MBScheduler() {}
+	
+	/**
+	 * @return The {@link MBScheduler}, creating it if it does not exist
+	 */
+	public static synchronized MBScheduler getInstance() {
+		if(instance == null) instance = new MBScheduler();
+		return instance;
+	}
+	
+	/**
+	 * Runs a single iteration of the loop, in the same stages as {@link Scheduler#run()}:
+	 * polling the buttons, calling {@link Subsystem#periodic()}, executing the {@link Command commands}, adding new {@link Command commands}, then adding default {@link Command commands}
+	 */
+	public void run() {
+		if(disabled) return;
+		
+		timed = (budget > 0 || timing);
+		long tickStart = (timed ? System.nanoTime() : 0);
+		
+		if(additions == null) {
+			additions = MBLibCommandAccess.getAdditions();
+			registered = MBLibCommandAccess.getSubsystems();
+		}
+		if(buttons == null) buttons = MBLibCommandAccess.getButtons();
+		
+		// Going backwards preserves button priority
+		if(buttons != null) for(int i = buttons.size() - 1; i >= 0; i--) buttons.elementAt(i).execute();
+		
+		registerNewSubsystems();
+		runPeriodics();
+		
+		int executed = executeCommands(tickStart);
+		
+		for(int i = 0; i < additions.size(); i++) add(additions.elementAt(i));
+		additions.removeAllElements();
+		
+		for(int i = 0; i < subsystemCount; i++) {
+			if(owners[i] == -1) add(subsystems[i].getDefaultCommand());
+			MBLibCommandAccess.confirmCommand(subsystems[i]);
+		}
+		
+		if(timed) {
+			lastTickTime = System.nanoTime() - tickStart;
+			if(budget > 0 && lastTickTime > budget) onOverrun(executed);
+		}
+	}
+	
+	/**
+	 * Calls every {@link Subsystem#periodic()} method, running those of {@link IConcurrentSubsystem concurrent subsystems} in parallel if
+	 * {@link #setParallelPeriodic(int) enabled}, and waits for all of them to finish
+	 */
+	private void runPeriodics() {
+		if(periodicPool == null) {
+			if(!timed) {
+				for(int i = 0; i < subsystemCount; i++) subsystems[i].periodic();
+				return;
+			}
+			
+			// Each periodic() ends when the next one starts, so the clock is only read once per subsystem
+			long start = System.nanoTime();
+			for(int i = 0; i < subsystemCount; i++) {
+				subsystems[i].periodic();
+				
+				long end = System.nanoTime();
+				periodicTimes[i] = end - start;
+				start = end;
+			}
+			
+			return;
+		}
+		
+		if(periodicPlanStale) planPeriodics();
+		
+		periodicWaiter = Thread.currentThread();
+		periodicError = null;
+		pendingPeriodics.set(concurrentCount);
+		for(int i = 0; i < subsystemCount; i++) {
+			pendingDependencies.set(i, dependencyCounts[i]);
+			if(concurrent[i]) periodicTasks[i].reinitialize();
+		}
+		
+		for(int i = 0; i < subsystemCount; i++) if(concurrent[i] && dependencyCounts[i] == 0) periodicPool.execute(periodicTasks[i]);
+		
+		// Everything that isn't thread-safe runs here, alongside the pool
+		for(int i = 0; i < subsystemCount; i++) {
+			if(!concurrent[i]) {
+				try {
+					runPeriodic(i);
+				} catch(Throwable t) {
+					if(periodicError == null) periodicError = t;
+				} finally {
+					releaseDependents(i);
+				}
+			}
+		}
+		
+		// Even after an error, every task has to finish before the next tick can reinitialize it
+		while(pendingPeriodics.get() > 0) LockSupport.park(this);
+		
+		// A task counts itself finished just before it is marked as done, and it can't be reinitialized next tick until it is
+		for(int i = 0; i < subsystemCount; i++) if(concurrent[i]) while(!periodicTasks[i].isDone()) Thread.yield();
+		
+		Throwable error = periodicError;
+		if(error instanceof RuntimeException) throw (RuntimeException)error;
+		else if(error instanceof Error) throw (Error)error;
+		else if(error != null) throw new RuntimeException(error);
+	}
+	
+	/**
+	 * Calls a {@link Subsystem}'s {@link Subsystem#periodic()} method, and times it if execution times are being measured this tick
+	 * @param id The ID of the {@link Subsystem}
+	 */
+	private void runPeriodic(int id) {
+		if(!timed) {
+			subsystems[id].periodic();
+			return;
+		}
+		
+		long start = System.nanoTime();
+		subsystems[id].periodic();
+		periodicTimes[id] = System.nanoTime() - start;
+	}
+	
+	/**
+	 * Marks a {@link Subsystem}'s {@link Subsystem#periodic()} method as finished, starting any {@link IConcurrentSubsystem concurrent subsystem} that was only waiting on it
+	 * @param id The ID of the {@link Subsystem}
+	 */
+	private void releaseDependents(int id) {
+		for(int dependent : dependents[id]) {
+			if(pendingDependencies.decrementAndGet(dependent) == 0) {
+				if(ForkJoinTask.inForkJoinPool()) periodicTasks[dependent].fork();
+				else periodicPool.execute(periodicTasks[dependent]);
+			}
+		}
+	}
+	
+	/**
+	 * Works out which {@link Subsystem subsystems} are {@link IConcurrentSubsystem concurrent}, and what depends on what
+	 * @throws IllegalStateException If a dependency is not a known {@link Subsystem}, or the dependencies are cyclic
+	 */
+	private void planPeriodics() {
+		int n = subsystemCount;
+		concurrent = new boolean[n];
+		dependencyCounts = new int[n];
+		int[][] dependencies = new int[n][];
+		int[] dependentCounts = new int[n];
+		concurrentCount = 0;
+		
+		for(int i = 0; i < n; i++) {
+			dependencies[i] = new int[0];
+			
+			if(subsystems[i] instanceof IConcurrentSubsystem) {
+				concurrent[i] = true;
+				concurrentCount++;
+				
+				Subsystem[] deps = ((IConcurrentSubsystem)subsystems[i]).getPeriodicDependencies();
+				dependencies[i] = new int[deps.length];
+				for(int d = 0; d < deps.length; d++) {
+					Integer dep = subsystemIds.get(deps[d]);
+					if(dep == null) throw new IllegalStateException("Subsystem \"" + subsystems[i].getName() + "\" depends on an unregistered subsystem");
+					
+					dependencies[i][d] = dep;
+					dependentCounts[dep]++;
+				}
+				
+				dependencyCounts[i] = deps.length;
+			}
+		}
+		
+		dependents = new int[n][];
+		for(int i = 0; i < n; i++) dependents[i] = new int[dependentCounts[i]];
+		int[] filled = new int[n];
+		for(int i = 0; i < n; i++) for(int dep : dependencies[i]) dependents[dep][filled[dep]++] = i;
+		
+		// Kahn's algorithm, just to make sure every subsystem can eventually run
+		int[] remaining = dependencyCounts.clone(), ready = new int[n];
+		int readyCount = 0, done = 0;
+		for(int i = 0; i < n; i++) if(remaining[i] == 0) ready[readyCount++] = i;
+		while(readyCount > 0) {
+			int id = ready[--readyCount];
+			done++;
+			
+			for(int dependent : dependents[id]) if(--remaining[dependent] == 0) ready[readyCount++] = dependent;
+		}
+		if(done < n) throw new IllegalStateException("The periodic() dependencies of the concurrent subsystems are cyclic");
+		
+		pendingDependencies = new AtomicIntegerArray(n);
+		periodicTasks = new PeriodicTask[n];
+		for(int i = 0; i < n; i++) if(concurrent[i]) periodicTasks[i] = new PeriodicTask(i);
+		
+		periodicPlanStale = false;
+	}
+	
+	/**
+	 * Sets how many threads the {@link Subsystem#periodic()} methods of {@link IConcurrentSubsystem concurrent subsystems} are run on, alongside the thread
+	 * calling {@link #run()}. This should not be called during a {@link #run()}.
+	 * @param threads The number of threads, or 0 to run every {@link Subsystem#periodic()} serially
+	 */
+	public void setParallelPeriodic(int threads) {
+		if(threads < 0) throw new IllegalArgumentException("Thread count can't be negative");
+		
+		if(periodicPool != null) periodicPool.shutdown();
+		periodicPool = (threads == 0 ? null : new ForkJoinPool(threads));
+		periodicPlanStale = true;
+	}
+	
+	/**
+	 * Executes the running {@link Command commands}, following the {@link OverrunPolicy}, and removes those that have finished
+	 * @param tickStart When the tick started, in nanoseconds, if execution times are being measured this tick
+	 * @return How many of the {@link Command commands} in {@link #tickOrder} were looked at
+	 */
+	private int executeCommands(long tickStart) {
+		int count = runningCount, start = 0;
+		if(tickOrder.length < count) tickOrder = new int[order.length];
+		
+		if(policy == OverrunPolicy.ROTATE && count > 0) start = rotation % count;
+		System.arraycopy(order, start, tickOrder, 0, count - start);
+		System.arraycopy(order, 0, tickOrder, count - start, start);
+		
+		// Each command's time ends when the next one's starts, so the clock is only read once per command
+		long now = (timed ? System.nanoTime() : 0);
+		for(int i = 0; i < count; i++) {
+			int id = tickOrder[i];
+			if(!running[id]) continue;
+			
+			if(budget > 0) {
+				long elapsed = now - tickStart;
+				
+				// At least one command always runs, so that rotating always makes progress
+				if(policy == OverrunPolicy.ROTATE && i > 0 && elapsed >= budget) {
+					rotation = start + i;
+					return i;
+				}
+				
+				if(policy == OverrunPolicy.SKIP_LOW_PRIORITY && lowPriority[id] && elapsed + lastTimes[id] > budget) continue;
+			}
+			
+			if(!MBLibCommandAccess.run(commands[id])) remove(id);
+			
+			if(timed) {
+				long end = System.nanoTime();
+				
+				lastTimes[id] = end - now;
+				totalTimes[id] += end - now;
+				runCounts[id]++;
+				now = end;
+			}
+		}
+		
+		return count;
+	}
+	
+	/**
+	 * Called when a tick has overrun the budget, to count and (at most once every {@link #OVERRUN_LOG_INTERVAL}) log it
+	 * @param executed How many of the {@link Command commands} in {@link #tickOrder} were looked at
+	 */
+	private void onOverrun(int executed) {
+		overrunCount++;
+		
+		long now = System.nanoTime();
+		if(now - lastOverrunLog < OVERRUN_LOG_INTERVAL) return;
+		lastOverrunLog = now;
+		
+		String slowest = "(none)";
+		long slowestTime = -1;
+		for(int i = 0; i < subsystemCount; i++) {
+			if(periodicTimes[i] > slowestTime) {
+				slowestTime = periodicTimes[i];
+				slowest = "subsystem \"" + subsystems[i].getName() + "\"";
+			}
+		}
+		for(int i = 0; i < executed; i++) {
+			if(lastTimes[tickOrder[i]] > slowestTime) {
+				slowestTime = lastTimes[tickOrder[i]];
+				slowest = "command \"" + commands[tickOrder[i]].getName() + "\"";
+			}
+		}
+		
+		MBLibUtil.log("Scheduler tick took " + toMillis(lastTickTime) + "ms, over its budget of " + toMillis(budget) + "ms (" + overrunCount + " overruns so far); the slowest was " + slowest + " at " + toMillis(slowestTime) + "ms");
+	}
+	
+	/**
+	 * Sets the time budget for each tick
+	 * @param seconds The budget, in seconds, or 0 for none
+	 * @param policy What to do when the budget is overrun
+	 */
+	public void setTickBudget(double seconds, OverrunPolicy policy) {
+		if(seconds < 0) throw new IllegalArgumentException("Tick budget can't be negative");
+		if(policy == null) throw new NullPointerException("Overrun policy can't be null.");
+		
+		budget = Math.round(seconds * 1e9);
+		this.policy = policy;
+	}
+	
+	/**
+	 * Sets whether the execution times of {@link Command commands}, {@link Subsystem#periodic()} methods and ticks are measured when there is no
+	 * {@link #setTickBudget(double, OverrunPolicy) budget}. They are always measured when there is one.
+	 * @param timing Whether to measure them
+	 */
+	public void setTiming(boolean timing) { this.timing = timing; }
+	
+	/**
+	 * Sets whether a {@link Command} is low-priority, so that it may be skipped by {@link OverrunPolicy#SKIP_LOW_PRIORITY}.
+	 * This may be called before the {@link Command} has its requirements, as it isn't given an ID (which fixes its requirements) until it is first started.
+	 * @param cmd The {@link Command}
+	 * @param lowPriority Whether it is low-priority
+	 */
+	public void setLowPriority(Command cmd, boolean lowPriority) {
+		Integer id = commandIds.get(cmd);
+		
+		if(id != null) this.lowPriority[id] = lowPriority;
+		else pendingLowPriority.put(cmd, lowPriority);
+	}
+	
+	/**
+	 * @param cmd The {@link Command}
+	 * @return How long the {@link Command} (including its {@link Command#end() end()}, if it finished) took the last time it was executed whilst being
+	 * {@link #setTiming(boolean) timed}, in seconds
+	 */
+	public double getLastExecutionTime(Command cmd) {
+		Integer id = commandIds.get(cmd);
+		return (id == null ? 0 : lastTimes[id] / 1e9);
+	}
+	
+	/**
+	 * @param cmd The {@link Command}
+	 * @return How long the {@link Command} has taken to execute on average, over the times it was {@link #setTiming(boolean) timed}, in seconds
+	 */
+	public double getAverageExecutionTime(Command cmd) {
+		Integer id = commandIds.get(cmd);
+		return (id == null || runCounts[id] == 0 ? 0 : totalTimes[id] / 1e9 / runCounts[id]);
+	}
+	
+	/**
+	 * @return How long the last {@link #setTiming(boolean) timed} tick took, in seconds
+	 */
+	public double getLastTickTime() { return lastTickTime / 1e9; }
+	
+	/**
+	 * @return How many ticks have overrun the {@link #setTickBudget(double, OverrunPolicy) budget}
+	 */
+	public int getOverrunCount() { return overrunCount; }
+	
+	/**
+	 * Converts nanoseconds to milliseconds, rounded to one decimal place
+	 * @param nanos The time, in nanoseconds
+	 * @return The time, in milliseconds
+	 */
+	private static double toMillis(long nanos) { return Math.round(nanos / 1e5) / 10.0; }
+	
+	/**
+	 * Removes all the running {@link Command commands}.<br>
+	 * {@link Scheduler#removeAll()} doesn't reach the {@link Command commands} run by this, so this has to be called instead
+	 * (which {@link micobyte.frc.lib.robot.CommandBasedRobot#runScheduler() CommandBasedRobot} does when {@link edu.wpi.first.wpilibj.livewindow.LiveWindow LiveWindow} is enabled).
+	 */
+	public void removeAll() { while(runningCount > 0) remove(order[0]); }
+	
+	/** Disables the scheduler */
+	public void disable() { disabled = true; }
+	
+	/** Enables the scheduler */
+	public void enable() { disabled = false; }
+	
+	/**
+	 * @return How many {@link Command commands} are currently running
+	 */
+	public int getRunningCount() { return runningCount; }
+	
+	/**
+	 * Adds a {@link Command} immediately, removing any {@link Command commands} with conflicting requirements unless one of them is uninterruptible.
+	 * @param cmd The {@link Command}, or {@code null} to do nothing
+	 */
+	private void add(Command cmd) {
+		if(cmd == null) return;
+		
+		if(adding) {
+			System.err.println("WARNING: Can not start command from cancel method.  Ignoring:" + cmd);
+			return;
+		}
+		
+		int id = getID(cmd);
+		if(running[id]) return;
+		
+		int[] reqs = requirements[id];
+		boolean conflicts = false;
+		for(int w = 0, base = id * words; w < words; w++) if((masks[base + w] & held[w]) != 0) { conflicts = true; break; }
+		
+		if(conflicts) for(int sys : reqs) if(owners[sys] != -1 && !commands[owners[sys]].isInterruptible()) return;
+		
+		adding = true;
+		for(int sys : reqs) {
+			if(owners[sys] != -1) {
+				commands[owners[sys]].cancel();
+				remove(owners[sys]);
+			}
+			
+			MBLibCommandAccess.setCurrentCommand(subsystems[sys], cmd);
+			owners[sys] = id;
+			held[sys >>> 6] |= 1L << sys;
+		}
+		adding = false;
+		
+		if(runningCount == order.length) order = Arrays.copyOf(order, runningCount * 2);
+		order[runningCount++] = id;
+		running[id] = true;
+		
+		MBLibCommandAccess.startRunning(cmd);
+	}
+	
+	/**
+	 * Removes a running {@link Command}, releasing its requirements
+	 * @param id The ID of the {@link Command}
+	 */
+	private void remove(int id) {
+		if(!running[id]) return;
+		running[id] = false;
+		
+		for(int i = 0; i < runningCount; i++) {
+			if(order[i] == id) {
+				System.arraycopy(order, i + 1, order, i, runningCount - i - 1);
+				runningCount--;
+				break;
+			}
+		}
+		
+		for(int sys : requirements[id]) {
+			MBLibCommandAccess.setCurrentCommand(subsystems[sys], null);
+			owners[sys] = -1;
+			held[sys >>> 6] &= ~(1L << sys);
+		}
+		
+		MBLibCommandAccess.removed(commands[id]);
+	}
+	
+	/**
+	 * Gets the ID of a {@link Command}, giving it one if it is new
+	 * @param cmd The {@link Command}
+	 * @return The ID
+	 */
+	private int getID(Command cmd) {
+		Integer known = commandIds.get(cmd);
+		if(known != null) return known;
+		
+		Subsystem[] reqSystems = MBLibCommandAccess.getRequirements(cmd);
+		int[] reqs = new int[reqSystems.length];
+		for(int i = 0; i < reqs.length; i++) reqs[i] = getID(reqSystems[i]);
+		
+		int id = commandCount++;
+		if(id == commands.length) {
+			commands = Arrays.copyOf(commands, id * 2);
+			requirements = Arrays.copyOf(requirements, id * 2);
+			running = Arrays.copyOf(running, id * 2);
+			lowPriority = Arrays.copyOf(lowPriority, id * 2);
+			lastTimes = Arrays.copyOf(lastTimes, id * 2);
+			totalTimes = Arrays.copyOf(totalTimes, id * 2);
+			runCounts = Arrays.copyOf(runCounts, id * 2);
+			masks = Arrays.copyOf(masks, id * 2 * words);
+		}
+		
+		commands[id] = cmd;
+		requirements[id] = reqs;
+		for(int sys : reqs) masks[id * words + (sys >>> 6)] |= 1L << sys;
+		commandIds.put(cmd, id);
+		
+		Boolean low = pendingLowPriority.remove(cmd);
+		if(low != null) lowPriority[id] = low;
+		
+		return id;
+	}
+	
+	/**
+	 * Gets the ID of a {@link Subsystem}, giving it one if it is new
+	 * @param sys The {@link Subsystem}
+	 * @return The ID
+	 */
+	private int getID(Subsystem sys) {
+		Integer known = subsystemIds.get(sys);
+		if(known != null) return known;
+		
+		int id = subsystemCount++;
+		if(id == subsystems.length) {
+			subsystems = Arrays.copyOf(subsystems, id * 2);
+			owners = Arrays.copyOf(owners, id * 2);
+			periodicTimes = Arrays.copyOf(periodicTimes, id * 2);
+		}
+		
+		subsystems[id] = sys;
+		owners[id] = -1;
+		subsystemIds.put(sys, id);
+		periodicPlanStale = true;
+		
+		if(subsystemCount > words * 64) growBitsets();
+		return id;
+	}
+	
+	/**
+	 * Gives IDs to any {@link Subsystem subsystems} registered with the {@link Scheduler} since this was last called
+	 */
+	private void registerNewSubsystems() {
+		while(registeredSeen < registered.size()) getID(registered.elementAt(registeredSeen++));
+	}
+	
+	/**
+	 * Adds another {@code long} to every bitset, and rebuilds them
+	 */
+	private void growBitsets() {
+		words++;
+		
+		held = new long[words];
+		for(int sys = 0; sys < subsystemCount; sys++) if(owners[sys] != -1) held[sys >>> 6] |= 1L << sys;
+		
+		masks = new long[commands.length * words];
+		for(int id = 0; id < commandCount; id++) for(int sys : requirements[id]) masks[id * words + (sys >>> 6)] |= 1L << sys;
+	}
+	
+	/**
+	 * A reusable task that runs the {@link Subsystem#periodic()} method of an {@link IConcurrentSubsystem concurrent subsystem}
+	 */
+	private final class PeriodicTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		
+		/** The ID of the {@link Subsystem} */
+		private final int id;
+		
+		/**
+		 * Creates the task
+		 * @param id The ID of the {@link Subsystem}
+		 */
+		private PeriodicTask(int id) { this.id = id; }
+		
+		protected void compute() {
+			try {
+				runPeriodic(id);
+			} catch(Throwable t) {
+				if(periodicError == null) periodicError = t;
+			} finally {
+				releaseDependents(id);
+				if(pendingPeriodics.decrementAndGet() == 0) LockSupport.unpark(periodicWaiter);
+			}
+		}
+	}
+	
+	/**
+	 * What the {@link MBScheduler} does when a tick overruns its {@link MBScheduler#setTickBudget(double, OverrunPolicy) budget}.
+	 * Every overrun is counted and logged (at most once a second), whatever the policy.
+	 */
+	public static enum OverrunPolicy {
+		/** Only log the overrun */
+		LOG,
+		
+		/** Skip any {@link MBScheduler#setLowPriority(Command, boolean) low-priority} {@link Command} that would not fit in what is left of the budget this tick */
+		SKIP_LOW_PRIORITY,
+		
+		/** Stop executing {@link Command commands} once the budget is used up, and start the next tick with those that were left out */
+		ROTATE;
+	}
+}
@@ -51,6 +51,13 @@ public class SimpleCommandGroup extends CommandGroup {
 		super.start();
 	}
 	
+	/**
+	 * {@link CompiledCommandGroup#compile(CommandGroup) Compiles} this group into a {@link CompiledCommandGroup}, which should be started instead of it.
+	 * No more {@link Command commands} may be added to this group afterwards.
+	 * @return The {@link CompiledCommandGroup}
+	 */
+	public CompiledCommandGroup compile() { return CompiledCommandGroup.compile(this); }
+	
 	/**
 	 * Sets the default internal {@link IStatusLogger logger} for all {@link SimpleCommandGroup}s
 	 * @param defaultLogger The new default {@link IStatusLogger logger}
@@ -0,0 +1,177 @@
+package micobyte.frc.lib.io;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import edu.wpi.first.networktables.EntryListenerFlags;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+import micobyte.frc.lib.Metrics;
+
+/**
+ * A write-behind front for the {@link SmartDashboard dashboard}. Values put during a tick are only remembered, then {@link #flush() flushed} once,
+ * at the end of the tick, by {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}, so only the last value put to each key is sent,
+ * and a value that hasn't changed since it was last sent isn't sent again (unless the dashboard has changed it since).
+ * Keys can also be given a {@link #setFlushPeriod(String, double) flush period}, to send them less often.
+ */
+public final class Dashboard {
+	/** The NetworkTables table the {@link SmartDashboard dashboard} uses */
+	private static final String TABLE = "SmartDashboard";
+	
+	/** The slot for each key */
+	private static final HashMap<String, Slot> slots = new HashMap<String, Slot>();
+	/** The slots with a value waiting to be sent */
+	private static final ArrayList<Slot> dirty = new ArrayList<Slot>();
+	
+	private Dashboard() {}
+	
+	/**
+	 * A dashboard key's value
+	 */
+	private static class Slot {
+		/** The NetworkTables entry */
+		private final NetworkTableEntry entry;
+		
+		/** Whether a value is waiting to be sent */
+		private boolean pending;
+		/** The type of the value waiting to be sent: 'b' for boolean, 'd' for number, or 's' for string */
+		private char type;
+		/** The number (or boolean, as 1 or 0) waiting to be sent */
+		private double number;
+		/** The string waiting to be sent */
+		private String string;
+		
+		/** Whether the last value sent is still on the dashboard */
+		private volatile boolean sent;
+		/** The type of the last value sent */
+		private char sentType;
+		/** The last number (or boolean) sent */
+		private double sentNumber;
+		/** The last string sent */
+		private String sentString;
+		
+		/** The shortest time between sending values, in seconds */
+		private double period;
+		/** When the last value was sent, in seconds */
+		private double sentTime = Double.NEGATIVE_INFINITY;
+		
+		private Slot(String key) {
+			entry = NetworkTableInstance.getDefault().getTable(TABLE).getEntry(key);
+			entry.addListener(n -> sent = false, EntryListenerFlags.kNew | EntryListenerFlags.kUpdate | EntryListenerFlags.kDelete);
+		}
+		
+		/**
+		 * Sends the value waiting to be sent, unless it is the same as the last one sent
+		 * @param now The time, in seconds
+		 * @return Whether the value has been dealt with, rather than held back by the {@link #period}
+		 */
+		private boolean flush(double now) {
+			boolean same = sent && type == sentType && (type == 's' ? string.equals(sentString) : number == sentNumber);
+			
+			if(!same) {
+				if(now - sentTime < period) return false;
+				
+				if(type == 'b') entry.setBoolean(number != 0);
+				else if(type == 'd') entry.setDouble(number);
+				else entry.setString(string);
+				
+				Metrics.NT_BYTES.add(updateSize(type == 'b' ? 1 : (type == 'd' ? 8 : sizeWithLength(string.length()))));
+				
+				sentType = type;
+				sentNumber = number;
+				sentString = string;
+				sentTime = now;
+				sent = true;
+			}
+			
+			pending = false;
+			string = null;
+			return true;
+		}
+	}
+	
+	/**
+	 * Estimates the size of a NetworkTables (version 3) entry update message
+	 * @param valueSize The size of the value, in bytes
+	 * @return The size of the message, in bytes: the message type, entry ID, sequence number and value type, then the value
+	 */
+	static int updateSize(int valueSize) { return 6 + valueSize; }
+	
+	/**
+	 * Estimates the size of a NetworkTables string or raw value, which is prefixed with its length
+	 * @param length Its length, in bytes (or characters, for a mostly ASCII string)
+	 * @return The size of the value, in bytes
+	 */
+	static int sizeWithLength(int length) { return (length < 0x80 ? 1 : (length < 0x4000 ? 2 : 3)) + length; }
+	
+	/**
+	 * Gets the slot for a key, creating it if it doesn't exist, and marks it as having a value waiting to be sent
+	 * @param key The key
+	 * @param type The type of the value
+	 * @return The slot
+	 */
+	private static Slot put(String key, char type) {
+		Slot slot = slots.get(key);
+		if(slot == null) slots.put(key, slot = new Slot(key));
+		
+		if(!slot.pending) {
+			slot.pending = true;
+			dirty.add(slot);
+		}
+		
+		slot.type = type;
+		return slot;
+	}
+	
+	/**
+	 * Puts a boolean on the dashboard, at the end of the tick
+	 * @param key The key
+	 * @param value The value
+	 */
+	public static synchronized void putBoolean(String key, boolean value) { put(key, 'b').number = (value ? 1 : 0); }
+	
+	/**
+	 * Puts a number on the dashboard, at the end of the tick
+	 * @param key The key
+	 * @param value The value
+	 */
+	public static synchronized void putNumber(String key, double value) { put(key, 'd').number = value; }
+	
+	/**
+	 * Puts a string on the dashboard, at the end of the tick
+	 * @param key The key
+	 * @param value The value
+	 */
+	public static synchronized void putString(String key, String value) { put(key, 's').string = value; }
+	
+	/**
+	 * Sets the shortest time between sending a key's values. Values put in between are held back, and only the latest is sent.
+	 * @param key The key
+	 * @param seconds The time, in seconds, or 0 to send it every tick
+	 */
+	public static synchronized void setFlushPeriod(String key, double seconds) {
+		Slot slot = slots.get(key);
+		if(slot == null) slots.put(key, slot = new Slot(key));
+		
+		slot.period = seconds;
+	}
+	
+	/**
+	 * Sends the values put since the last flush, which is called at the end of each tick by {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}
+	 */
+	public static synchronized void flush() {
+		if(dirty.isEmpty()) return;
+		double now = Timer.getFPGATimestamp();
+		
+		int kept = 0;
+		for(int i = 0; i < dirty.size(); i++) {
+			Slot slot = dirty.get(i);
+			if(!slot.flush(now)) dirty.set(kept++, slot);
+		}
+		
+		for(int i = dirty.size() - 1; i >= kept; i--) dirty.remove(i);
+	}
+}
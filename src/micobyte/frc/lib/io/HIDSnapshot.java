@@ -0,0 +1,117 @@
+package micobyte.frc.lib.io;
+
+import java.nio.ByteBuffer;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.hal.HAL;
+
+/**
+ * A snapshot of every joystick's axes, buttons and POV switches, which is taken once per tick by {@link micobyte.frc.lib.robot.BasicRobot BasicRobot},
+ * just after {@link DriverStation#waitForData() the driver station's new data} wakes the main loop. Everything MBLib reads from a joystick
+ * (such as {@link micobyte.frc.lib.triggers.HIDAxisTrigger HIDAxisTriggers}, {@link micobyte.frc.lib.triggers.POVButton POVButtons},
+ * {@link micobyte.frc.lib.MBLibUtil#getAxisWithDeadband(edu.wpi.first.wpilibj.GenericHID, int, double) dead-banded axes} and
+ * {@link micobyte.frc.lib.subsystem.IDriveSubsystem#driveTeleop() teleop driving}) reads the snapshot, instead of each read taking the driver station's lock.<br>
+ * The snapshot is copied from the HAL, three reads per joystick, the same way the driver station copies its own.
+ * Until the first snapshot is taken (such as in a robot that isn't a {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}), it reads the driver station directly.
+ * It should only be used from the robot's main thread.
+ */
+public final class HIDSnapshot {
+	/** The number of joystick ports */
+	public static final int JOYSTICKS = DriverStation.kJoystickPorts;
+	/** The most axes a joystick can have */
+	public static final int MAX_AXES = HAL.kMaxJoystickAxes;
+	/** The most POV switches a joystick can have */
+	public static final int MAX_POVS = HAL.kMaxJoystickPOVs;
+	
+	/** Whether a snapshot has been taken */
+	private static boolean taken;
+	
+	/** Each joystick's axes */
+	private static final float[][] axes = new float[JOYSTICKS][MAX_AXES];
+	/** The angle of each joystick's POV switches, or -1 if not pressed */
+	private static final short[][] povs = new short[JOYSTICKS][MAX_POVS];
+	/** Each joystick's buttons, with button 1 as bit 0 */
+	private static final int[] buttons = new int[JOYSTICKS];
+	
+	/** The number of axes on each joystick */
+	private static final int[] axisCounts = new int[JOYSTICKS];
+	/** The number of POV switches on each joystick */
+	private static final int[] povCounts = new int[JOYSTICKS];
+	/** The number of buttons on each joystick */
+	private static final int[] buttonCounts = new int[JOYSTICKS];
+	
+	/** The buffer the HAL returns the button count in */
+	private static final ByteBuffer buttonCountBuffer = ByteBuffer.allocateDirect(1);
+	
+	private HIDSnapshot() {}
+	
+	/**
+	 * Takes a snapshot of every joystick, which is called at the start of each tick by {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 */
+	public static void update() {
+		for(byte stick = 0; stick < JOYSTICKS; stick++) {
+			axisCounts[stick] = Math.min(HAL.getJoystickAxes(stick, axes[stick]), MAX_AXES);
+			povCounts[stick] = Math.min(HAL.getJoystickPOVs(stick, povs[stick]), MAX_POVS);
+			
+			buttons[stick] = HAL.getJoystickButtons(stick, buttonCountBuffer);
+			buttonCounts[stick] = buttonCountBuffer.get(0);
+		}
+		
+		taken = true;
+	}
+	
+	/** @return Whether a snapshot has been taken, rather than reading the {@link DriverStation driver station} directly */
+	public static boolean isTaken() { return taken; }
+	
+	/**
+	 * @param stick The joystick port
+	 * @return The number of axes on the joystick
+	 */
+	public static int getAxisCount(int stick) { return (taken ? axisCounts[stick] : DriverStation.getInstance().getStickAxisCount(stick)); }
+	
+	/**
+	 * @param stick The joystick port
+	 * @param axis The axis
+	 * @return The axis's value, from -1 to 1, or 0 if it doesn't exist
+	 */
+	public static double getAxis(int stick, int axis) {
+		if(!taken) return DriverStation.getInstance().getStickAxis(stick, axis);
+		return (axis < axisCounts[stick] ? axes[stick][axis] : 0);
+	}
+	
+	/**
+	 * @param stick The joystick port
+	 * @return The number of POV switches on the joystick
+	 */
+	public static int getPOVCount(int stick) { return (taken ? povCounts[stick] : DriverStation.getInstance().getStickPOVCount(stick)); }
+	
+	/**
+	 * @param stick The joystick port
+	 * @param pov The POV switch
+	 * @return The POV switch's angle, in degrees clockwise from up, or -1 if it isn't pressed (or doesn't exist)
+	 */
+	public static int getPOV(int stick, int pov) {
+		if(!taken) return DriverStation.getInstance().getStickPOV(stick, pov);
+		return (pov < povCounts[stick] ? povs[stick][pov] : -1);
+	}
+	
+	/**
+	 * @param stick The joystick port
+	 * @return The number of buttons on the joystick
+	 */
+	public static int getButtonCount(int stick) { return (taken ? buttonCounts[stick] : DriverStation.getInstance().getStickButtonCount(stick)); }
+	
+	/**
+	 * @param stick The joystick port
+	 * @return Every button on the joystick, with button 1 as bit 0
+	 */
+	public static int getButtons(int stick) { return (taken ? buttons[stick] : DriverStation.getInstance().getStickButtons(stick)); }
+	
+	/**
+	 * @param stick The joystick port
+	 * @param button The button, starting at 1
+	 * @return Whether the button is pressed, or false if it doesn't exist
+	 */
+	public static boolean getButton(int stick, int button) { return button > 0 && button <= getButtonCount(stick) && (getButtons(stick) & (1 << (button - 1))) != 0; }
+}
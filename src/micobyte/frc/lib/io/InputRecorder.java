@@ -0,0 +1,269 @@
+package micobyte.frc.lib.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+
+import micobyte.frc.lib.MBLibUtil;
+
+/**
+ * Records the robot's inputs into a compact binary stream, so a match can be replayed offline (such as with MBLib's simulator).<br>
+ * Each tick of the robot's main loop records the time and the driver station's state, and any joystick, alliance or game-specific message that changed.
+ * {@link micobyte.frc.lib.triggers.DIOTrigger DIOTriggers}, {@link micobyte.frc.lib.triggers.AIOTrigger AIOTriggers} and
+ * {@link micobyte.frc.lib.subsystem.SubsystemSerial SubsystemSerials} record what they read as they read it.<br>
+ * The stream is only appended to, in a buffer allocated when recording {@link #start(int) starts}, so recording allocates nothing, and can run in every match.
+ * Once the buffer is full, nothing more is recorded.
+ */
+public final class InputRecorder {
+	/** The first four bytes of a recording */
+	public static final int MAGIC = 0x4D424952;
+	/** The version of the recording format */
+	public static final byte VERSION = 1;
+	
+	/** A tick of the robot's main loop: the FPGA time in microseconds (long), the {@link edu.wpi.first.wpilibj.hal.ControlWord control word} bits (byte), and the match time (float) */
+	public static final byte TICK = 1;
+	/** A joystick: its port (byte), axis count (byte) and axes (floats), POV count (byte) and POVs (shorts), and button count (byte) and buttons (int) */
+	public static final byte JOYSTICK = 2;
+	/** The match: the alliance station, from 0 (Red 1) to 5 (Blue 3) (byte), and the game-specific message (short length, then bytes) */
+	public static final byte MATCH = 3;
+	/** A digital input: its channel (byte) and value (byte) */
+	public static final byte DIGITAL = 4;
+	/** An analog input: its channel (byte) and raw value (short) */
+	public static final byte ANALOG = 5;
+	/** A line read from a serial port: the port (byte), and the line (short length, then bytes) */
+	public static final byte SERIAL_LINE = 6;
+	
+	/** The default buffer size, in bytes, which is enough for several matches */
+	public static final int DEFAULT_CAPACITY = 4 << 20;
+	
+	/** The number of joystick ports */
+	private static final int JOYSTICKS = DriverStation.kJoystickPorts;
+	/** The most axes or POVs a joystick can have */
+	private static final int CHANNELS = 12;
+	/** The most digital inputs and analog inputs */
+	private static final int INPUTS = 32;
+	
+	/** The buffer, or {@code null} if not recording */
+	private static ByteBuffer buffer;
+	/** Whether anything was left out because the buffer was full */
+	private static boolean overflowed;
+	
+	/** The last recorded axes of each joystick */
+	private static final float[][] axes = new float[JOYSTICKS][CHANNELS];
+	/** The last recorded POVs of each joystick */
+	private static final short[][] povs = new short[JOYSTICKS][CHANNELS];
+	/** The last recorded axis count, POV count, buttons and button count of each joystick */
+	private static final int[] axisCounts = new int[JOYSTICKS], povCounts = new int[JOYSTICKS], buttons = new int[JOYSTICKS], buttonCounts = new int[JOYSTICKS];
+	/** The last recorded alliance station */
+	private static int allianceStation;
+	/** The last recorded game-specific message */
+	private static String gameSpecificMessage;
+	/** The last recorded value of each digital input, or -1 for none */
+	private static final byte[] digital = new byte[INPUTS];
+	/** The last recorded value of each analog input, or -1 for none */
+	private static final int[] analog = new int[INPUTS];
+	
+	private InputRecorder() {}
+	
+	/**
+	 * Starts recording, throwing away any previous recording
+	 * @param capacity The size of the buffer, in bytes
+	 */
+	public static synchronized void start(int capacity) {
+		buffer = ByteBuffer.allocate(capacity);
+		buffer.putInt(MAGIC).put(VERSION);
+		overflowed = false;
+		
+		for(int i = 0; i < JOYSTICKS; i++) axisCounts[i] = povCounts[i] = buttonCounts[i] = -1;
+		for(int i = 0; i < INPUTS; i++) digital[i] = -1;
+		for(int i = 0; i < INPUTS; i++) analog[i] = -1;
+		allianceStation = -1;
+		gameSpecificMessage = null;
+	}
+	
+	/**
+	 * Stops recording, and throws away the recording
+	 */
+	public static synchronized void stop() { buffer = null; }
+	
+	/** @return Whether inputs are being recorded */
+	public static synchronized boolean isRecording() { return buffer != null; }
+	
+	/** @return Whether anything was left out because the buffer was full */
+	public static synchronized boolean hasOverflowed() { return overflowed; }
+	
+	/** @return The size of the recording, in bytes */
+	public static synchronized int size() { return (buffer == null ? 0 : buffer.position()); }
+	
+	/**
+	 * Makes sure there is space for a record
+	 * @param bytes The size of the record, in bytes
+	 * @return Whether it should be recorded
+	 */
+	private static boolean reserve(int bytes) {
+		if(buffer == null || overflowed) return false;
+		
+		if(buffer.remaining() < bytes) overflowed = true;
+		return !overflowed;
+	}
+	
+	/**
+	 * Writes a string to the buffer, as a short length then its characters as bytes
+	 * @param str The string
+	 */
+	private static void putString(CharSequence str) {
+		buffer.putShort((short)str.length());
+		for(int i = 0; i < str.length(); i++) buffer.put((byte)str.charAt(i));
+	}
+	
+	/**
+	 * Records a tick of the robot's main loop, which is called by {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 */
+	public static synchronized void recordTick() {
+		if(!reserve(14)) return;
+		DriverStation ds = DriverStation.getInstance();
+		
+		int word = (ds.isEnabled() ? 1 : 0) | (ds.isAutonomous() ? 2 : 0) | (ds.isTest() ? 4 : 0) | (ds.isFMSAttached() ? 16 : 0) | (ds.isDSAttached() ? 32 : 0);
+		buffer.put(TICK).putLong(RobotController.getFPGATime()).put((byte)word).putFloat((float)ds.getMatchTime());
+		
+		for(int stick = 0; stick < JOYSTICKS; stick++) recordJoystick(stick);
+		
+		int station = Math.max(0, (ds.getAlliance() == DriverStation.Alliance.Blue ? 3 : 0) + ds.getLocation() - 1);
+		String message = ds.getGameSpecificMessage();
+		if(message == null) message = "";
+		
+		if((station != allianceStation || !message.equals(gameSpecificMessage)) && reserve(4 + message.length())) {
+			buffer.put(MATCH).put((byte)station);
+			putString(message);
+			
+			allianceStation = station;
+			gameSpecificMessage = message;
+		}
+	}
+	
+	/**
+	 * Records a joystick from the {@link HIDSnapshot}, if it has changed
+	 * @param stick The joystick port
+	 */
+	private static void recordJoystick(int stick) {
+		int axisCount = Math.min(HIDSnapshot.getAxisCount(stick), CHANNELS), povCount = Math.min(HIDSnapshot.getPOVCount(stick), CHANNELS);
+		int buttonCount = HIDSnapshot.getButtonCount(stick), buttonValues = HIDSnapshot.getButtons(stick);
+		boolean changed = axisCount != axisCounts[stick] || povCount != povCounts[stick] || buttonCount != buttonCounts[stick] || buttonValues != buttons[stick];
+		
+		for(int i = 0; i < axisCount; i++) {
+			float value = (float)HIDSnapshot.getAxis(stick, i);
+			if(value != axes[stick][i]) changed = true;
+			
+			axes[stick][i] = value;
+		}
+		
+		for(int i = 0; i < povCount; i++) {
+			short value = (short)HIDSnapshot.getPOV(stick, i);
+			if(value != povs[stick][i]) changed = true;
+			
+			povs[stick][i] = value;
+		}
+		
+		axisCounts[stick] = axisCount;
+		povCounts[stick] = povCount;
+		buttonCounts[stick] = buttonCount;
+		buttons[stick] = buttonValues;
+		
+		if(!changed) return;
+		
+		if(!reserve(9 + axisCount * 4 + povCount * 2)) {
+			axisCounts[stick] = -1;
+			return;
+		}
+		
+		buffer.put(JOYSTICK).put((byte)stick).put((byte)axisCount);
+		for(int i = 0; i < axisCount; i++) buffer.putFloat(axes[stick][i]);
+		
+		buffer.put((byte)povCount);
+		for(int i = 0; i < povCount; i++) buffer.putShort(povs[stick][i]);
+		
+		buffer.put((byte)buttonCount).putInt(buttonValues);
+	}
+	
+	/**
+	 * Records the value of a digital input, if it has changed<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param channel The channel
+	 * @param value The value
+	 */
+	public static synchronized void recordDigital(int channel, boolean value) {
+		byte b = (byte)(value ? 1 : 0);
+		if(channel < 0 || channel >= INPUTS || digital[channel] == b || !reserve(3)) return;
+		
+		buffer.put(DIGITAL).put((byte)channel).put(b);
+		digital[channel] = b;
+	}
+	
+	/**
+	 * Records the raw value of an analog input, if it has changed<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param channel The channel
+	 * @param value The raw value
+	 */
+	public static synchronized void recordAnalog(int channel, int value) {
+		if(channel < 0 || channel >= INPUTS || analog[channel] == value || !reserve(4)) return;
+		
+		buffer.put(ANALOG).put((byte)channel).putShort((short)value);
+		analog[channel] = value;
+	}
+	
+	/**
+	 * Records a line read from a serial port<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param port The port, as its {@link edu.wpi.first.wpilibj.SerialPort.Port#value value}
+	 * @param line The line
+	 */
+	public static synchronized void recordSerialLine(int port, CharSequence line) {
+		if(!reserve(4 + line.length())) return;
+		
+		buffer.put(SERIAL_LINE).put((byte)port);
+		putString(line);
+	}
+	
+	/**
+	 * Writes the recording so far
+	 * @param out The stream to write it to
+	 * @throws IOException If it couldn't be written
+	 */
+	public static void writeTo(OutputStream out) throws IOException {
+		byte[] data;
+		int length;
+		
+		synchronized(InputRecorder.class) {
+			if(buffer == null) return;
+			
+			length = buffer.position();
+			data = new byte[length];
+			System.arraycopy(buffer.array(), 0, data, 0, length);
+		}
+		
+		out.write(data, 0, length);
+	}
+	
+	/**
+	 * Saves the recording so far in the background, to {@code robot-logs/(name).inputs} in the home directory, replacing it if it exists
+	 * @param name The file name, without the extension
+	 */
+	public static void save(String name) {
+		MBLibUtil.exec(() -> {
+			File file = new File(new File(new File(System.getProperty("user.home")), "robot-logs"), name + ".inputs");
+			
+			try(OutputStream out = new FileOutputStream(file)) {
+				writeTo(out);
+			} catch(IOException e) {
+				MBLibUtil.logError("Error whilst saving input recording", e);
+			}
+		}, true);
+	}
+}
@@ -1,6 +1,5 @@
 package micobyte.frc.lib.io;
 
-import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.GenericHID;
 import micobyte.frc.lib.triggers.POVButton;
 import micobyte.frc.lib.CommonIDs.POVSwitch;
@@ -32,15 +31,24 @@ public class POVPosition {
 	 */
 	protected final int[] ids;
 	
+	/** The accepted IDs, as a bitmask with bit {@code id + 1} set for each, so bit {@code angle / 45 + 2} is set for each accepted angle */
+	private final int mask;
+	
 	/**
 	 * Creates the POV position
 	 * @param ids Which IDs are accepted in this position
 	 */
 	public POVPosition(int... ids) {
 		if(ids.length < 1) throw new IllegalArgumentException("Must provide at least one ID");
-		for(int id : ids) if(!POVSwitch.isValid(id)) throw new IllegalArgumentException("One or more of the given IDs were invalid");
 		
-		this.ids = ids;
+		int mask = 0;
+		for(int id : ids) {
+			if(!POVSwitch.isValid(id)) throw new IllegalArgumentException("One or more of the given IDs were invalid");
+			mask |= 1 << (id + 1);
+		}
+		
+		this.ids = ids.clone();
+		this.mask = mask;
 	}
 	
 	/**
@@ -48,18 +56,25 @@ public class POVPosition {
 	 * @param id The ID to check
 	 * @return Whether or not it was accepted
 	 */
-	public boolean accepts(int id) {
-		for(int i : ids) if(i == id) return true;
-		return false;
+	public boolean accepts(int id) { return POVSwitch.isValid(id) && (mask & (1 << (id + 1))) != 0; }
+	
+	/**
+	 * Does this POV position include the given angle, as read from a POV switch?
+	 * @param angle The angle, in degrees clockwise from up, or -1 if the POV switch isn't pressed
+	 * @return Whether or not it was accepted
+	 */
+	public boolean acceptsAngle(int angle) {
+		if(angle < 0) return (mask & 1) != 0;
+		return angle < 360 && angle % 45 == 0 && (mask & (1 << (angle / 45 + 2))) != 0;
 	}
 	
 	/**
-	 * Does this POV position include {@link GenericHID HID Device}'s given POV switch's value?
+	 * Does this POV position include {@link GenericHID HID Device}'s given POV switch's value, from this tick's {@link HIDSnapshot snapshot}?
 	 * @param hid The {@link GenericHID HID Device}
 	 * @param pov The POV switch
 	 * @return Whether or not it was accepted
 	 */
-	public boolean accepts(int hid, int pov) { return accepts(DriverStation.getInstance().getStickPOV(hid, pov)); }
+	public boolean accepts(int hid, int pov) { return acceptsAngle(HIDSnapshot.getPOV(hid, pov)); }
 	
 	/**
 	 * Does this POV position include {@link GenericHID HID Device}'s given POV switch's value?
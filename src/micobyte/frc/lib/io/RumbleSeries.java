@@ -3,13 +3,25 @@ package micobyte.frc.lib.io;
 import java.util.ArrayList;
 
 import edu.wpi.first.wpilibj.GenericHID;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
 
 import micobyte.frc.lib.MBLibUtil;
 
 /**
- * An object-oriented representation of a series of {@link Rumble rumbles} to be played in order, for a certain ammount of time
+ * An object-oriented representation of a series of {@link Rumble rumbles} to be played in order, for a certain ammount of time.<br>
+ * Every series that is played asynchronously is played by one shared {@link Notifier}, so it is timed by the {@link Timer#getFPGATimestamp() FPGA clock}
+ * (which a simulator can move), rather than by a thread sleeping for each {@link Rumble}.
  */
 public class RumbleSeries {
+	/** How close to its time a {@link Rumble} has to be to be played, in seconds, as the {@link Notifier} is only accurate to a microsecond */
+	private static final double TIME_TOLERANCE = 1e-6;
+	
+	/** The {@link Playback playbacks} of the series being played asynchronously */
+	private static final ArrayList<Playback> playing = new ArrayList<Playback>();
+	/** The {@link Notifier} that plays every asynchronous series, which is created when the first is played */
+	private static Notifier notifier;
+	
 	/** The {@link Rumble rumbles} in order */
 	private ArrayList<Rumble> rumbles = new ArrayList<Rumble>();
 	/** The amount of time to play each rumble for */
@@ -63,12 +75,14 @@ public class RumbleSeries {
 	public void play(GenericHID joystick) { play(joystick, true); }
 	
 	/**
-	 * Plays the rumble to the specified {@link GenericHID joystick}, optionally asynchronously
+	 * Plays the rumble to the specified {@link GenericHID joystick}, optionally asynchronously.
+	 * Asynchronously, the first {@link Rumble} starts straight away, and the rest are played by a {@link Notifier} at their times on the {@link Timer#getFPGATimestamp() FPGA clock}.
+	 * Otherwise, this sleeps for each {@link Rumble}, in real time.
 	 * @param joystick The {@link GenericHID joystick}
 	 * @param async Whether or not to play asynchronously
 	 */
 	public void play(GenericHID joystick, boolean async) {
-		Runnable run = () -> {
+		if(!async) {
 			try {
 				for(int i = 0; i < rumbles.size(); i++) {
 					rumbles.get(i).play(joystick);
@@ -79,9 +93,34 @@ public class RumbleSeries {
 			} catch(Exception e) {
 				MBLibUtil.logError("Error whilst playing rumble", e);
 			}
-		};
+			
+			return;
+		}
+		
+		synchronized(playing) {
+			if(notifier == null) notifier = new Notifier(RumbleSeries::update);
+			playing.add(new Playback(this, joystick, Timer.getFPGATimestamp()));
+		}
 		
-		MBLibUtil.exec(run, async);
+		update();
+	}
+	
+	/**
+	 * Plays every {@link Rumble} that is due, of every series being played asynchronously, then sets the {@link Notifier} for the next one
+	 */
+	private static void update() {
+		synchronized(playing) {
+			double now = Timer.getFPGATimestamp(), next = Double.MAX_VALUE;
+			
+			for(int i = 0; i < playing.size(); i++) {
+				Playback playback = playing.get(i);
+				
+				if(playback.update(now)) next = Math.min(next, playback.nextTime);
+				else playing.remove(i--);
+			}
+			
+			if(!playing.isEmpty()) notifier.startSingle(Math.max(0, next - now));
+		}
 	}
 	
 	/**
@@ -94,6 +133,57 @@ public class RumbleSeries {
 		return time;
 	}
 	
+	/**
+	 * A {@link RumbleSeries} being played asynchronously to a {@link GenericHID joystick}<br>
+	 * <b>This is an internal class. It should not be used by the end user.</b>
+	 */
+	private static final class Playback {
+		/** The series */
+		private final RumbleSeries series;
+		/** The {@link GenericHID joystick} */
+		private final GenericHID joystick;
+		/** The index of the next {@link Rumble} to play */
+		private int index = 0;
+		/** When the next {@link Rumble} is played, in seconds */
+		private double nextTime;
+		
+		/**
+		 * Creates the playback
+		 * @param series The series
+		 * @param joystick The {@link GenericHID joystick}
+		 * @param start When it starts, in seconds
+		 */
+		private Playback(RumbleSeries series, GenericHID joystick, double start) {
+			this.series = series;
+			this.joystick = joystick;
+			nextTime = start;
+		}
+		
+		/**
+		 * Plays every {@link Rumble} that is due, and stops rumbling at the end
+		 * @param now The current time, in seconds
+		 * @return Whether there is any more to play
+		 */
+		private boolean update(double now) {
+			try {
+				while(nextTime - now < TIME_TOLERANCE) {
+					if(index >= series.rumbles.size()) {
+						Rumble.BREAK.play(joystick);
+						return false;
+					}
+					
+					series.rumbles.get(index).play(joystick);
+					nextTime += series.times.get(index++);
+				}
+				
+				return true;
+			} catch(Exception e) {
+				MBLibUtil.logError("Error whilst playing rumble", e);
+				return false;
+			}
+		}
+	}
+	
 	/**
 	 * The available types of rumble
 	 */
@@ -0,0 +1,253 @@
+package micobyte.frc.lib.io;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.RobotController;
+
+import micobyte.frc.lib.IUpdateable;
+import micobyte.frc.lib.MBLibUtil;
+import micobyte.frc.lib.Metrics;
+
+/**
+ * A high-frequency telemetry channel, which packs the values of many typed channels into one binary frame each tick, instead of one
+ * {@link edu.wpi.first.wpilibj.smartdashboard.SmartDashboard dashboard} entry per value.<br>
+ * Channels are added once, then every telemetry channel is {@link #updateAll() updated} each tick by {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}.
+ * Each frame is published as the raw {@code frame} entry of the {@value #TABLE}/(name) table, and can also be {@link #sendTo(InetSocketAddress) sent over UDP}.
+ * The schema is published once, as the {@code schema} entry, and is read by a {@link TelemetryDecoder}.<br>
+ * A frame holds its sequence number (int) and the FPGA time in microseconds (long), then each channel's value, in the order they were added.
+ * NetworkTables only sends the latest frame each time it flushes, so the sequence number shows which frames were skipped; UDP sends every frame.
+ */
+public class Telemetry implements IUpdateable {
+	/** The NetworkTables table the telemetry channels are published in */
+	public static final String TABLE = "MBLib Telemetry";
+	
+	/** The type code of a double channel */
+	public static final char DOUBLE = 'd';
+	/** The type code of a float channel */
+	public static final char FLOAT = 'f';
+	/** The type code of an int channel */
+	public static final char INT = 'i';
+	/** The type code of a boolean channel */
+	public static final char BOOLEAN = 'b';
+	
+	/** The size of a frame's header, in bytes */
+	public static final int HEADER_SIZE = 12;
+	/** The sequence number of a UDP packet that holds the schema, rather than a frame */
+	public static final int SCHEMA_PACKET = -1;
+	/** How many frames are sent over UDP between each time the schema is */
+	private static final int SCHEMA_INTERVAL = 50;
+	
+	/** Every telemetry channel */
+	private static final ArrayList<Telemetry> all = new ArrayList<Telemetry>();
+	
+	/** The name */
+	private final String name;
+	/** The NetworkTables table */
+	private final NetworkTable table;
+	/** The type code of each channel */
+	private final StringBuilder types = new StringBuilder();
+	/** The schema, built up as channels are added */
+	private final StringBuilder schema = new StringBuilder();
+	/** The supplier of each channel, as a {@link DoubleSupplier}, {@link IntSupplier} or {@link BooleanSupplier} */
+	private final ArrayList<Object> suppliers = new ArrayList<Object>();
+	
+	/** The frame, or {@code null} until the first update, after which no more channels can be added */
+	private ByteBuffer frame;
+	/** The raw NetworkTables entry the frames are published to */
+	private NetworkTableEntry frameEntry;
+	/** The sequence number of the next frame */
+	private int sequence;
+	
+	/** The socket UDP frames are sent from, or {@code null} for none */
+	private DatagramSocket socket;
+	/** The UDP packet holding the frame */
+	private DatagramPacket framePacket;
+	/** The UDP packet holding the schema */
+	private DatagramPacket schemaPacket;
+	
+	/**
+	 * Creates the telemetry channel, and adds it to the ones {@link #updateAll() updated} each tick
+	 * @param name The name, which is also its NetworkTables sub-table
+	 */
+	public Telemetry(String name) {
+		this.name = name;
+		table = NetworkTableInstance.getDefault().getTable(TABLE).getSubTable(name);
+		
+		synchronized(all) {
+			all.add(this);
+		}
+	}
+	
+	/** @return The name */
+	public String getName() { return name; }
+	
+	/** @return The schema: each channel's name and type code, as {@code name:type}, separated by commas */
+	public String getSchema() { return schema.toString(); }
+	
+	/** @return The size of a frame, in bytes */
+	public int getFrameSize() {
+		int size = HEADER_SIZE;
+		for(int i = 0; i < types.length(); i++) size += TelemetryDecoder.sizeOf(types.charAt(i));
+		
+		return size;
+	}
+	
+	/**
+	 * Adds a channel
+	 * @param name The channel's name, which can't contain commas or colons
+	 * @param type The type code
+	 * @param supplier The supplier of its value
+	 * @return This telemetry channel, so calls can be chained
+	 * @throws IllegalStateException If the telemetry channel has already been updated
+	 */
+	private Telemetry add(String name, char type, Object supplier) {
+		if(frame != null) throw new IllegalStateException("Channels can't be added to telemetry channel \"" + this.name + "\" after it has been updated");
+		if(name.indexOf(',') >= 0 || name.indexOf(':') >= 0) throw new IllegalArgumentException("Telemetry channel names can't contain commas or colons");
+		
+		if(schema.length() > 0) schema.append(',');
+		schema.append(name).append(':').append(type);
+		
+		types.append(type);
+		suppliers.add(supplier);
+		
+		return this;
+	}
+	
+	/**
+	 * Adds a double channel
+	 * @param name The channel's name, which can't contain commas or colons
+	 * @param supplier The supplier of its value
+	 * @return This telemetry channel, so calls can be chained
+	 * @throws IllegalStateException If the telemetry channel has already been updated
+	 */
+	public Telemetry addDouble(String name, DoubleSupplier supplier) { return add(name, DOUBLE, supplier); }
+	
+	/**
+	 * Adds a float channel, which takes half the space of a double channel
+	 * @param name The channel's name, which can't contain commas or colons
+	 * @param supplier The supplier of its value
+	 * @return This telemetry channel, so calls can be chained
+	 * @throws IllegalStateException If the telemetry channel has already been updated
+	 */
+	public Telemetry addFloat(String name, DoubleSupplier supplier) { return add(name, FLOAT, supplier); }
+	
+	/**
+	 * Adds an int channel
+	 * @param name The channel's name, which can't contain commas or colons
+	 * @param supplier The supplier of its value
+	 * @return This telemetry channel, so calls can be chained
+	 * @throws IllegalStateException If the telemetry channel has already been updated
+	 */
+	public Telemetry addInt(String name, IntSupplier supplier) { return add(name, INT, supplier); }
+	
+	/**
+	 * Adds a boolean channel
+	 * @param name The channel's name, which can't contain commas or colons
+	 * @param supplier The supplier of its value
+	 * @return This telemetry channel, so calls can be chained
+	 * @throws IllegalStateException If the telemetry channel has already been updated
+	 */
+	public Telemetry addBoolean(String name, BooleanSupplier supplier) { return add(name, BOOLEAN, supplier); }
+	
+	/**
+	 * Also sends every frame over UDP, such as to a logger on the roboRIO or the driver station. Every {@value #SCHEMA_INTERVAL} frames,
+	 * a packet with a sequence number of {@link #SCHEMA_PACKET} and the schema (as UTF-8) is sent too.
+	 * @param target Where to send the frames
+	 * @return This telemetry channel, so calls can be chained
+	 */
+	public synchronized Telemetry sendTo(InetSocketAddress target) {
+		try {
+			if(socket == null) socket = new DatagramSocket();
+			
+			framePacket = new DatagramPacket(new byte[0], 0, target);
+			schemaPacket = new DatagramPacket(new byte[0], 0, target);
+		} catch(IOException e) {
+			MBLibUtil.logError("Error whilst opening telemetry socket", e);
+		}
+		
+		return this;
+	}
+	
+	/**
+	 * Builds the frame, and publishes the schema
+	 */
+	private void start() {
+		frame = ByteBuffer.allocateDirect(getFrameSize());
+		frameEntry = table.getEntry("frame");
+		table.getEntry("schema").setString(getSchema());
+	}
+	
+	/**
+	 * Packs each channel's value into a frame, then publishes it
+	 */
+	public synchronized void update() {
+		if(frame == null) start();
+		
+		frame.clear();
+		frame.putInt(sequence).putLong(RobotController.getFPGATime());
+		
+		for(int i = 0; i < suppliers.size(); i++) {
+			Object supplier = suppliers.get(i);
+			
+			switch(types.charAt(i)) {
+			case DOUBLE: frame.putDouble(((DoubleSupplier)supplier).getAsDouble()); break;
+			case FLOAT: frame.putFloat((float)((DoubleSupplier)supplier).getAsDouble()); break;
+			case INT: frame.putInt(((IntSupplier)supplier).getAsInt()); break;
+			case BOOLEAN: frame.put((byte)(((BooleanSupplier)supplier).getAsBoolean() ? 1 : 0)); break;
+			}
+		}
+		
+		frameEntry.setRaw(frame, frame.position());
+		Metrics.NT_BYTES.add(Dashboard.updateSize(Dashboard.sizeWithLength(frame.position())));
+		if(framePacket != null) send();
+		
+		sequence++;
+	}
+	
+	/**
+	 * Sends the frame over UDP, and the schema if it is due
+	 */
+	private void send() {
+		try {
+			if(sequence % SCHEMA_INTERVAL == 0) {
+				if(schemaPacket.getLength() == 0) {
+					byte[] text = getSchema().getBytes(StandardCharsets.UTF_8);
+					schemaPacket.setData(ByteBuffer.allocate(4 + text.length).putInt(SCHEMA_PACKET).put(text).array());
+				}
+				
+				socket.send(schemaPacket);
+			}
+			
+			if(framePacket.getLength() == 0) framePacket.setData(new byte[frame.capacity()]);
+			
+			frame.flip();
+			frame.get(framePacket.getData());
+			socket.send(framePacket);
+		} catch(IOException e) {
+			MBLibUtil.logError("Error whilst sending telemetry", e);
+			framePacket = null;
+		}
+	}
+	
+	/**
+	 * Updates every telemetry channel, which is called each tick by {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 */
+	public static void updateAll() {
+		synchronized(all) {
+			for(int i = 0; i < all.size(); i++) all.get(i).update();
+		}
+	}
+}
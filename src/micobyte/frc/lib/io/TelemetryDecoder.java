@@ -0,0 +1,190 @@
+package micobyte.frc.lib.io;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import edu.wpi.first.networktables.EntryListenerFlags;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Decodes the frames of a {@link Telemetry} channel, using its schema. It can be run on a desktop, to print a robot's telemetry as CSV:
+ * <ul>
+ * <li>{@code TelemetryDecoder nt <team number or host> <name>} reads a telemetry channel from the robot's NetworkTables</li>
+ * <li>{@code TelemetryDecoder udp <port>} reads the frames {@link Telemetry#sendTo(java.net.InetSocketAddress) sent} to a UDP port</li>
+ * </ul>
+ */
+public class TelemetryDecoder {
+	/** The name of each channel */
+	private final String[] names;
+	/** The type code of each channel */
+	private final char[] types;
+	
+	/**
+	 * Creates the decoder
+	 * @param schema The {@link Telemetry#getSchema() schema}
+	 * @throws IllegalArgumentException If the schema is invalid
+	 */
+	public TelemetryDecoder(String schema) {
+		String[] channels = (schema.isEmpty() ? new String[0] : schema.split(","));
+		names = new String[channels.length];
+		types = new char[channels.length];
+		
+		for(int i = 0; i < channels.length; i++) {
+			int colon = channels[i].lastIndexOf(':');
+			if(colon < 0 || colon != channels[i].length() - 2) throw new IllegalArgumentException("Invalid telemetry channel \"" + channels[i] + "\"");
+			
+			names[i] = channels[i].substring(0, colon);
+			types[i] = channels[i].charAt(colon + 1);
+			sizeOf(types[i]);
+		}
+	}
+	
+	/**
+	 * Gets the size of a channel's value
+	 * @param type The channel's type code
+	 * @return The size, in bytes
+	 * @throws IllegalArgumentException If the type code is invalid
+	 */
+	public static int sizeOf(char type) {
+		switch(type) {
+		case Telemetry.DOUBLE: return 8;
+		case Telemetry.FLOAT: case Telemetry.INT: return 4;
+		case Telemetry.BOOLEAN: return 1;
+		default: throw new IllegalArgumentException("Invalid telemetry type code '" + type + "'");
+		}
+	}
+	
+	/** @return The name of each channel */
+	public String[] getNames() { return names.clone(); }
+	
+	/**
+	 * @param frame The frame
+	 * @return The frame's sequence number
+	 */
+	public int getSequence(byte[] frame) { return ByteBuffer.wrap(frame).getInt(0); }
+	
+	/**
+	 * @param frame The frame
+	 * @return The FPGA time of the frame, in microseconds
+	 */
+	public long getTime(byte[] frame) { return ByteBuffer.wrap(frame).getLong(4); }
+	
+	/**
+	 * Decodes the values in a frame
+	 * @param frame The frame
+	 * @return Each channel's value, with booleans as 1 or 0
+	 * @throws IllegalArgumentException If the frame doesn't match the schema
+	 */
+	public double[] decode(byte[] frame) {
+		ByteBuffer buffer = ByteBuffer.wrap(frame);
+		buffer.position(Telemetry.HEADER_SIZE);
+		
+		double[] values = new double[types.length];
+		try {
+			for(int i = 0; i < types.length; i++) {
+				switch(types[i]) {
+				case Telemetry.DOUBLE: values[i] = buffer.getDouble(); break;
+				case Telemetry.FLOAT: values[i] = buffer.getFloat(); break;
+				case Telemetry.INT: values[i] = buffer.getInt(); break;
+				case Telemetry.BOOLEAN: values[i] = buffer.get(); break;
+				}
+			}
+		} catch(RuntimeException e) {
+			throw new IllegalArgumentException("Telemetry frame doesn't match the schema", e);
+		}
+		
+		return values;
+	}
+	
+	/** @return The CSV header: the sequence number, the time, and each channel's name */
+	public String getCSVHeader() { return "sequence,time," + String.join(",", names); }
+	
+	/**
+	 * Decodes a frame as a CSV line
+	 * @param frame The frame
+	 * @return The line: the sequence number, the time in seconds, and each channel's value
+	 * @throws IllegalArgumentException If the frame doesn't match the schema
+	 */
+	public String toCSV(byte[] frame) {
+		StringBuilder line = new StringBuilder().append(getSequence(frame)).append(',').append(getTime(frame) / 1e6);
+		
+		double[] values = decode(frame);
+		for(int i = 0; i < values.length; i++) {
+			line.append(',');
+			
+			if(types[i] == Telemetry.DOUBLE || types[i] == Telemetry.FLOAT) line.append(values[i]);
+			else line.append((long)values[i]);
+		}
+		
+		return line.toString();
+	}
+	
+	/**
+	 * Prints a robot's telemetry as CSV
+	 * @param args {@code nt <team number or host> <name>}, or {@code udp <port>}
+	 * @throws Exception If something goes wrong
+	 */
+	public static void main(String[] args) throws Exception {
+		if(args.length == 3 && args[0].equals("nt")) readNetworkTables(args[1], args[2]);
+		else if(args.length == 2 && args[0].equals("udp")) readUDP(Integer.parseInt(args[1]));
+		else System.err.println("Usage: TelemetryDecoder nt <team number or host> <name> | udp <port>");
+	}
+	
+	/**
+	 * Prints a telemetry channel from a robot's NetworkTables as CSV, until the program is stopped
+	 * @param server The robot's team number or host name
+	 * @param name The telemetry channel's name
+	 * @throws InterruptedException If interrupted
+	 */
+	private static void readNetworkTables(String server, String name) throws InterruptedException {
+		NetworkTableInstance nt = NetworkTableInstance.create();
+		if(server.matches("\\d+")) nt.startClientTeam(Integer.parseInt(server));
+		else nt.startClient(server);
+		
+		NetworkTable table = nt.getTable(Telemetry.TABLE).getSubTable(name);
+		String schema;
+		while((schema = table.getEntry("schema").getString(null)) == null) Thread.sleep(100);
+		
+		TelemetryDecoder decoder = new TelemetryDecoder(schema);
+		System.out.println(decoder.getCSVHeader());
+		
+		table.getEntry("frame").addListener(n -> System.out.println(decoder.toCSV(n.value.getRaw())),
+				EntryListenerFlags.kImmediate | EntryListenerFlags.kNew | EntryListenerFlags.kUpdate);
+		
+		while(true) Thread.sleep(1000);
+	}
+	
+	/**
+	 * Prints the telemetry sent to a UDP port as CSV, until the program is stopped. Frames that arrive before the schema are skipped.
+	 * @param port The port
+	 * @throws IOException If the port can't be read
+	 */
+	private static void readUDP(int port) throws IOException {
+		try(DatagramSocket socket = new DatagramSocket(port)) {
+			DatagramPacket packet = new DatagramPacket(new byte[65536], 65536);
+			TelemetryDecoder decoder = null;
+			String schema = null;
+			
+			while(true) {
+				socket.receive(packet);
+				
+				byte[] data = new byte[packet.getLength()];
+				System.arraycopy(packet.getData(), packet.getOffset(), data, 0, data.length);
+				
+				if(ByteBuffer.wrap(data).getInt(0) == Telemetry.SCHEMA_PACKET) {
+					String s = new String(data, 4, data.length - 4, StandardCharsets.UTF_8);
+					
+					if(!s.equals(schema)) {
+						schema = s;
+						decoder = new TelemetryDecoder(schema);
+						System.out.println(decoder.getCSVHeader());
+					}
+				} else if(decoder != null) System.out.println(decoder.toCSV(data));
+			}
+		}
+	}
+}
@@ -76,7 +76,7 @@ public class TextMeter {
 			str += ']';
 		}
 		
-		SmartDashboard.putString("DB/String " + stringSlot, str);
+		Dashboard.putString("DB/String " + stringSlot, str);
 	}
 	
 	/**
@@ -0,0 +1,162 @@
+package micobyte.frc.lib.io;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.wpi.first.networktables.EntryListenerFlags;
+import edu.wpi.first.networktables.NetworkTableEntry;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableType;
+import edu.wpi.first.wpilibj.Preferences;
+
+import micobyte.frc.lib.MBLibUtil;
+
+/**
+ * A number that can be tuned live, from the {@value #TABLE} NetworkTables table, such as a PID gain.<br>
+ * A tunable is {@link #number(String, double) declared} once, and starts at the value it was last tuned to, which is kept in {@link Preferences}, or its default.
+ * When it is changed, NetworkTables' listener thread stores the new value in a volatile field, and saves it to {@link Preferences}, so reading it with {@link #get()}
+ * costs nothing, and nothing needs to be polled.<br>
+ * Code that has to apply new values itself (such as setting a {@link edu.wpi.first.wpilibj.PIDController PIDController}'s gains) {@link #onChange(Runnable, Tunable...) registers}
+ * an applier, which is run on the main thread, by {@link #applyAll()} (which is called at the start of each tick by {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}),
+ * only when one of its tunables has changed.
+ */
+public final class Tunable {
+	/** The NetworkTables table the tunables are in */
+	public static final String TABLE = "MBLib Tunables";
+	/** The prefix of the {@link Preferences} keys the tunables are saved under */
+	private static final String PREFERENCES_PREFIX = "Tunable ";
+	
+	/** Every tunable, by key */
+	private static final HashMap<String, Tunable> tunables = new HashMap<String, Tunable>();
+	/** Every applier */
+	private static final ArrayList<Applier> appliers = new ArrayList<Applier>();
+	/** Whether any tunable has changed since the appliers were last run */
+	private static volatile boolean dirty;
+	
+	/** The key */
+	private final String key;
+	/** The NetworkTables entry */
+	private final NetworkTableEntry entry;
+	/** The value */
+	private volatile double value;
+	/** The number of times the value has changed, which is counted from both NetworkTables' listener thread and the caller of {@link #set(double)} */
+	private final AtomicInteger version = new AtomicInteger();
+	
+	/**
+	 * Code that applies tunables' new values
+	 */
+	private static class Applier {
+		/** The code */
+		private final Runnable applier;
+		/** The tunables */
+		private final Tunable[] tunables;
+		/** Each tunable's {@link Tunable#version version} when the code was last run */
+		private final int[] versions;
+		
+		private Applier(Runnable applier, Tunable[] tunables) {
+			this.applier = applier;
+			this.tunables = tunables.clone();
+			
+			versions = new int[tunables.length];
+			for(int i = 0; i < tunables.length; i++) versions[i] = tunables[i].version.get();
+		}
+		
+		/**
+		 * Runs the code, if any of the tunables have changed since it was last run
+		 */
+		private void apply() {
+			boolean changed = false;
+			
+			for(int i = 0; i < tunables.length; i++) {
+				int version = tunables[i].version.get();
+				
+				if(version != versions[i]) {
+					versions[i] = version;
+					changed = true;
+				}
+			}
+			
+			if(changed) applier.run();
+		}
+	}
+	
+	/**
+	 * Creates the tunable
+	 * @param key The key
+	 * @param defaultValue The value to start at, if it hasn't been saved to {@link Preferences}
+	 */
+	private Tunable(String key, double defaultValue) {
+		this.key = key;
+		value = Preferences.getInstance().getDouble(PREFERENCES_PREFIX + key, defaultValue);
+		
+		entry = NetworkTableInstance.getDefault().getTable(TABLE).getEntry(key);
+		entry.setDouble(value);
+		entry.addListener(n -> {
+			if(n.value.getType() != NetworkTableType.kDouble) return;
+			
+			double newValue = n.value.getDouble();
+			if(newValue == value) return;
+			
+			value = newValue;
+			version.incrementAndGet();
+			dirty = true;
+			
+			Preferences.getInstance().putDouble(PREFERENCES_PREFIX + key, newValue);
+			MBLibUtil.log("Tunable " + key + " is now " + newValue);
+		}, EntryListenerFlags.kUpdate);
+	}
+	
+	/**
+	 * Declares a tunable, or gets it if it has already been declared
+	 * @param key The key, which is its NetworkTables entry in the {@value #TABLE} table
+	 * @param defaultValue The value to start at, if it hasn't been tuned before
+	 * @return The tunable
+	 */
+	public static synchronized Tunable number(String key, double defaultValue) {
+		Tunable tunable = tunables.get(key);
+		if(tunable == null) tunables.put(key, tunable = new Tunable(key, defaultValue));
+		
+		return tunable;
+	}
+	
+	/** @return The key */
+	public String getKey() { return key; }
+	
+	/** @return The value */
+	public double get() { return value; }
+	
+	/**
+	 * Sets the value from code, such as to reset it, which is also published and saved
+	 * @param value The value
+	 */
+	public void set(double value) {
+		Preferences.getInstance().putDouble(PREFERENCES_PREFIX + key, value);
+		
+		this.value = value;
+		version.incrementAndGet();
+		dirty = true;
+		
+		entry.setDouble(value);
+	}
+	
+	/**
+	 * Registers code to apply tunables' new values, which is run on the main thread by {@link #applyAll()}, once per tick at most, when any of them have changed
+	 * @param applier The code
+	 * @param tunables The tunables
+	 */
+	public static synchronized void onChange(Runnable applier, Tunable... tunables) { appliers.add(new Applier(applier, tunables)); }
+	
+	/**
+	 * Runs the appliers of the tunables that have changed, which is called at the start of each tick by {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}.
+	 * It does nothing if no tunables have changed.
+	 */
+	public static void applyAll() {
+		if(!dirty) return;
+		
+		synchronized(Tunable.class) {
+			dirty = false;
+			for(int i = 0; i < appliers.size(); i++) appliers.get(i).apply();
+		}
+	}
+}
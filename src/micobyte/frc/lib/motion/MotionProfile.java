@@ -0,0 +1,284 @@
+package micobyte.frc.lib.motion;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * A one-dimensional motion profile (such as the distance driven), precomputed as a table of setpoints (position, velocity and acceleration) one {@link #getPeriod() period} apart,
+ * so following it is only a lookup, which takes O(1) time and allocates nothing.<br>
+ * Profiles should be generated ahead of time, such as in {@link micobyte.frc.lib.robot.BasicRobot#robotInit() robotInit} or disabled mode,
+ * or at build time, and {@link #save(File) saved} to be {@link #load(File) loaded} on the robot, so autonomous can start straight away.
+ * They are generated as either {@link #trapezoidal(double, double, double, double) trapezoidal} (acceleration-limited) or {@link #sCurve(double, double, double, double, double) S-curve}
+ * (acceleration- and jerk-limited) profiles, which start and end at rest.
+ */
+public final class MotionProfile {
+	/** The main loop's period, in seconds */
+	public static final double DEFAULT_PERIOD = 0.02;
+	/** The first int of a saved profile */
+	private static final int MAGIC = 0x4D50524F;
+	
+	/** The time between setpoints, in seconds */
+	private final double period;
+	/** The position at each setpoint */
+	private final double[] positions;
+	/** The velocity at each setpoint, per second */
+	private final double[] velocities;
+	/** The acceleration at each setpoint, per second squared */
+	private final double[] accelerations;
+	
+	/**
+	 * Creates the profile
+	 * @param period The time between setpoints, in seconds
+	 * @param positions The position at each setpoint
+	 * @param velocities The velocity at each setpoint, per second
+	 * @param accelerations The acceleration at each setpoint, per second squared
+	 */
+	private MotionProfile(double period, double[] positions, double[] velocities, double[] accelerations) {
+		this.period = period;
+		this.positions = positions;
+		this.velocities = velocities;
+		this.accelerations = accelerations;
+	}
+	
+	/**
+	 * Generates a trapezoidal profile, which accelerates as hard as allowed up to the maximum velocity (if there is room), cruises, then decelerates to a stop
+	 * @param distance The distance to travel, which can be negative
+	 * @param maxVelocity The maximum velocity, per second
+	 * @param maxAcceleration The maximum acceleration, per second squared
+	 * @param period The time between setpoints, in seconds, such as {@link #DEFAULT_PERIOD}
+	 * @return The profile
+	 */
+	public static MotionProfile trapezoidal(double distance, double maxVelocity, double maxAcceleration, double period) {
+		check(maxVelocity, "velocity");
+		check(maxAcceleration, "acceleration");
+		
+		double d = Math.abs(distance), accelerationTime = maxVelocity / maxAcceleration, peak = maxVelocity;
+		if(maxAcceleration * accelerationTime * accelerationTime > d) {
+			accelerationTime = Math.sqrt(d / maxAcceleration);
+			peak = maxAcceleration * accelerationTime;
+		}
+		
+		double cruiseTime = (peak > 0 ? (d - maxAcceleration * accelerationTime * accelerationTime) / peak : 0);
+		return generate(Math.signum(distance), d, period,
+			new double[] { accelerationTime, cruiseTime, accelerationTime },
+			new double[] { 0, 0, 0 },
+			new double[] { maxAcceleration, 0, -maxAcceleration });
+	}
+	
+	/**
+	 * Generates a trapezoidal profile, with setpoints {@link #DEFAULT_PERIOD} apart
+	 * @param distance The distance to travel, which can be negative
+	 * @param maxVelocity The maximum velocity, per second
+	 * @param maxAcceleration The maximum acceleration, per second squared
+	 * @return The profile
+	 * @see #trapezoidal(double, double, double, double)
+	 */
+	public static MotionProfile trapezoidal(double distance, double maxVelocity, double maxAcceleration) { return trapezoidal(distance, maxVelocity, maxAcceleration, DEFAULT_PERIOD); }
+	
+	/**
+	 * Generates an S-curve profile, which is like a {@link #trapezoidal(double, double, double, double) trapezoidal} one, but ramps the acceleration up and down
+	 * no faster than the maximum jerk, so the robot doesn't jolt (or slip) at the start and end of each ramp
+	 * @param distance The distance to travel, which can be negative
+	 * @param maxVelocity The maximum velocity, per second
+	 * @param maxAcceleration The maximum acceleration, per second squared
+	 * @param maxJerk The maximum jerk (rate of change of acceleration), per second cubed
+	 * @param period The time between setpoints, in seconds, such as {@link #DEFAULT_PERIOD}
+	 * @return The profile
+	 */
+	public static MotionProfile sCurve(double distance, double maxVelocity, double maxAcceleration, double maxJerk, double period) {
+		check(maxVelocity, "velocity");
+		check(maxAcceleration, "acceleration");
+		check(maxJerk, "jerk");
+		
+		double d = Math.abs(distance), peak = maxVelocity;
+		
+		// Ramping up to the peak velocity and back down covers twice the distance it takes to reach it, which only grows with it, so search for the highest peak that fits
+		if(2 * sCurveRampDistance(peak, maxAcceleration, maxJerk) > d) {
+			double low = 0, high = peak;
+			for(int i = 0; i < 60; i++) {
+				peak = (low + high) / 2;
+				
+				if(2 * sCurveRampDistance(peak, maxAcceleration, maxJerk) > d) high = peak;
+				else low = peak;
+			}
+			
+			peak = low;
+		}
+		
+		double jerkTime = Math.min(maxAcceleration / maxJerk, Math.sqrt(peak / maxJerk)), peakAcceleration = maxJerk * jerkTime;
+		double accelerationTime = (peakAcceleration > 0 ? Math.max(peak / peakAcceleration - jerkTime, 0) : 0);
+		double cruiseTime = (peak > 0 ? (d - 2 * sCurveRampDistance(peak, maxAcceleration, maxJerk)) / peak : 0);
+		
+		return generate(Math.signum(distance), d, period,
+			new double[] { jerkTime, accelerationTime, jerkTime, Math.max(cruiseTime, 0), jerkTime, accelerationTime, jerkTime },
+			new double[] { maxJerk, 0, -maxJerk, 0, -maxJerk, 0, maxJerk },
+			new double[] { 0, peakAcceleration, peakAcceleration, 0, 0, -peakAcceleration, -peakAcceleration });
+	}
+	
+	/**
+	 * Generates an S-curve profile, with setpoints {@link #DEFAULT_PERIOD} apart
+	 * @param distance The distance to travel, which can be negative
+	 * @param maxVelocity The maximum velocity, per second
+	 * @param maxAcceleration The maximum acceleration, per second squared
+	 * @param maxJerk The maximum jerk (rate of change of acceleration), per second cubed
+	 * @return The profile
+	 * @see #sCurve(double, double, double, double, double)
+	 */
+	public static MotionProfile sCurve(double distance, double maxVelocity, double maxAcceleration, double maxJerk) { return sCurve(distance, maxVelocity, maxAcceleration, maxJerk, DEFAULT_PERIOD); }
+	
+	/**
+	 * Works out the distance an S-curve profile covers getting from rest up to a velocity, which is the velocity times half the time it takes, since the ramp is symmetric
+	 * @param velocity The velocity
+	 * @param maxAcceleration The maximum acceleration
+	 * @param maxJerk The maximum jerk
+	 * @return The distance
+	 */
+	private static double sCurveRampDistance(double velocity, double maxAcceleration, double maxJerk) {
+		double jerkTime = Math.min(maxAcceleration / maxJerk, Math.sqrt(velocity / maxJerk)), peakAcceleration = maxJerk * jerkTime;
+		double accelerationTime = (peakAcceleration > 0 ? Math.max(velocity / peakAcceleration - jerkTime, 0) : 0);
+		
+		return velocity * (2 * jerkTime + accelerationTime) / 2;
+	}
+	
+	/**
+	 * Checks a limit is positive
+	 * @param limit The limit
+	 * @param name What it limits
+	 * @throws IllegalArgumentException If it isn't
+	 */
+	private static void check(double limit, String name) { if(!(limit > 0)) throw new IllegalArgumentException("Maximum " + name + " must be positive"); }
+	
+	/**
+	 * Generates a profile from segments, each of constant jerk, by integrating it exactly at each setpoint
+	 * @param sign The direction of travel
+	 * @param distance The distance to travel, which the last setpoint is put exactly at
+	 * @param period The time between setpoints, in seconds
+	 * @param durations Each segment's duration, in seconds
+	 * @param jerks Each segment's jerk
+	 * @param startAccelerations The acceleration at the start of each segment
+	 * @return The profile
+	 */
+	private static MotionProfile generate(double sign, double distance, double period, double[] durations, double[] jerks, double[] startAccelerations) {
+		if(!(period > 0)) throw new IllegalArgumentException("Motion profile period must be positive");
+		
+		int segments = durations.length;
+		double[] startTimes = new double[segments], startPositions = new double[segments], startVelocities = new double[segments];
+		
+		double t = 0, p = 0, v = 0;
+		for(int s = 0; s < segments; s++) {
+			double T = durations[s], a = startAccelerations[s], j = jerks[s];
+			
+			startTimes[s] = t;
+			startPositions[s] = p;
+			startVelocities[s] = v;
+			
+			p += v * T + a * T * T / 2 + j * T * T * T / 6;
+			v += a * T + j * T * T / 2;
+			t += T;
+		}
+		
+		int n = (int)Math.ceil(t / period - 1e-9) + 1;
+		double[] positions = new double[n], velocities = new double[n], accelerations = new double[n];
+		
+		int s = 0;
+		for(int i = 0; i < n - 1; i++) {
+			double time = i * period;
+			while(s < segments - 1 && time >= startTimes[s + 1]) s++;
+			
+			double dt = time - startTimes[s], a = startAccelerations[s], j = jerks[s];
+			positions[i] = sign * (startPositions[s] + startVelocities[s] * dt + a * dt * dt / 2 + j * dt * dt * dt / 6);
+			velocities[i] = sign * Math.max(startVelocities[s] + a * dt + j * dt * dt / 2, 0);
+			accelerations[i] = sign * (a + j * dt);
+		}
+		
+		positions[n - 1] = sign * distance;
+		return new MotionProfile(period, positions, velocities, accelerations);
+	}
+	
+	/** @return The time between setpoints, in seconds */
+	public double getPeriod() { return period; }
+	
+	/** @return The number of setpoints */
+	public int size() { return positions.length; }
+	
+	/** @return How long the profile takes, in seconds */
+	public double getDuration() { return (positions.length - 1) * period; }
+	
+	/**
+	 * Finds the setpoint at a time
+	 * @param time The time since the profile started, in seconds
+	 * @return The setpoint, which is the first before the start, and the last after the end
+	 */
+	public int getIndex(double time) {
+		int i = (int)Math.round(time / period);
+		return (i < 0 ? 0 : (i >= positions.length ? positions.length - 1 : i));
+	}
+	
+	/**
+	 * @param i The setpoint
+	 * @return The position
+	 */
+	public double getPosition(int i) { return positions[i]; }
+	
+	/**
+	 * @param i The setpoint
+	 * @return The velocity, per second
+	 */
+	public double getVelocity(int i) { return velocities[i]; }
+	
+	/**
+	 * @param i The setpoint
+	 * @return The acceleration, per second squared
+	 */
+	public double getAcceleration(int i) { return accelerations[i]; }
+	
+	/**
+	 * Saves the profile, to be {@link #load(File) loaded} later (such as one generated at build time)
+	 * @param file The file
+	 * @throws IOException If the file can't be written
+	 */
+	public void save(File file) throws IOException {
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeDouble(period);
+			out.writeInt(positions.length);
+			
+			for(int i = 0; i < positions.length; i++) {
+				out.writeDouble(positions[i]);
+				out.writeDouble(velocities[i]);
+				out.writeDouble(accelerations[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Loads a {@link #save(File) saved} profile
+	 * @param file The file
+	 * @return The profile
+	 * @throws IOException If the file can't be read, or isn't a saved profile
+	 */
+	public static MotionProfile load(File file) throws IOException {
+		try(DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if(in.readInt() != MAGIC) throw new IOException(file + " isn't a saved motion profile");
+			
+			double period = in.readDouble();
+			int n = in.readInt();
+			if(!(period > 0) || n < 1) throw new IOException(file + " isn't a valid motion profile");
+			
+			double[] positions = new double[n], velocities = new double[n], accelerations = new double[n];
+			for(int i = 0; i < n; i++) {
+				positions[i] = in.readDouble();
+				velocities[i] = in.readDouble();
+				accelerations[i] = in.readDouble();
+			}
+			
+			return new MotionProfile(period, positions, velocities, accelerations);
+		}
+	}
+}
@@ -0,0 +1,303 @@
+package micobyte.frc.lib.motion;
+
+import java.io.File;
+import java.io.IOException;
+
+import micobyte.frc.lib.MBLibUtil;
+
+/**
+ * Plans {@link Trajectory trajectories} through {@link Waypoint waypoints}, for differential and mecanum drives, which drive along the path facing the way they go.<br>
+ * The path is made of a Hermite spline between each pair of waypoints: quintic ones (which are smoother, since the curvature doesn't jump at the waypoints) by default,
+ * or cubic ones. It is sampled densely by arc length, and each sample's velocity is limited by the maximum velocity, the maximum centripetal acceleration for its curvature,
+ * and (with a track width) the fastest the outside wheels can go. Then the velocities are limited by the maximum acceleration, forwards from the start and backwards from the end,
+ * and the result is sampled in time, one {@link #getPeriod() period} apart.<br>
+ * Planning takes a while, so trajectories should be planned ahead of time, and are {@link #getTrajectory(Waypoint...) cached} on disk, keyed by a hash of the waypoints and limits,
+ * so each is only planned once, and is {@link Trajectory#load(File) mapped} from the file after that.
+ */
+public class PathPlanner {
+	/** The format of planned trajectories, which is part of the key, so changing the planner makes it plan them again */
+	private static final int VERSION = 1;
+	/** The number of samples along each spline */
+	private static final int SAMPLES_PER_SPLINE = 1000;
+	/** The length of each waypoint's tangent, as a fraction of the distance to the next (or from the last) waypoint */
+	private static final double TANGENT_SCALE = 1.2;
+	
+	/** The maximum velocity, per second */
+	private final double maxVelocity;
+	/** The maximum acceleration along the path, per second squared */
+	private final double maxAcceleration;
+	/** The maximum centripetal acceleration, per second squared, or 0 for no limit */
+	private final double maxCentripetalAcceleration;
+	/** The distance between the left and right wheels, or 0 not to limit the outside wheels' velocity */
+	private final double trackWidth;
+	/** Whether the splines are quintic, rather than cubic */
+	private final boolean quintic;
+	/** The time between states, in seconds */
+	private final double period;
+	/** The directory trajectories are cached in */
+	private final File cacheDirectory;
+	
+	/**
+	 * Creates the planner, which plans quintic splines, with states {@link MotionProfile#DEFAULT_PERIOD} apart, and caches them in the {@code paths} directory in the home directory
+	 * @param maxVelocity The maximum velocity, per second
+	 * @param maxAcceleration The maximum acceleration along the path, per second squared
+	 * @param maxCentripetalAcceleration The maximum centripetal acceleration, per second squared, or 0 for no limit
+	 * @param trackWidth The distance between the left and right wheels, or 0 not to limit the outside wheels' velocity
+	 */
+	public PathPlanner(double maxVelocity, double maxAcceleration, double maxCentripetalAcceleration, double trackWidth) {
+		this(maxVelocity, maxAcceleration, maxCentripetalAcceleration, trackWidth, true, MotionProfile.DEFAULT_PERIOD, new File(new File(System.getProperty("user.home")), "paths"));
+	}
+	
+	/**
+	 * Creates the planner
+	 * @param maxVelocity The maximum velocity, per second
+	 * @param maxAcceleration The maximum acceleration along the path, per second squared
+	 * @param maxCentripetalAcceleration The maximum centripetal acceleration, per second squared, or 0 for no limit
+	 * @param trackWidth The distance between the left and right wheels, or 0 not to limit the outside wheels' velocity
+	 * @param quintic Whether the splines are quintic, rather than cubic
+	 * @param period The time between states, in seconds
+	 * @param cacheDirectory The directory trajectories are cached in
+	 */
+	public PathPlanner(double maxVelocity, double maxAcceleration, double maxCentripetalAcceleration, double trackWidth, boolean quintic, double period, File cacheDirectory) {
+		if(!(maxVelocity > 0) || !(maxAcceleration > 0)) throw new IllegalArgumentException("Maximum velocity and acceleration must be positive");
+		if(!(period > 0)) throw new IllegalArgumentException("Trajectory period must be positive");
+		
+		this.maxVelocity = maxVelocity;
+		this.maxAcceleration = maxAcceleration;
+		this.maxCentripetalAcceleration = maxCentripetalAcceleration;
+		this.trackWidth = trackWidth;
+		this.quintic = quintic;
+		this.period = period;
+		this.cacheDirectory = cacheDirectory;
+	}
+	
+	/** @return The time between states, in seconds */
+	public double getPeriod() { return period; }
+	
+	/**
+	 * Works out the key of a path, which is a hash of the waypoints and the planner's limits
+	 * @param waypoints The waypoints
+	 * @return The key
+	 */
+	public long getKey(Waypoint... waypoints) {
+		long hash = mix(0xCBF29CE484222325L, VERSION);
+		
+		hash = mix(hash, Double.doubleToLongBits(maxVelocity));
+		hash = mix(hash, Double.doubleToLongBits(maxAcceleration));
+		hash = mix(hash, Double.doubleToLongBits(maxCentripetalAcceleration));
+		hash = mix(hash, Double.doubleToLongBits(trackWidth));
+		hash = mix(hash, (quintic ? 5 : 3));
+		hash = mix(hash, Double.doubleToLongBits(period));
+		
+		for(Waypoint waypoint : waypoints) {
+			hash = mix(hash, Double.doubleToLongBits(waypoint.x));
+			hash = mix(hash, Double.doubleToLongBits(waypoint.y));
+			hash = mix(hash, Double.doubleToLongBits(waypoint.heading));
+		}
+		
+		return hash;
+	}
+	
+	/**
+	 * Mixes a value into a hash (FNV-1a, a byte at a time)
+	 * @param hash The hash
+	 * @param value The value
+	 * @return The new hash
+	 */
+	private static long mix(long hash, long value) {
+		for(int i = 0; i < 8; i++) {
+			hash ^= (value >>> (i * 8)) & 0xFF;
+			hash *= 0x100000001B3L;
+		}
+		
+		return hash;
+	}
+	
+	/**
+	 * Gets the trajectory through waypoints from the cache, or plans it and caches it if it isn't there
+	 * @param waypoints The waypoints
+	 * @return The trajectory
+	 */
+	public Trajectory getTrajectory(Waypoint... waypoints) {
+		long key = getKey(waypoints);
+		File file = new File(cacheDirectory, String.format("%016x.trajectory", key));
+		
+		if(file.exists()) {
+			try {
+				Trajectory trajectory = Trajectory.load(file);
+				if(trajectory.getKey() == key) return trajectory;
+			} catch(IOException e) {
+				MBLibUtil.logError("Error whilst loading cached trajectory " + file, e);
+			}
+		}
+		
+		Trajectory trajectory = plan(waypoints);
+		
+		try {
+			cacheDirectory.mkdirs();
+			trajectory.save(file);
+		} catch(IOException e) {
+			MBLibUtil.logError("Error whilst caching trajectory " + file, e);
+		}
+		
+		return trajectory;
+	}
+	
+	/**
+	 * Plans the trajectory through waypoints, without the cache
+	 * @param waypoints The waypoints, of which there must be at least two
+	 * @return The trajectory
+	 * @throws IllegalArgumentException If there are fewer than two waypoints, or two waypoints in a row are at the same place
+	 */
+	public Trajectory plan(Waypoint... waypoints) {
+		if(waypoints.length < 2) throw new IllegalArgumentException("A path needs at least two waypoints");
+		
+		int splines = waypoints.length - 1, n = splines * SAMPLES_PER_SPLINE + 1;
+		double[] xs = new double[n], ys = new double[n], headings = new double[n], curvatures = new double[n], distances = new double[n];
+		double[] weights = new double[4];
+		
+		// Sample the splines
+		int k = 0;
+		for(int s = 0; s < splines; s++) {
+			Waypoint a = waypoints[s], b = waypoints[s + 1];
+			
+			double chord = Math.hypot(b.x - a.x, b.y - a.y);
+			if(chord == 0) throw new IllegalArgumentException("Waypoints " + s + " and " + (s + 1) + " are at the same place");
+			
+			double scale = chord * TANGENT_SCALE, ha = Math.toRadians(a.heading), hb = Math.toRadians(b.heading);
+			double ax = Math.cos(ha) * scale, ay = Math.sin(ha) * scale, bx = Math.cos(hb) * scale, by = Math.sin(hb) * scale;
+			
+			for(int j = (s == 0 ? 0 : 1); j <= SAMPLES_PER_SPLINE; j++, k++) {
+				double t = (double)j / SAMPLES_PER_SPLINE;
+				
+				basis(t, 0, weights);
+				xs[k] = weights[0] * a.x + weights[1] * ax + weights[2] * bx + weights[3] * b.x;
+				ys[k] = weights[0] * a.y + weights[1] * ay + weights[2] * by + weights[3] * b.y;
+				
+				basis(t, 1, weights);
+				double dx = weights[0] * a.x + weights[1] * ax + weights[2] * bx + weights[3] * b.x;
+				double dy = weights[0] * a.y + weights[1] * ay + weights[2] * by + weights[3] * b.y;
+				
+				basis(t, 2, weights);
+				double ddx = weights[0] * a.x + weights[1] * ax + weights[2] * bx + weights[3] * b.x;
+				double ddy = weights[0] * a.y + weights[1] * ay + weights[2] * by + weights[3] * b.y;
+				
+				double speed = Math.hypot(dx, dy);
+				curvatures[k] = (speed == 0 ? 0 : (dx * ddy - dy * ddx) / (speed * speed * speed));
+				
+				// Keep the heading continuous, rather than wrapping it
+				double heading = Math.toDegrees(Math.atan2(dy, dx));
+				if(k > 0) heading += 360 * Math.round((headings[k - 1] - heading) / 360);
+				headings[k] = heading;
+				
+				distances[k] = (k == 0 ? 0 : distances[k - 1] + Math.hypot(xs[k] - xs[k - 1], ys[k] - ys[k - 1]));
+			}
+		}
+		
+		// Limit each sample's velocity, then the acceleration, forwards then backwards
+		double[] velocities = new double[n];
+		for(int i = 0; i < n; i++) {
+			double limit = maxVelocity, curvature = Math.abs(curvatures[i]);
+			
+			if(maxCentripetalAcceleration > 0 && curvature > 0) limit = Math.min(limit, Math.sqrt(maxCentripetalAcceleration / curvature));
+			if(trackWidth > 0) limit = Math.min(limit, maxVelocity / (1 + curvature * trackWidth / 2));
+			
+			velocities[i] = limit;
+		}
+		
+		velocities[0] = 0;
+		for(int i = 1; i < n; i++) velocities[i] = Math.min(velocities[i], Math.sqrt(velocities[i - 1] * velocities[i - 1] + 2 * maxAcceleration * (distances[i] - distances[i - 1])));
+		
+		velocities[n - 1] = 0;
+		for(int i = n - 2; i >= 0; i--) velocities[i] = Math.min(velocities[i], Math.sqrt(velocities[i + 1] * velocities[i + 1] + 2 * maxAcceleration * (distances[i + 1] - distances[i])));
+		
+		// Work out when each sample is reached, assuming constant acceleration between them
+		double[] times = new double[n];
+		for(int i = 1; i < n; i++) {
+			double ds = distances[i] - distances[i - 1], v = velocities[i - 1] + velocities[i];
+			times[i] = times[i - 1] + (v > 0 ? 2 * ds / v : Math.sqrt(2 * ds / maxAcceleration));
+		}
+		
+		// Sample it in time
+		int size = (int)Math.ceil(times[n - 1] / period - 1e-9) + 1;
+		double[] states = Trajectory.newStates(size);
+		
+		int i = 0;
+		for(int j = 0; j < size - 1; j++) {
+			double time = j * period;
+			while(i < n - 2 && times[i + 1] <= time) i++;
+			
+			double dt = time - times[i], ds = distances[i + 1] - distances[i], duration = times[i + 1] - times[i];
+			double acceleration = (duration > 0 ? (velocities[i + 1] - velocities[i]) / duration : 0);
+			double distance = Math.min(distances[i] + velocities[i] * dt + acceleration * dt * dt / 2, distances[i + 1]);
+			double f = (ds > 0 ? (distance - distances[i]) / ds : 0);
+			
+			Trajectory.setState(states, j, lerp(xs, i, f), lerp(ys, i, f), lerp(headings, i, f), velocities[i] + acceleration * dt, acceleration, lerp(curvatures, i, f), distance);
+		}
+		
+		Trajectory.setState(states, size - 1, xs[n - 1], ys[n - 1], headings[n - 1], 0, 0, curvatures[n - 1], distances[n - 1]);
+		return Trajectory.of(period, getKey(waypoints), states);
+	}
+	
+	/**
+	 * Interpolates between a sample and the next
+	 * @param values The samples' values
+	 * @param i The sample
+	 * @param f How far it is to the next sample, from 0 to 1
+	 * @return The value
+	 */
+	private static double lerp(double[] values, int i, double f) { return values[i] + (values[i + 1] - values[i]) * f; }
+	
+	/**
+	 * Works out the Hermite basis functions (or their derivatives), which weight the start point, start tangent, end tangent and end point.
+	 * The quintic ones have zero second derivatives at the ends, so the splines meet with no curvature.
+	 * @param t How far along the spline, from 0 to 1
+	 * @param derivative Which derivative: 0, 1 or 2
+	 * @param weights Filled with the weights
+	 */
+	private void basis(double t, int derivative, double[] weights) {
+		double t2 = t * t, t3 = t2 * t, t4 = t3 * t, t5 = t4 * t;
+		
+		if(quintic) {
+			switch(derivative) {
+			case 0:
+				weights[0] = 1 - 10 * t3 + 15 * t4 - 6 * t5;
+				weights[1] = t - 6 * t3 + 8 * t4 - 3 * t5;
+				weights[2] = -4 * t3 + 7 * t4 - 3 * t5;
+				weights[3] = 10 * t3 - 15 * t4 + 6 * t5;
+				break;
+			case 1:
+				weights[0] = -30 * t2 + 60 * t3 - 30 * t4;
+				weights[1] = 1 - 18 * t2 + 32 * t3 - 15 * t4;
+				weights[2] = -12 * t2 + 28 * t3 - 15 * t4;
+				weights[3] = 30 * t2 - 60 * t3 + 30 * t4;
+				break;
+			default:
+				weights[0] = -60 * t + 180 * t2 - 120 * t3;
+				weights[1] = -36 * t + 96 * t2 - 60 * t3;
+				weights[2] = -24 * t + 84 * t2 - 60 * t3;
+				weights[3] = 60 * t - 180 * t2 + 120 * t3;
+			}
+		} else {
+			switch(derivative) {
+			case 0:
+				weights[0] = 2 * t3 - 3 * t2 + 1;
+				weights[1] = t3 - 2 * t2 + t;
+				weights[2] = t3 - t2;
+				weights[3] = -2 * t3 + 3 * t2;
+				break;
+			case 1:
+				weights[0] = 6 * t2 - 6 * t;
+				weights[1] = 3 * t2 - 4 * t + 1;
+				weights[2] = 3 * t2 - 2 * t;
+				weights[3] = -6 * t2 + 6 * t;
+				break;
+			default:
+				weights[0] = 12 * t - 6;
+				weights[1] = 6 * t - 4;
+				weights[2] = 6 * t - 2;
+				weights[3] = -12 * t + 6;
+			}
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package micobyte.frc.lib.motion;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A two-dimensional trajectory {@link PathPlanner planned} along a path, as a table of states (position, heading, velocity, acceleration and curvature)
+ * one {@link #getPeriod() period} apart, so following it is only a lookup, which takes O(1) time and allocates nothing.<br>
+ * The states are kept in a {@link DoubleBuffer}, which is on the heap for a trajectory that has just been planned, or {@link FileChannel#map(FileChannel.MapMode, long, long) mapped}
+ * straight from the file for one that has been {@link #load(File) loaded}, so loading one doesn't read or copy the file.
+ */
+public final class Trajectory {
+	/** The first int of a saved trajectory */
+	private static final int MAGIC = 0x4D545241;
+	/** The size of a saved trajectory's header, in bytes: the magic number, the number of states, the period and the key */
+	private static final int HEADER_SIZE = 24;
+	/** The number of values in each state */
+	private static final int FIELDS = 7;
+	/** Where each value is in a state */
+	private static final int X = 0, Y = 1, HEADING = 2, VELOCITY = 3, ACCELERATION = 4, CURVATURE = 5, DISTANCE = 6;
+	
+	/** The time between states, in seconds */
+	private final double period;
+	/** The number of states */
+	private final int size;
+	/** The key of the path and limits it was planned from */
+	private final long key;
+	/** The states */
+	private final DoubleBuffer states;
+	
+	/**
+	 * Creates the trajectory
+	 * @param period The time between states, in seconds
+	 * @param size The number of states
+	 * @param key The key of the path and limits it was planned from
+	 * @param states The states
+	 */
+	private Trajectory(double period, int size, long key, DoubleBuffer states) {
+		this.period = period;
+		this.size = size;
+		this.key = key;
+		this.states = states;
+	}
+	
+	/**
+	 * Creates a trajectory from its states, which is called by the {@link PathPlanner}
+	 * @param period The time between states, in seconds
+	 * @param key The key of the path and limits it was planned from
+	 * @param states The states, one after the other, as X, Y, heading, velocity, acceleration, curvature and distance
+	 * @return The trajectory
+	 */
+	static Trajectory of(double period, long key, double[] states) { return new Trajectory(period, states.length / FIELDS, key, DoubleBuffer.wrap(states)); }
+	
+	/**
+	 * Creates an empty array of states to be filled in
+	 * @param size The number of states
+	 * @return The array
+	 */
+	static double[] newStates(int size) { return new double[size * FIELDS]; }
+	
+	/**
+	 * Fills in a state
+	 * @param states The states
+	 * @param i The state
+	 * @param x The X position
+	 * @param y The Y position
+	 * @param heading The heading, in degrees counterclockwise from the X axis
+	 * @param velocity The velocity
+	 * @param acceleration The acceleration
+	 * @param curvature The curvature, counterclockwise
+	 * @param distance The distance along the path
+	 */
+	static void setState(double[] states, int i, double x, double y, double heading, double velocity, double acceleration, double curvature, double distance) {
+		int s = i * FIELDS;
+		
+		states[s + X] = x;
+		states[s + Y] = y;
+		states[s + HEADING] = heading;
+		states[s + VELOCITY] = velocity;
+		states[s + ACCELERATION] = acceleration;
+		states[s + CURVATURE] = curvature;
+		states[s + DISTANCE] = distance;
+	}
+	
+	/** @return The time between states, in seconds */
+	public double getPeriod() { return period; }
+	
+	/** @return The number of states */
+	public int size() { return size; }
+	
+	/** @return How long the trajectory takes, in seconds */
+	public double getDuration() { return (size - 1) * period; }
+	
+	/** @return The key of the path and limits it was planned from */
+	public long getKey() { return key; }
+	
+	/**
+	 * Finds the state at a time
+	 * @param time The time since the trajectory started, in seconds
+	 * @return The state, which is the first before the start, and the last after the end
+	 */
+	public int getIndex(double time) {
+		int i = (int)Math.round(time / period);
+		return (i < 0 ? 0 : (i >= size ? size - 1 : i));
+	}
+	
+	/**
+	 * @param i The state
+	 * @return The X position
+	 */
+	public double getX(int i) { return states.get(i * FIELDS + X); }
+	
+	/**
+	 * @param i The state
+	 * @return The Y position
+	 */
+	public double getY(int i) { return states.get(i * FIELDS + Y); }
+	
+	/**
+	 * @param i The state
+	 * @return The heading, in degrees counterclockwise from the X axis
+	 */
+	public double getHeading(int i) { return states.get(i * FIELDS + HEADING); }
+	
+	/**
+	 * @param i The state
+	 * @return The velocity along the path, per second
+	 */
+	public double getVelocity(int i) { return states.get(i * FIELDS + VELOCITY); }
+	
+	/**
+	 * @param i The state
+	 * @return The acceleration along the path, per second squared
+	 */
+	public double getAcceleration(int i) { return states.get(i * FIELDS + ACCELERATION); }
+	
+	/**
+	 * @param i The state
+	 * @return The curvature (one over the radius of the turn), which is positive when turning counterclockwise
+	 */
+	public double getCurvature(int i) { return states.get(i * FIELDS + CURVATURE); }
+	
+	/**
+	 * @param i The state
+	 * @return The distance along the path
+	 */
+	public double getDistance(int i) { return states.get(i * FIELDS + DISTANCE); }
+	
+	/**
+	 * Saves the trajectory, to be {@link #load(File) loaded} later. It is written to a temporary file, which then replaces the file, so a trajectory being loaded is never half-written.
+	 * @param file The file
+	 * @throws IOException If the file can't be written
+	 */
+	public void save(File file) throws IOException {
+		File temp = new File(file.getPath() + ".tmp");
+		
+		try(RandomAccessFile out = new RandomAccessFile(temp, "rw"); FileChannel channel = out.getChannel()) {
+			ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + size * FIELDS * 8).order(ByteOrder.nativeOrder());
+			buffer.putInt(MAGIC).putInt(size).putDouble(period).putLong(key);
+			
+			for(int i = 0; i < size * FIELDS; i++) buffer.putDouble(states.get(i));
+			buffer.flip();
+			
+			out.setLength(0);
+			while(buffer.hasRemaining()) channel.write(buffer);
+		}
+		
+		if(!temp.renameTo(file)) {
+			file.delete();
+			if(!temp.renameTo(file)) throw new IOException("Couldn't replace " + file);
+		}
+	}
+	
+	/**
+	 * Loads a {@link #save(File) saved} trajectory, by {@link FileChannel#map(FileChannel.MapMode, long, long) mapping} the file, so its states are only read when they are used
+	 * @param file The file
+	 * @return The trajectory
+	 * @throws IOException If the file can't be read, or isn't a saved trajectory
+	 */
+	public static Trajectory load(File file) throws IOException {
+		try(RandomAccessFile in = new RandomAccessFile(file, "r"); FileChannel channel = in.getChannel()) {
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.nativeOrder());
+			if(buffer.capacity() < HEADER_SIZE || buffer.getInt() != MAGIC) throw new IOException(file + " isn't a saved trajectory");
+			
+			int size = buffer.getInt();
+			double period = buffer.getDouble();
+			long key = buffer.getLong();
+			
+			if(size < 1 || !(period > 0) || buffer.remaining() != (long)size * FIELDS * 8) throw new IOException(file + " isn't a valid trajectory");
+			return new Trajectory(period, size, key, buffer.slice().order(ByteOrder.nativeOrder()).asDoubleBuffer());
+		}
+	}
+}
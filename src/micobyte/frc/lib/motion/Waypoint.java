@@ -0,0 +1,27 @@
+package micobyte.frc.lib.motion;
+
+/**
+ * A point a {@link PathPlanner planned path} goes through, and the direction it goes through it in
+ */
+public final class Waypoint {
+	/** The X position */
+	public final double x;
+	/** The Y position */
+	public final double y;
+	/** The heading, in degrees counterclockwise from the X axis */
+	public final double heading;
+	
+	/**
+	 * Creates the waypoint
+	 * @param x The X position
+	 * @param y The Y position
+	 * @param heading The heading, in degrees counterclockwise from the X axis
+	 */
+	public Waypoint(double x, double y, double heading) {
+		this.x = x;
+		this.y = y;
+		this.heading = heading;
+	}
+	
+	public String toString() { return "(" + x + ", " + y + ", " + heading + " degrees)"; }
+}
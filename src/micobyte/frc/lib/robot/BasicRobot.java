@@ -1,20 +1,42 @@
 package micobyte.frc.lib.robot;
 
+import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.IterativeRobot;
 
 import micobyte.frc.lib.IStatusLogger;
+import micobyte.frc.lib.JVMMonitor;
 import micobyte.frc.lib.MBLibUtil;
+import micobyte.frc.lib.Metrics;
 import micobyte.frc.lib.command.SimpleCommandGroup;
 
+import micobyte.frc.lib.io.Dashboard;
+import micobyte.frc.lib.io.HIDSnapshot;
+import micobyte.frc.lib.io.InputRecorder;
+import micobyte.frc.lib.io.Telemetry;
+import micobyte.frc.lib.io.Tunable;
+
 /**
  * A {@link IterativeRobot} with some extra features
  */
 public abstract class BasicRobot extends IterativeRobot implements IStatusLogger {
+	/** The {@link JVMMonitor.Phase phase} of each tick that takes the {@link HIDSnapshot joystick snapshot}, {@link InputRecorder records inputs} and {@link Tunable#applyAll() applies tunables} */
+	private static final JVMMonitor.Phase INPUT_PHASE = JVMMonitor.phase("input");
+	/** The {@link JVMMonitor.Phase phase} of each tick that runs the robot's periodic methods */
+	private static final JVMMonitor.Phase ROBOT_PHASE = JVMMonitor.phase("robot");
+	/** The {@link JVMMonitor.Phase phase} of each tick that flushes the {@link Dashboard}, updates {@link Telemetry} and flushes NetworkTables */
+	private static final JVMMonitor.Phase TELEMETRY_PHASE = JVMMonitor.phase("telemetry");
+	
 	/** The robot's name */
 	private final String name;
 	
 	/** The robot's current status */
 	private transient String status;
+	/** The file name the {@link InputRecorder input recording} is saved to */
+	private transient String inputRecordingName;
+	/** Whether NetworkTables is flushed at the end of each tick */
+	private transient boolean flushNetworkTables;
+	/** The {@link Metrics#NT_BYTES estimated number of bytes sent to NetworkTables} at the end of the last tick */
+	private transient long lastNetworkTablesBytes;
 	
 	/**
 	 * Creates the robot, with the suggested name
@@ -49,8 +71,74 @@ public abstract class BasicRobot extends IterativeRobot implements IStatusLogger
 	 */
 	public String getStatus() { return status; }
 	
+	/**
+	 * Whether the robot's inputs should be {@link InputRecorder recorded}, from when it starts. The recording is saved to the {@code robot-logs} directory
+	 * each time the robot is disabled.
+	 * @return The size of the recording buffer, in bytes, or 0 not to record
+	 */
+	protected int getInputRecordingCapacity() { return 0; }
+	
+	/**
+	 * Whether the {@link JVMMonitor} should watch for garbage collections, pauses and allocations in each tick, from when the robot starts
+	 * @return true to use the {@link JVMMonitor}
+	 */
+	protected boolean useJVMMonitor() { return false; }
+	
+	/**
+	 * Whether NetworkTables should be {@link NetworkTableInstance#flush() flushed} at the end of each tick, after the {@link Dashboard} and {@link Telemetry},
+	 * so everything put during a tick is sent together, straight away, rather than whenever NetworkTables next sends on its own
+	 * @return true to flush NetworkTables each tick
+	 */
+	protected boolean flushNetworkTablesEachTick() { return false; }
+	
+	/**
+	 * How often NetworkTables sends changed values on its own, which is how long values can wait to be sent if it isn't {@link #flushNetworkTablesEachTick() flushed each tick}.
+	 * A longer period sends fewer, bigger updates, which saves bandwidth.
+	 * @return The period, in seconds (from 0.01 to 1), or 0 to keep NetworkTables' default (0.1)
+	 */
+	protected double getNetworkTablesUpdatePeriod() { return 0; }
+	
 	public void robotPeriodic() {}
-	public void robotInit() { logStatus("ready to go"); createOIAndSubsystems(); }
+	public void robotInit() {
+		logStatus("ready to go");
+		if(useJVMMonitor()) JVMMonitor.start();
+		
+		flushNetworkTables = flushNetworkTablesEachTick();
+		if(getNetworkTablesUpdatePeriod() > 0) NetworkTableInstance.getDefault().setUpdateRate(getNetworkTablesUpdatePeriod());
+		
+		if(getInputRecordingCapacity() > 0) {
+			inputRecordingName = getName() + "-" + MBLibUtil.getDateTimeString();
+			InputRecorder.start(getInputRecordingCapacity());
+		}
+		
+		createOIAndSubsystems();
+	}
+	
+	protected void loopFunc() {
+		JVMMonitor.beginTick();
+		
+		INPUT_PHASE.begin();
+		HIDSnapshot.update();
+		InputRecorder.recordTick();
+		Tunable.applyAll();
+		INPUT_PHASE.end();
+		
+		ROBOT_PHASE.begin();
+		super.loopFunc();
+		ROBOT_PHASE.end();
+		
+		TELEMETRY_PHASE.begin();
+		Dashboard.flush();
+		Telemetry.updateAll();
+		if(flushNetworkTables) NetworkTableInstance.getDefault().flush();
+		
+		long bytes = Metrics.NT_BYTES.get();
+		Metrics.NT_TICK_BYTES.record(bytes - lastNetworkTablesBytes);
+		lastNetworkTablesBytes = bytes;
+		TELEMETRY_PHASE.end();
+		
+		JVMMonitor.endTick();
+	}
 	
 	/**
 	 * Called when it is time to do such things as create the Operator Interface (OI) and {@link edu.wpi.first.wpilibj.command.Subsystem subsystems}
@@ -69,7 +157,12 @@ public abstract class BasicRobot extends IterativeRobot implements IStatusLogger
 	
 	public void autonomousInit() { logStatus("in autonomous mode"); startAuto(); }
 	public void teleopInit() { logStatus("in teleop mode"); endAuto(); }
-	public void disabledInit() { logStatus("in disabled mode"); endAuto(); }
+	public void disabledInit() {
+		logStatus("in disabled mode");
+		endAuto();
+		
+		if(inputRecordingName != null) InputRecorder.save(inputRecordingName);
+	}
 	public void testInit() { logStatus("in test mode"); endAuto(); }
 	
 	public void autonomousPeriodic() {}
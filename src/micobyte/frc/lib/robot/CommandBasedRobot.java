@@ -2,14 +2,27 @@ package micobyte.frc.lib.robot;
 
 import edu.wpi.first.wpilibj.command.Command;
 import edu.wpi.first.wpilibj.command.Scheduler;
+import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+
+import micobyte.frc.lib.JVMMonitor;
+import micobyte.frc.lib.Metrics;
+
+import micobyte.frc.lib.command.MBScheduler;
+import micobyte.frc.lib.command.MBScheduler.OverrunPolicy;
 
 /**
  * A {@link BasicRobot} with all the code for executing {@link Command commands} pre-baked in, and also features for a {@link Command}-based autonomous mode
  */
 public abstract class CommandBasedRobot extends BasicRobot {
+	/** The {@link JVMMonitor.Phase phase} of each tick that runs the scheduler */
+	private static final JVMMonitor.Phase SCHEDULER_PHASE = JVMMonitor.phase("scheduler");
+	
 	/** The currently executing autonomous {@link Command command} */
 	protected transient Command autoCommand;
 	
+	/** Whether the {@link MBScheduler} has been disabled because {@link LiveWindow} is enabled */
+	private transient boolean schedulerPausedForLiveWindow = false;
+	
 	/**
 	 * Creates the robot, with the suggested name
 	 */
@@ -47,9 +60,55 @@ public abstract class CommandBasedRobot extends BasicRobot {
 	}
 	
 	/**
-	 * Runs the {@link Scheduler}, so that {@link Command}s may run
+	 * Whether {@link Command}s should be run by the {@link MBScheduler} instead of the {@link Scheduler}
+	 * @return true to use the {@link MBScheduler}
+	 */
+	protected boolean useMBScheduler() { return false; }
+	
+	/**
+	 * Sets the time budget for each run of the {@link MBScheduler}, and what to do when it is overrun.<br>
+	 * This only has an effect if the {@link MBScheduler} is {@link #useMBScheduler() used}.
+	 * @param seconds The budget, in seconds, or 0 for none
+	 * @param policy What to do when the budget is overrun
+	 */
+	protected void setSchedulerTickBudget(double seconds, OverrunPolicy policy) { MBScheduler.getInstance().setTickBudget(seconds, policy); }
+	
+	/**
+	 * Sets how many extra threads the {@link MBScheduler} runs the {@link edu.wpi.first.wpilibj.command.Subsystem#periodic() periodic()} methods of
+	 * {@link micobyte.frc.lib.subsystem.IConcurrentSubsystem concurrent subsystems} on. One is enough to use the roboRIO's second core.<br>
+	 * This only has an effect if the {@link MBScheduler} is {@link #useMBScheduler() used}.
+	 * @param threads The number of threads, or 0 to run every {@link edu.wpi.first.wpilibj.command.Subsystem#periodic() periodic()} method serially
 	 */
-	public void runScheduler() { Scheduler.getInstance().run(); }
+	protected void setParallelSubsystemPeriodic(int threads) { MBScheduler.getInstance().setParallelPeriodic(threads); }
+	
+	/**
+	 * Runs the {@link Scheduler} (or the {@link MBScheduler}, if {@link #useMBScheduler() enabled}), so that {@link Command}s may run,
+	 * and records how long it took in {@link Metrics#SCHEDULER_TICK}.<br>
+	 * Whilst {@link LiveWindow} is enabled (in test mode), the {@link MBScheduler} is disabled and all its {@link Command commands} are removed,
+	 * as {@link LiveWindow#setEnabled(boolean)} only does that to the {@link Scheduler}, and it is enabled again once {@link LiveWindow} is.
+	 */
+	public void runScheduler() {
+		long start = System.nanoTime();
+		SCHEDULER_PHASE.begin();
+		
+		if(useMBScheduler()) {
+			MBScheduler scheduler = MBScheduler.getInstance();
+			
+			if(LiveWindow.isEnabled() != schedulerPausedForLiveWindow) {
+				schedulerPausedForLiveWindow = !schedulerPausedForLiveWindow;
+				
+				if(schedulerPausedForLiveWindow) {
+					scheduler.disable();
+					scheduler.removeAll();
+				} else scheduler.enable();
+			}
+			
+			scheduler.run();
+		} else Scheduler.getInstance().run();
+		
+		SCHEDULER_PHASE.end();
+		Metrics.SCHEDULER_TICK.recordSince(start);
+	}
 	
 	public void autonomousPeriodic() { super.autonomousPeriodic(); runScheduler(); }
 	public void teleopPeriodic() { super.teleopPeriodic(); runScheduler(); }
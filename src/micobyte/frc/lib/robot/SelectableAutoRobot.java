@@ -1,14 +1,41 @@
 package micobyte.frc.lib.robot;
 
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.Supplier;
+
+import edu.wpi.first.networktables.EntryListenerFlags;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.command.Command;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+import micobyte.frc.lib.MBLibUtil;
 
 /**
- * A {@link CommandBasedRobot} with features for using a {@link SendableChooser} to select an autonomous mode
+ * A {@link CommandBasedRobot} with features for using a {@link SendableChooser} to select an autonomous mode.<br>
+ * Autonomous modes may be {@link #addAutoMode(String, Supplier) added as factories}, in which case the selected one is built in the background
+ * once the selection has stayed the same for a while in disabled mode, so that autonomous starts without building or looking anything up.
  */
 public abstract class SelectableAutoRobot extends CommandBasedRobot {
-	/** The {@link SendableChooser} chooser */
-	private final SendableChooser<Command> autoModeChooser;
+	/** The key the {@link SendableChooser chooser} is put on the {@link SmartDashboard} with */
+	public static final String AUTO_MODE_CHOOSER_KEY = "Autonomous Mode";
+	
+	/** The {@link SendableChooser} chooser, of the names of the autonomous modes */
+	private final SendableChooser<String> autoModeChooser;
+	/** The autonomous modes, by name, each of which is built at most once */
+	private final HashMap<String, FutureTask<Command>> autoModes;
+	
+	/** The selected autonomous mode, kept up to date by a NetworkTables listener, or {@code null} for none */
+	private volatile FutureTask<Command> selectedAutoMode;
+	/** The selected autonomous mode when disabled mode last ran */
+	private transient FutureTask<Command> lastSelectedAutoMode;
+	/** When the selected autonomous mode last changed, in seconds */
+	private transient double lastSelectionChangeTime;
+	/** The autonomous mode that was last warmed up */
+	private transient FutureTask<Command> warmedAutoMode;
 	
 	/**
 	 * Creates the robot, with the suggested name
@@ -21,10 +48,56 @@ public abstract class SelectableAutoRobot extends CommandBasedRobot {
 	 */
 	public SelectableAutoRobot(String name) { super(name); }
 	
-	{ autoModeChooser = new SendableChooser<Command>(); }
+	{
+		autoModeChooser = new SendableChooser<String>();
+		autoModes = new HashMap<String, FutureTask<Command>>();
+	}
 	
-	protected Command createAutoCommand() { return autoModeChooser.getSelected(); }
-	public void robotInit() { super.robotInit(); addAutoModes(); }
+	protected Command createAutoCommand() {
+		FutureTask<Command> selected = selectedAutoMode;
+		if(selected == null) return null;
+		
+		// Builds it now if it wasn't warmed up, waits for it if it is still being warmed up, and does nothing if it has been
+		selected.run();
+		
+		try {
+			return selected.get();
+		} catch(InterruptedException | ExecutionException e) {
+			MBLibUtil.logError("Failed to create autonomous mode", e);
+			return null;
+		}
+	}
+	
+	public void robotInit() {
+		super.robotInit();
+		addAutoModes();
+		
+		SmartDashboard.putData(AUTO_MODE_CHOOSER_KEY, autoModeChooser);
+		NetworkTableInstance.getDefault().getTable("SmartDashboard").getSubTable(AUTO_MODE_CHOOSER_KEY).getEntry("selected").addListener(
+				event -> selectedAutoMode = (event.value.isString() ? autoModes.get(event.value.getString()) : null),
+				EntryListenerFlags.kImmediate | EntryListenerFlags.kNew | EntryListenerFlags.kUpdate | EntryListenerFlags.kLocal);
+	}
+	
+	public void disabledPeriodic() {
+		super.disabledPeriodic();
+		
+		FutureTask<Command> selected = selectedAutoMode;
+		double time = Timer.getFPGATimestamp();
+		
+		if(selected != lastSelectedAutoMode) {
+			lastSelectedAutoMode = selected;
+			lastSelectionChangeTime = time;
+		} else if(selected != null && selected != warmedAutoMode && time - lastSelectionChangeTime >= getAutoWarmUpDelay()) {
+			warmedAutoMode = selected;
+			MBLibUtil.exec(selected, true);
+		}
+	}
+	
+	/**
+	 * How long the selected autonomous mode must stay the same in disabled mode before it is built in the background
+	 * @return The time, in seconds
+	 */
+	protected double getAutoWarmUpDelay() { return 1; }
 	
 	/**
 	 * Called after {@link #createOIAndSubsystems()} to add all the {@link #addAutoMode(String, Command) autonomous modes}
@@ -36,5 +109,15 @@ public abstract class SelectableAutoRobot extends CommandBasedRobot {
 	 * @param name The name for this mode
 	 * @param cmd The {@link Command}
 	 */
-	protected void addAutoMode(String name, Command cmd) { autoModeChooser.addObject(name, cmd); }
-}
\ No newline at end of file
+	protected void addAutoMode(String name, Command cmd) { addAutoMode(name, () -> cmd); }
+	
+	/**
+	 * Adds an option for an autonomous mode, whose {@link Command} is only built when it is selected, or when autonomous starts
+	 * @param name The name for this mode
+	 * @param factory The {@link Supplier} that builds the {@link Command}. It may be called on another thread.
+	 */
+	protected void addAutoMode(String name, Supplier<Command> factory) {
+		autoModes.put(name, new FutureTask<Command>(factory::get));
+		autoModeChooser.addObject(name, name);
+	}
+}
@@ -147,6 +147,14 @@ public abstract class AdvancedPIDSubsystemDrive extends PIDSubsystemDrive {
 	 */
 	public AdvancedPIDSubsystemDrive(double p, double i, double d, double period, RobotDriveBase drive) { super(SUGGESTED_NAME, p, i, d, period, drive);}
 	
+	/**
+	 * Sets the {@link edu.wpi.first.wpilibj.PIDController PID loop}'s setpoint to face a target seen in the past (such as in a vision frame),
+	 * {@link #getTargetHeading(double, double) compensated} for how far the robot has turned since. It should only be used if the PID loop's input is the {@link #getHeading() heading}.
+	 * @param angle The target's angle from the robot's heading, in degrees clockwise
+	 * @param time When the target was seen, such as a frame's {@link SubsystemVision.Result#getCaptureTime() capture time}, in seconds
+	 */
+	public void setTargetSetpoint(double angle, double time) { setSetpoint(getTargetHeading(angle, time)); }
+	
 	protected void usePIDOutput(double d) {
 		pidOutput = d;
 		isPIDNew = true;
@@ -0,0 +1,21 @@
+package micobyte.frc.lib.subsystem;
+
+import edu.wpi.first.wpilibj.command.Subsystem;
+
+import micobyte.frc.lib.command.MBScheduler;
+
+/**
+ * An interface to declare that a {@link Subsystem}'s {@link Subsystem#periodic() periodic()} method is thread-safe, and shares no state with other
+ * {@link Subsystem subsystems}, so that the {@link MBScheduler} may {@link MBScheduler#setParallelPeriodic(int) run it in parallel} with theirs.
+ */
+public interface IConcurrentSubsystem {
+	
+	/** An empty array of dependencies */
+	public static final Subsystem[] NO_DEPENDENCIES = new Subsystem[0];
+	
+	/**
+	 * Called once, when the {@link MBScheduler} plans how to run the {@link Subsystem#periodic() periodic()} methods.
+	 * @return The {@link Subsystem subsystems} whose {@link Subsystem#periodic() periodic()} methods must finish before this one's starts
+	 */
+	public default Subsystem[] getPeriodicDependencies() { return NO_DEPENDENCIES; }
+}
@@ -3,9 +3,11 @@ package micobyte.frc.lib.subsystem;
 import edu.wpi.first.wpilibj.GenericHID;
 import edu.wpi.first.wpilibj.RobotState;
 import edu.wpi.first.wpilibj.SpeedController;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.drive.*;
 import micobyte.frc.lib.CommonIDs;
 import micobyte.frc.lib.MBLibUtil;
+import micobyte.frc.lib.Metrics;
 
 /**
  * An interface to represent a {@link edu.wpi.first.wpilibj.command.Subsystem Subsystem} that drives a robot
@@ -30,8 +32,61 @@ public interface IDriveSubsystem {
 	/** @return Whether each of the four Joystick drive axes should be inverted */
 	public default boolean[] getInverts() { return new boolean[] { false, false, false, false }; }
 	
-	/** Update delegator method for the teleop versus autonomous periods */
+	/**
+	 * The history of the robot's pose, which {@link #updateDrive()} records the {@link #getPoseX() X position}, {@link #getPoseY() Y position}
+	 * and {@link #getHeading() heading} into each tick, so older measurements (such as vision targets) can be compensated for how the robot has moved since
+	 * @return The {@link PoseHistory}, or {@code null} not to keep one
+	 */
+	public default PoseHistory getPoseHistory() {
+		Odometry odometry = getOdometry();
+		return (odometry == null ? null : odometry.getHistory());
+	}
+	
+	/** @return The {@link Odometry} tracking the robot's pose, which the pose and its history come from by default, or {@code null} if there isn't any */
+	public default Odometry getOdometry() { return null; }
+	
+	/** @return The robot's heading, in degrees clockwise, which shouldn't wrap around (such as a {@link edu.wpi.first.wpilibj.interfaces.Gyro#getAngle() gyro's angle}) */
+	public default double getHeading() {
+		Odometry odometry = getOdometry();
+		return (odometry == null ? 0 : odometry.getHeading());
+	}
+	
+	/** @return The robot's X position, such as from its encoders */
+	public default double getPoseX() {
+		Odometry odometry = getOdometry();
+		return (odometry == null ? 0 : odometry.getX());
+	}
+	
+	/** @return The robot's Y position, such as from its encoders */
+	public default double getPoseY() {
+		Odometry odometry = getOdometry();
+		return (odometry == null ? 0 : odometry.getY());
+	}
+	
+	/**
+	 * Gets the robot's heading at a time, from its {@link #getPoseHistory() pose history}
+	 * @param time The time, as an {@link Timer#getFPGATimestamp() FPGA timestamp}, in seconds
+	 * @return The heading, in degrees, or the current heading if there is no history
+	 */
+	public default double getHeadingAt(double time) {
+		PoseHistory history = getPoseHistory();
+		return (history == null || history.size() == 0 ? getHeading() : history.getHeadingAt(time));
+	}
+	
+	/**
+	 * Works out the heading that faces a target seen at an angle from the robot in the past, such as in a vision frame, by adding the angle
+	 * to the robot's {@link #getHeadingAt(double) heading at the time}, so turning to it doesn't overshoot by however far the robot has turned since
+	 * @param angle The target's angle from the robot's heading, in degrees clockwise
+	 * @param time When the target was seen, such as a frame's {@link SubsystemVision.Result#getCaptureTime() capture time}, in seconds
+	 * @return The heading that faces the target, in degrees
+	 */
+	public default double getTargetHeading(double angle, double time) { return getHeadingAt(time) + angle; }
+	
+	/** Update delegator method for the teleop versus autonomous periods, which also records the robot's {@link #getPoseHistory() pose history} (unless {@link #getOdometry() odometry} records it) */
 	public default void updateDrive() {
+		PoseHistory history = getPoseHistory();
+		if(history != null && getOdometry() == null) history.record(Timer.getFPGATimestamp(), getPoseX(), getPoseY(), getHeading());
+		
 		double[] vals;
 		if(RobotState.isOperatorControl()) vals = driveTeleop();
 		else if(RobotState.isAutonomous()) vals = driveAuto();
@@ -77,7 +132,7 @@ public interface IDriveSubsystem {
 	public default void drive(double[] vals) { drive(vals[0], vals[1], vals[2], vals[3]); }
 	
 	/**
-	 * Drives the robot, based on the given stick-inputs
+	 * Drives the robot, based on the given stick-inputs, and counts it in {@link Metrics#DRIVE_OUTPUTS}, and in {@link Metrics#DRIVE_SATURATED} if any input is at or beyond full scale
 	 * @param lX The left X value
 	 * @param lY The left Y value
 	 * @param rX The right X value
@@ -86,6 +141,9 @@ public interface IDriveSubsystem {
 	public default void drive(double lX, double lY, double rX, double rY) {
 		RobotDriveBase drive = getDrive();
 		
+		Metrics.DRIVE_OUTPUTS.increment();
+		if(Math.abs(lX) >= 1 || Math.abs(lY) >= 1 || Math.abs(rX) >= 1 || Math.abs(rY) >= 1) Metrics.DRIVE_SATURATED.increment();
+		
 		boolean[] inverts = getInverts();
 		if(inverts[0]) lX = -lX;
 		if(inverts[1]) lY = -lY;
@@ -0,0 +1,245 @@
+package micobyte.frc.lib.subsystem;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.wpi.first.wpilibj.Encoder;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.drive.DifferentialDrive;
+import edu.wpi.first.wpilibj.drive.KilloughDrive;
+import edu.wpi.first.wpilibj.drive.MecanumDrive;
+import edu.wpi.first.wpilibj.drive.RobotDriveBase;
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+
+import micobyte.frc.lib.Metrics;
+
+/**
+ * Tracks the robot's pose (its position, and heading) by integrating its wheels' {@link Encoder encoders} and a {@link Gyro gyro}, on a {@link Notifier}'s thread,
+ * at a much higher rate than the main loop (200 Hz by default), so it loses less to the robot turning between samples.
+ * The heading comes from the gyro, and each step's movement from the encoders, which is turned by the heading halfway through the step.<br>
+ * The kinematics are picked by the number of encoders, in the same order as the controllers given to {@link IDriveSubsystem#createDrive(edu.wpi.first.wpilibj.SpeedController[]) createDrive}:
+ * 2 for a differential drive (left, right), 3 for a Killough drive (left, right, back) or 4 for a mecanum drive (front left, rear left, front right, rear right).
+ * Each encoder should count up when its wheel is driven forward by a positive output (so the right side's encoders are usually reversed).<br>
+ * The position is in the encoders' units, with X forward and Y to the right of where the robot was when it started (or was {@link #reset(double, double) reset}),
+ * and the heading is the gyro's angle, in degrees clockwise. The pose is published like a seqlock, so {@link #getPose(double[]) reading} it takes no locks
+ * and allocates nothing, from any thread, and it is recorded into a {@link PoseHistory} each step.
+ */
+public class Odometry {
+	/** The default time between steps, in seconds */
+	public static final double DEFAULT_PERIOD = 0.005;
+	/** The default number of steps kept in the {@link #getHistory() history}, which is a second's worth at the {@link #DEFAULT_PERIOD default period} */
+	public static final int DEFAULT_HISTORY = 200;
+	
+	/** The angles WPILib's {@link KilloughDrive} puts the left, right and back wheels at, in degrees */
+	private static final double[] KILLOUGH_ANGLES = { 60, 120, 270 };
+	
+	/** Where each value is in the published pose */
+	private static final int X = 0, Y = 1, HEADING = 2, TIME = 3;
+	
+	/** The encoders */
+	private final Encoder[] encoders;
+	/** The gyro */
+	private final Gyro gyro;
+	/** The history */
+	private final PoseHistory history;
+	/** The {@link Notifier} that steps it */
+	private final Notifier notifier;
+	/** The time between steps, in seconds */
+	private final double period;
+	
+	/** For a Killough drive, the matrix that turns the wheels' distances into the distance moved forward and to the right, or {@code null} otherwise */
+	private final double[][] killough;
+	
+	/** Each encoder's distance at the last step */
+	private final double[] lastDistances;
+	/** The heading at the last step, in degrees */
+	private double lastHeading;
+	/** The position */
+	private double x, y;
+	/** Whether it has taken a step yet */
+	private boolean started;
+	
+	/** The pose, as the {@link Double#doubleToRawLongBits(double) bits} of the X position, Y position, heading and time */
+	private final AtomicLongArray pose = new AtomicLongArray(4);
+	/** The pose's sequence number, which is odd whilst it is being written */
+	private final AtomicLong sequence = new AtomicLong();
+	
+	/** How long each step takes, in seconds */
+	private final Metrics.Histogram stepTime = Metrics.histogram("odometry.step");
+	
+	/**
+	 * Creates the odometry, and starts it, at the {@link #DEFAULT_PERIOD default period}, with the {@link #DEFAULT_HISTORY default history}
+	 * @param drive The {@link RobotDriveBase drive system}, which must match the number of encoders
+	 * @param gyro The gyro
+	 * @param encoders The encoders, in the same order as the controllers given to {@link IDriveSubsystem#createDrive(edu.wpi.first.wpilibj.SpeedController[]) createDrive}
+	 * @throws IllegalArgumentException If the number of encoders doesn't match the {@link RobotDriveBase drive system}
+	 */
+	public Odometry(RobotDriveBase drive, Gyro gyro, Encoder... encoders) { this(drive, DEFAULT_PERIOD, DEFAULT_HISTORY, gyro, encoders); }
+	
+	/**
+	 * Creates the odometry, and starts it
+	 * @param drive The {@link RobotDriveBase drive system}, which must match the number of encoders
+	 * @param period The time between steps, in seconds
+	 * @param historySize The number of steps kept in the {@link #getHistory() history}
+	 * @param gyro The gyro
+	 * @param encoders The encoders, in the same order as the controllers given to {@link IDriveSubsystem#createDrive(edu.wpi.first.wpilibj.SpeedController[]) createDrive}
+	 * @throws IllegalArgumentException If the number of encoders doesn't match the {@link RobotDriveBase drive system}
+	 */
+	public Odometry(RobotDriveBase drive, double period, int historySize, Gyro gyro, Encoder... encoders) {
+		if(drive instanceof DifferentialDrive && encoders.length != 2 || drive instanceof KilloughDrive && encoders.length != 3 || drive instanceof MecanumDrive && encoders.length != 4) {
+			throw new IllegalArgumentException("Must be 2 (Differential), 3 (Killough), or 4 (Mecanum) encoders, to match the drive system");
+		}
+		
+		if(encoders.length < 2 || encoders.length > 4) throw new IllegalArgumentException("Must be 2 (Differential), 3 (Killough), or 4 (Mecanum) encoders");
+		if(!(period > 0)) throw new IllegalArgumentException("Odometry period must be positive");
+		
+		this.encoders = encoders.clone();
+		this.gyro = gyro;
+		this.period = period;
+		
+		history = new PoseHistory(historySize);
+		lastDistances = new double[encoders.length];
+		killough = (encoders.length == 3 ? killoughMatrix() : null);
+		
+		notifier = new Notifier(this::step);
+		notifier.startPeriodic(period);
+	}
+	
+	/**
+	 * Works out the matrix that turns a Killough drive's wheels' distances into the distance moved forward and to the right, by inverting the matrix that turns
+	 * the distance moved to the right, forward and turned into each wheel's distance (as {@link KilloughDrive#driveCartesian(double, double, double) driveCartesian} does)
+	 * @return The first two rows of the inverse matrix: to the right, then forward
+	 */
+	private static double[][] killoughMatrix() {
+		double[][] m = new double[3][];
+		for(int i = 0; i < 3; i++) {
+			double angle = Math.toRadians(KILLOUGH_ANGLES[i]);
+			m[i] = new double[] { Math.cos(angle), Math.sin(angle), 1 };
+		}
+		
+		double det = m[0][0] * (m[1][1] * m[2][2] - m[1][2] * m[2][1]) - m[0][1] * (m[1][0] * m[2][2] - m[1][2] * m[2][0]) + m[0][2] * (m[1][0] * m[2][1] - m[1][1] * m[2][0]);
+		
+		return new double[][] {
+			{ (m[1][1] * m[2][2] - m[1][2] * m[2][1]) / det, (m[0][2] * m[2][1] - m[0][1] * m[2][2]) / det, (m[0][1] * m[1][2] - m[0][2] * m[1][1]) / det },
+			{ (m[1][2] * m[2][0] - m[1][0] * m[2][2]) / det, (m[0][0] * m[2][2] - m[0][2] * m[2][0]) / det, (m[0][2] * m[1][0] - m[0][0] * m[1][2]) / det }
+		};
+	}
+	
+	/**
+	 * Takes a step, which is called periodically by the {@link Notifier}
+	 */
+	private synchronized void step() {
+		long start = System.nanoTime();
+		double time = Timer.getFPGATimestamp(), heading = gyro.getAngle();
+		
+		double forward = 0, right = 0;
+		for(int i = 0; i < encoders.length; i++) {
+			double distance = encoders[i].getDistance(), delta = distance - lastDistances[i];
+			
+			lastDistances[i] = distance;
+			if(!started) continue;
+			
+			switch(encoders.length) {
+			case 2: forward += delta / 2; break;
+			case 3:
+				right += killough[0][i] * delta;
+				forward += killough[1][i] * delta;
+				break;
+			case 4:
+				forward += delta / 4;
+				right += ((i == 0 || i == 3) ? delta : -delta) / 4;
+				break;
+			}
+		}
+		
+		if(!started) lastHeading = heading;
+		
+		double angle = Math.toRadians((lastHeading + heading) / 2), cos = Math.cos(angle), sin = Math.sin(angle);
+		x += forward * cos - right * sin;
+		y += forward * sin + right * cos;
+		
+		lastHeading = heading;
+		started = true;
+		
+		publish(time, heading);
+		stepTime.recordSince(start);
+	}
+	
+	/**
+	 * Publishes the pose, and records it into the history
+	 * @param time The time, in seconds
+	 * @param heading The heading, in degrees
+	 */
+	private void publish(double time, double heading) {
+		long s = sequence.get();
+		
+		sequence.set(s + 1);
+		pose.lazySet(X, Double.doubleToRawLongBits(x));
+		pose.lazySet(Y, Double.doubleToRawLongBits(y));
+		pose.lazySet(HEADING, Double.doubleToRawLongBits(heading));
+		pose.lazySet(TIME, Double.doubleToRawLongBits(time));
+		sequence.set(s + 2);
+		
+		history.record(time, x, y, heading);
+	}
+	
+	/**
+	 * Copies the latest pose, without locking or allocating
+	 * @param out Filled with the X position, Y position and heading
+	 * @return When the pose was measured, as an {@link Timer#getFPGATimestamp() FPGA timestamp}, in seconds, or 0 if it hasn't been yet
+	 */
+	public double getPose(double[] out) {
+		while(true) {
+			long before = sequence.get();
+			
+			if((before & 1) != 0) {
+				Thread.yield();
+				continue;
+			}
+			
+			double x = Double.longBitsToDouble(pose.get(X)), y = Double.longBitsToDouble(pose.get(Y)), heading = Double.longBitsToDouble(pose.get(HEADING));
+			double time = Double.longBitsToDouble(pose.get(TIME));
+			
+			if(sequence.get() == before) {
+				out[0] = x;
+				out[1] = y;
+				out[2] = heading;
+				return time;
+			}
+		}
+	}
+	
+	/** @return The latest X position */
+	public double getX() { return Double.longBitsToDouble(pose.get(X)); }
+	
+	/** @return The latest Y position */
+	public double getY() { return Double.longBitsToDouble(pose.get(Y)); }
+	
+	/** @return The latest heading, in degrees clockwise */
+	public double getHeading() { return Double.longBitsToDouble(pose.get(HEADING)); }
+	
+	/** @return The history of the pose, one sample per step */
+	public PoseHistory getHistory() { return history; }
+	
+	/** @return The time between steps, in seconds */
+	public double getPeriod() { return period; }
+	
+	/**
+	 * Moves the robot's position (such as to where it starts on the field), which also clears the history. The heading is still the gyro's.
+	 * @param x The X position
+	 * @param y The Y position
+	 */
+	public synchronized void reset(double x, double y) {
+		this.x = x;
+		this.y = y;
+		
+		history.clear();
+		publish(Timer.getFPGATimestamp(), (started ? lastHeading : gyro.getAngle()));
+	}
+	
+	/**
+	 * Stops it, which can't be undone
+	 */
+	public void stop() { notifier.stop(); }
+}
@@ -2,10 +2,15 @@ package micobyte.frc.lib.subsystem;
 
 import java.util.Arrays;
 
+import edu.wpi.first.wpilibj.Encoder;
+import edu.wpi.first.wpilibj.PIDController;
 import edu.wpi.first.wpilibj.SpeedController;
 import edu.wpi.first.wpilibj.SpeedControllerGroup;
 import edu.wpi.first.wpilibj.command.PIDSubsystem;
 import edu.wpi.first.wpilibj.drive.RobotDriveBase;
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+
+import micobyte.frc.lib.io.Tunable;
 
 /**
  * An {@link PIDSubsystem} that provides {@link IDriveSubsystem drive functionality}
@@ -15,6 +20,9 @@ public abstract class PIDSubsystemDrive extends PIDSubsystem implements IDriveSu
 	/** The Robot's {@link RobotDriveBase drive system} */
 	protected final RobotDriveBase drive;
 	
+	/** The robot's {@link Odometry odometry}, or {@code null} if it hasn't been {@link #startOdometry(Gyro, Encoder...) started} */
+	private Odometry odometry;
+	
 	/**
 	 * Creates a {@link edu.wpi.first.wpilibj.drive.DifferentialDrive Differential drive}-based {@link PIDSubsystemDrive}, for more than one motor on each side
 	 * @param p The proportional coefficient
@@ -132,6 +140,33 @@ public abstract class PIDSubsystemDrive extends PIDSubsystem implements IDriveSu
 	 */
 	public PIDSubsystemDrive(double p, double i, double d, double period, RobotDriveBase drive) { super(SUGGESTED_NAME, p, i, d, period); this.drive = drive; }
 	
+	/**
+	 * Makes the {@link PIDController PID controller}'s gains {@link Tunable tunable}, as "(name) P", "(name) I", "(name) D" and "(name) F",
+	 * which start at the gains they were last tuned to, or the current ones. New gains are set between the {@link PIDController PID controller}'s calculations.
+	 */
+	public void makeGainsTunable() {
+		PIDController pid = getPIDController();
+		Tunable p = Tunable.number(getName() + " P", pid.getP()), i = Tunable.number(getName() + " I", pid.getI()),
+			d = Tunable.number(getName() + " D", pid.getD()), f = Tunable.number(getName() + " F", pid.getF());
+		
+		Runnable apply = () -> pid.setPID(p.get(), i.get(), d.get(), f.get());
+		Tunable.onChange(apply, p, i, d, f);
+		apply.run();
+	}
+	
+	/**
+	 * Starts tracking the robot's pose with {@link Odometry}, which the {@link #getHeading() heading}, {@link #getPoseX() position} and {@link #getPoseHistory() pose history} then come from
+	 * @param gyro The gyro
+	 * @param encoders The wheels' encoders, in the same order as the {@link SpeedController controllers}
+	 * @return The {@link Odometry}
+	 * @throws IllegalArgumentException If the number of encoders doesn't match the {@link RobotDriveBase drive system}
+	 */
+	public Odometry startOdometry(Gyro gyro, Encoder... encoders) {
+		if(odometry != null) odometry.stop();
+		return odometry = new Odometry(drive, gyro, encoders);
+	}
+	
+	public Odometry getOdometry() { return odometry; }
 	public RobotDriveBase getDrive() { return drive; }
 	public void periodic() { updateDrive(); }
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+package micobyte.frc.lib.subsystem;
+
+/**
+ * A time-indexed history of the robot's pose (its position, and heading), kept in a fixed-size ring of primitive arrays, so recording a pose
+ * allocates nothing, and looking one up is a binary search, which takes O(log n) time and allocates nothing either.<br>
+ * It lets code that works with old measurements, such as aiming at a vision target found in a frame grabbed 100 ms ago, find out
+ * where the robot was when the measurement was taken. Poses between samples are interpolated linearly.
+ * An {@link IDriveSubsystem} {@link IDriveSubsystem#getPoseHistory() with a pose history} records its pose into it each tick.
+ */
+public class PoseHistory {
+	/** The time of each sample, in seconds */
+	private final double[] times;
+	/** The X position of each sample */
+	private final double[] xs;
+	/** The Y position of each sample */
+	private final double[] ys;
+	/** The heading of each sample, in degrees */
+	private final double[] headings;
+	
+	/** The index the next sample is written to */
+	private int next;
+	/** The number of samples */
+	private int size;
+	
+	/**
+	 * Creates the history
+	 * @param capacity How many samples to keep, such as 50 for a second's worth at the main loop's rate
+	 */
+	public PoseHistory(int capacity) {
+		if(capacity < 1) throw new IllegalArgumentException("Pose history capacity must be at least 1");
+		
+		times = new double[capacity];
+		xs = new double[capacity];
+		ys = new double[capacity];
+		headings = new double[capacity];
+	}
+	
+	/**
+	 * Records a sample, replacing the oldest one if the history is full
+	 * @param time The time, in seconds, such as an {@link edu.wpi.first.wpilibj.Timer#getFPGATimestamp() FPGA timestamp}.
+	 * Samples older than the latest one are ignored, and a sample at the same time replaces it.
+	 * @param x The X position
+	 * @param y The Y position
+	 * @param heading The heading, in degrees, which shouldn't wrap around (such as a {@link edu.wpi.first.wpilibj.interfaces.Gyro#getAngle() gyro's angle})
+	 */
+	public synchronized void record(double time, double x, double y, double heading) {
+		if(size > 0) {
+			double latest = times[index(size - 1)];
+			
+			if(time < latest) return;
+			if(time == latest) {
+				next = index(size - 1);
+				size--;
+			}
+		}
+		
+		times[next] = time;
+		xs[next] = x;
+		ys[next] = y;
+		headings[next] = heading;
+		
+		next = (next + 1) % times.length;
+		if(size < times.length) size++;
+	}
+	
+	/**
+	 * @param i The sample, from 0 for the oldest
+	 * @return The sample's index in the arrays
+	 */
+	private int index(int i) { return (next - size + i + times.length) % times.length; }
+	
+	/**
+	 * Finds the last sample at or before a time
+	 * @param time The time, in seconds
+	 * @return The sample, from 0 for the oldest, or -1 if every sample is after the time
+	 */
+	private int search(double time) {
+		int low = 0, high = size - 1;
+		
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			
+			if(times[index(mid)] <= time) low = mid + 1;
+			else high = mid - 1;
+		}
+		
+		return high;
+	}
+	
+	/**
+	 * Interpolates a value at a time
+	 * @param values The values
+	 * @param time The time, in seconds
+	 * @return The value, or {@link Double#NaN NaN} if there are no samples
+	 */
+	private double interpolate(double[] values, double time) {
+		if(size == 0) return Double.NaN;
+		
+		int i = search(time);
+		if(i < 0) return values[index(0)];
+		if(i == size - 1) return values[index(i)];
+		
+		int a = index(i), b = index(i + 1);
+		return values[a] + (values[b] - values[a]) * (time - times[a]) / (times[b] - times[a]);
+	}
+	
+	/**
+	 * Gets the X position at a time, interpolated between the samples either side of it (or the oldest or latest sample, if it is outside the history)
+	 * @param time The time, in seconds
+	 * @return The X position, or {@link Double#NaN NaN} if there are no samples
+	 */
+	public synchronized double getXAt(double time) { return interpolate(xs, time); }
+	
+	/**
+	 * Gets the Y position at a time, interpolated between the samples either side of it (or the oldest or latest sample, if it is outside the history)
+	 * @param time The time, in seconds
+	 * @return The Y position, or {@link Double#NaN NaN} if there are no samples
+	 */
+	public synchronized double getYAt(double time) { return interpolate(ys, time); }
+	
+	/**
+	 * Gets the heading at a time, interpolated between the samples either side of it (or the oldest or latest sample, if it is outside the history)
+	 * @param time The time, in seconds
+	 * @return The heading, in degrees, or {@link Double#NaN NaN} if there are no samples
+	 */
+	public synchronized double getHeadingAt(double time) { return interpolate(headings, time); }
+	
+	/**
+	 * Gets the whole pose at a time, interpolated between the samples either side of it (or the oldest or latest sample, if it is outside the history)
+	 * @param time The time, in seconds
+	 * @param pose Filled with the X position, Y position and heading
+	 * @return Whether there are any samples, or false if the pose wasn't filled
+	 */
+	public synchronized boolean getPoseAt(double time, double[] pose) {
+		if(size == 0) return false;
+		
+		pose[0] = interpolate(xs, time);
+		pose[1] = interpolate(ys, time);
+		pose[2] = interpolate(headings, time);
+		return true;
+	}
+	
+	/** @return The number of samples */
+	public synchronized int size() { return size; }
+	
+	/** @return The time of the oldest sample, in seconds, or {@link Double#NaN NaN} if there are none */
+	public synchronized double getOldestTime() { return (size == 0 ? Double.NaN : times[index(0)]); }
+	
+	/** @return The time of the latest sample, in seconds, or {@link Double#NaN NaN} if there are none */
+	public synchronized double getLatestTime() { return (size == 0 ? Double.NaN : times[index(size - 1)]); }
+	
+	/**
+	 * Removes every sample
+	 */
+	public synchronized void clear() {
+		next = 0;
+		size = 0;
+	}
+}
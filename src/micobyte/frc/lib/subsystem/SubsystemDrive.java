@@ -2,10 +2,12 @@ package micobyte.frc.lib.subsystem;
 
 import java.util.Arrays;
 
+import edu.wpi.first.wpilibj.Encoder;
 import edu.wpi.first.wpilibj.SpeedController;
 import edu.wpi.first.wpilibj.SpeedControllerGroup;
 import edu.wpi.first.wpilibj.command.Subsystem;
 import edu.wpi.first.wpilibj.drive.RobotDriveBase;
+import edu.wpi.first.wpilibj.interfaces.Gyro;
 
 /**
  * An {@link Subsystem} that provides {@link IDriveSubsystem drive functionality}
@@ -15,6 +17,9 @@ public abstract class SubsystemDrive extends Subsystem implements IDriveSubsyste
 	/** The Robot's {@link RobotDriveBase drive system} */
 	protected final RobotDriveBase drive;
 	
+	/** The robot's {@link Odometry odometry}, or {@code null} if it hasn't been {@link #startOdometry(Gyro, Encoder...) started} */
+	private Odometry odometry;
+	
 	/**
 	 * Creates a {@link edu.wpi.first.wpilibj.drive.DifferentialDrive Differential drive}-based {@link SubsystemDrive}, for more than one motor on each side
 	 * @param left The left-side {@link SpeedController controllers}
@@ -68,6 +73,19 @@ public abstract class SubsystemDrive extends Subsystem implements IDriveSubsyste
 	 */
 	public SubsystemDrive(String name, RobotDriveBase drive) { super(name); this.drive = drive; }
 	
+	/**
+	 * Starts tracking the robot's pose with {@link Odometry}, which the {@link #getHeading() heading}, {@link #getPoseX() position} and {@link #getPoseHistory() pose history} then come from
+	 * @param gyro The gyro
+	 * @param encoders The wheels' encoders, in the same order as the {@link SpeedController controllers}
+	 * @return The {@link Odometry}
+	 * @throws IllegalArgumentException If the number of encoders doesn't match the {@link RobotDriveBase drive system}
+	 */
+	public Odometry startOdometry(Gyro gyro, Encoder... encoders) {
+		if(odometry != null) odometry.stop();
+		return odometry = new Odometry(drive, gyro, encoders);
+	}
+	
+	public Odometry getOdometry() { return odometry; }
 	public RobotDriveBase getDrive() { return drive; }
 	public void periodic() { updateDrive(); }
 }
\ No newline at end of file
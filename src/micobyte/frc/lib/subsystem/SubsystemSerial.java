@@ -3,19 +3,30 @@ package micobyte.frc.lib.subsystem;
 import edu.wpi.first.wpilibj.SerialPort;
 import edu.wpi.first.wpilibj.SerialPort.*;
 import edu.wpi.first.wpilibj.command.Subsystem;
+import edu.wpi.first.wpilibj.hal.SerialPortJNI;
+
+import micobyte.frc.lib.Metrics;
+
+import micobyte.frc.lib.io.InputRecorder;
 
 /**
- * A {@link Subsystem} to connect to something via a Serial port
+ * A {@link Subsystem} to connect to something via a Serial port. The lines it receives are {@link InputRecorder recorded}.<br>
+ * Everything waiting on the port is read at once into a reused buffer, and each line is built up in a reused {@link StringBuilder}, so receiving
+ * a line allocates nothing, unless it is handed to {@link #onLineRecieved(String)} as a {@link String}.
  */
 public abstract class SubsystemSerial extends Subsystem {
 	/** The {@link SerialPort port} */
 	protected SerialPort connection;
+	/** The port */
+	private final Port port;
 	
 	/**
 	 * The current input line from the port<br>
 	 * <b>This is an internal field. It should not be used by the end user.</b>
 	 */
-	protected String serialLine = "";
+	protected final StringBuilder serialLine = new StringBuilder();
+	/** The bytes read from the port */
+	private byte[] readBuffer = new byte[256];
 	
 	/**
 	 * Creates the subsystem, assuming 8N1, no flow control
@@ -50,27 +61,50 @@ public abstract class SubsystemSerial extends Subsystem {
 	public SubsystemSerial(String name, int baud, Port port, int dataBits, Parity par, StopBits stop, FlowControl flow) {
 		super(name);
 		
+		this.port = port;
 		connection = new SerialPort(baud, port, dataBits, par, stop);
 		connection.setFlowControl(flow);
 	}
 	
 	public void periodic() {
-		while(connection.getBytesReceived() > 0) {
-			char ch = (char)connection.read(1)[0];
+		int count;
+		while((count = connection.getBytesReceived()) > 0) {
+			if(readBuffer.length < count) readBuffer = new byte[Math.max(count, readBuffer.length * 2)];
 			
-			if(ch == 10 || ch == 13) {
-				if(serialLine.length() > 0) onLineRecieved(serialLine);
+			// SerialPort.read() allocates an array for every call, so the port is read into the buffer directly
+			count = SerialPortJNI.serialRead((byte)port.value, readBuffer, count);
+			if(count <= 0) return;
+			
+			Metrics.SERIAL_BYTES.add(count);
+			for(int i = 0; i < count; i++) {
+				char ch = (char)(readBuffer[i] & 0xFF);
 				
-				serialLine = "";
-			} else serialLine += ch;
+				if(ch == 10 || ch == 13) {
+					if(serialLine.length() > 0) {
+						Metrics.SERIAL_LINES.increment();
+						InputRecorder.recordSerialLine(port.value, serialLine);
+						onLineRecieved(serialLine);
+					}
+					
+					serialLine.setLength(0);
+				} else serialLine.append(ch);
+			}
 		}
 	}
 	
 	/**
-	 * Called when a line of serial data is recieved
+	 * Called when a line of serial data is recieved, with the line itself, which is reused for the next line, so it must not be kept
+	 * (such as when it is {@link micobyte.frc.lib.vision.TargetStore#decode(CharSequence) decoded} straight away).
+	 * By default, it is copied into a {@link String} and passed to {@link #onLineRecieved(String)}.
+	 * @param line The line
+	 */
+	public void onLineRecieved(CharSequence line) { onLineRecieved(line.toString()); }
+	
+	/**
+	 * Called when a line of serial data is recieved, unless {@link #onLineRecieved(CharSequence)} is overridden
 	 * @param line The line
 	 */
-	public abstract void onLineRecieved(String line);
+	public void onLineRecieved(String line) {}
 	
 	/**
 	 * Sends the given string
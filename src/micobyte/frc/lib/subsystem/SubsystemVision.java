@@ -0,0 +1,251 @@
+package micobyte.frc.lib.subsystem;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import org.opencv.core.Mat;
+
+import edu.wpi.cscore.CvSink;
+import edu.wpi.cscore.VideoSource;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.command.Subsystem;
+import edu.wpi.first.wpilibj.vision.VisionPipeline;
+
+import micobyte.frc.lib.MBLibUtil;
+import micobyte.frc.lib.Metrics;
+
+/**
+ * A {@link Subsystem} that runs a {@link VisionPipeline} on a camera's frames, like a {@link edu.wpi.first.wpilibj.vision.VisionThread VisionThread},
+ * but with frames grabbed from the {@link CvSink} on one thread, and processed on another.<br>
+ * The frames go round a ring of three {@link Mat Mats} (one being grabbed, one waiting, and one being processed), so the images are pooled, rather than
+ * allocated per frame. Only each frame's {@link Result} is a new object.
+ * If a frame is grabbed before the last one has started being processed, the last one is dropped, so the pipeline always processes the latest frame.<br>
+ * Each frame's {@link Result result} is read from the pipeline (like a {@link edu.wpi.first.wpilibj.vision.VisionRunner.Listener VisionRunner.Listener}
+ * would), and handed to the command loop through a lock-free slot, along with when the frame was grabbed, so it can be compensated for latency.
+ * @param <P> The type of the pipeline
+ * @param <R> The type of the pipeline's results
+ */
+public class SubsystemVision<P extends VisionPipeline, R> extends Subsystem {
+	/** The number of frames in the ring */
+	private static final int RING_SIZE = 3;
+	
+	/**
+	 * A vision pipeline's result for a frame
+	 * @param <R> The type of the result
+	 */
+	public static final class Result<R> {
+		/** The result */
+		private final R value;
+		/** When the frame was grabbed, in seconds */
+		private final double captureTime;
+		/** The frame's number */
+		private final long frameNumber;
+		
+		private Result(R value, double captureTime, long frameNumber) { this.value = value; this.captureTime = captureTime; this.frameNumber = frameNumber; }
+		
+		/** @return The result */
+		public R getValue() { return value; }
+		
+		/** @return When the frame was grabbed, as an {@link Timer#getFPGATimestamp() FPGA timestamp}, in seconds */
+		public double getCaptureTime() { return captureTime; }
+		
+		/** @return How long ago the frame was grabbed, in seconds */
+		public double getAge() { return Timer.getFPGATimestamp() - captureTime; }
+		
+		/** @return The frame's number, counting every frame grabbed (including the ones dropped) from 0 */
+		public long getFrameNumber() { return frameNumber; }
+	}
+	
+	/**
+	 * A frame in the ring
+	 */
+	private static final class Frame {
+		/** The image */
+		private final Mat mat = new Mat();
+		/** When it was grabbed, in seconds */
+		private double time;
+		/** Its number */
+		private long number;
+	}
+	
+	/** The sink frames are grabbed from */
+	private final CvSink sink;
+	/** The pipeline */
+	private final P pipeline;
+	/** Reads the result from the pipeline, after it has processed a frame */
+	private final Function<? super P, ? extends R> resultReader;
+	
+	/** The frames that aren't in use */
+	private final ArrayBlockingQueue<Frame> free = new ArrayBlockingQueue<Frame>(RING_SIZE);
+	/** The latest frame grabbed, if it hasn't started being processed */
+	private final ArrayBlockingQueue<Frame> latest = new ArrayBlockingQueue<Frame>(1);
+	/** The latest result */
+	private final AtomicReference<Result<R>> result = new AtomicReference<Result<R>>();
+	
+	/** The number of frames grabbed */
+	private final Metrics.Counter framesGrabbed;
+	/** The number of frames dropped */
+	private final Metrics.Counter framesDropped;
+	/** How long the pipeline takes to process each frame, in seconds */
+	private final Metrics.Histogram processTime;
+	/** How long after each frame was grabbed its result was ready, in seconds */
+	private final Metrics.Histogram latency;
+	
+	/** The threads the frames are grabbed and processed on */
+	private final Thread grabber, processor;
+	/** Whether the threads should keep running */
+	private volatile boolean running = true;
+	/** Whether frames should be grabbed */
+	private volatile boolean enabled = true;
+	
+	/**
+	 * Creates the subsystem, and starts grabbing and processing frames
+	 * @param name The name of the subsystem
+	 * @param camera The camera
+	 * @param pipeline The pipeline
+	 * @param resultReader Reads the result from the pipeline, on the processing thread, after it has processed a frame (such as by copying its outputs)
+	 */
+	public SubsystemVision(String name, VideoSource camera, P pipeline, Function<? super P, ? extends R> resultReader) {
+		super(name);
+		
+		this.pipeline = pipeline;
+		this.resultReader = resultReader;
+		
+		sink = new CvSink("MBLib vision: " + name);
+		sink.setSource(camera);
+		
+		framesGrabbed = Metrics.counter("vision." + name + ".frames");
+		framesDropped = Metrics.counter("vision." + name + ".dropped");
+		processTime = Metrics.histogram("vision." + name + ".process");
+		latency = Metrics.histogram("vision." + name + ".latency");
+		
+		for(int i = 0; i < RING_SIZE; i++) free.add(new Frame());
+		
+		grabber = new Thread(this::runGrabber, "MBLib vision grabber: " + name);
+		processor = new Thread(this::runProcessor, "MBLib vision processor: " + name);
+		
+		grabber.setDaemon(true);
+		processor.setDaemon(true);
+		grabber.start();
+		processor.start();
+	}
+	
+	/**
+	 * Runs the grabbing thread
+	 */
+	private void runGrabber() {
+		Frame frame = free.poll();
+		long number = 0;
+		String lastError = null;
+		
+		try {
+			while(running) {
+				if(!enabled) {
+					// Grabbing a frame enables the sink again, so nothing is grabbed until this is enabled
+					sink.setEnabled(false);
+					while(!enabled && running) LockSupport.park(this);
+					
+					sink.setEnabled(true);
+					continue;
+				}
+				
+				if(sink.grabFrame(frame.mat) == 0) {
+					String error = sink.getError();
+					if(!error.equals(lastError)) MBLibUtil.log("Vision " + getName() + " couldn't grab a frame: " + error);
+					
+					lastError = error;
+					continue;
+				}
+				
+				frame.time = Timer.getFPGATimestamp();
+				frame.number = number++;
+				framesGrabbed.increment();
+				lastError = null;
+				
+				Frame dropped = latest.poll();
+				if(dropped != null) {
+					framesDropped.increment();
+					free.add(dropped);
+				}
+				
+				latest.add(frame);
+				frame = free.take();
+			}
+		} catch(InterruptedException e) {}
+	}
+	
+	/**
+	 * Runs the processing thread
+	 */
+	private void runProcessor() {
+		try {
+			while(running) {
+				Frame frame = latest.take();
+				long start = System.nanoTime();
+				
+				try {
+					pipeline.process(frame.mat);
+					result.set(new Result<R>(resultReader.apply(pipeline), frame.time, frame.number));
+					
+					processTime.recordSince(start);
+					latency.record(Timer.getFPGATimestamp() - frame.time);
+				} catch(RuntimeException e) {
+					MBLibUtil.logError("Error whilst processing vision " + getName(), e);
+				}
+				
+				free.add(frame);
+			}
+		} catch(InterruptedException e) {}
+	}
+	
+	/** @return The pipeline */
+	public P getPipeline() { return pipeline; }
+	
+	/** @return The sink frames are grabbed from */
+	public CvSink getSink() { return sink; }
+	
+	/** @return The latest result, or {@code null} if no frame has been processed yet */
+	public Result<R> getLatestResult() { return result.get(); }
+	
+	/**
+	 * Gets the latest result, if it isn't too old
+	 * @param maxAge How long ago its frame can have been grabbed, in seconds
+	 * @return The latest result, or {@code null} if there isn't one that new
+	 */
+	public Result<R> getLatestResult(double maxAge) {
+		Result<R> latest = result.get();
+		return (latest == null || latest.getAge() > maxAge ? null : latest);
+	}
+	
+	/** @return The number of frames grabbed */
+	public long getFramesGrabbed() { return framesGrabbed.get(); }
+	
+	/** @return The number of frames dropped, because a newer one was grabbed before they started being processed */
+	public long getFramesDropped() { return framesDropped.get(); }
+	
+	/**
+	 * Enables or disables the subsystem. Whilst it is disabled, no frames are grabbed, and the {@link CvSink} is disabled, so the camera can stop sending them.
+	 * A frame that was already being grabbed may still be processed.
+	 * @param enabled Whether to grab frames
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+		if(enabled) LockSupport.unpark(grabber);
+	}
+	
+	/** @return Whether frames are being grabbed */
+	public boolean isEnabled() { return enabled; }
+	
+	/**
+	 * Stops grabbing and processing frames, for good
+	 */
+	public void stop() {
+		running = false;
+		grabber.interrupt();
+		processor.interrupt();
+	}
+	
+	public void initDefaultCommand() {}
+}
@@ -4,8 +4,10 @@ import java.util.function.Predicate;
 
 import edu.wpi.first.wpilibj.AnalogInput;
 
+import micobyte.frc.lib.io.InputRecorder;
+
 /**
- * A {edu.wpi.first.wpilibj.buttons.Trigger Trigger} that is tripped by an {@link AnalogInput} being within a given range
+ * A {edu.wpi.first.wpilibj.buttons.Trigger Trigger} that is tripped by an {@link AnalogInput} being within a given range. Its readings are {@link InputRecorder recorded}.
  */
 public class AIOTrigger extends MBTrigger {
 	/** The {@link AnalogInput input} */
@@ -20,7 +22,12 @@ public class AIOTrigger extends MBTrigger {
 	 */
 	public AIOTrigger(AnalogInput input, Predicate<Integer> selector) { this.input = input; this.selector = selector; }
 	
-	public boolean get() { return selector.test(input.getValue()); }
+	public boolean get() {
+		int value = input.getValue();
+		InputRecorder.recordAnalog(input.getChannel(), value);
+		
+		return selector.test(value);
+	}
 	
 	/**
 	 * Creates a trigger that returns true for values such that {@code max > val > min}
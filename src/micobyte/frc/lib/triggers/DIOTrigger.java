@@ -2,8 +2,10 @@ package micobyte.frc.lib.triggers;
 
 import edu.wpi.first.wpilibj.DigitalInput;
 
+import micobyte.frc.lib.io.InputRecorder;
+
 /**
- * A {@link edu.wpi.first.wpilibj.buttons.Trigger Trigger} that is tripped by a {@link DigitalInput digital signal}
+ * A {@link edu.wpi.first.wpilibj.buttons.Trigger Trigger} that is tripped by a {@link DigitalInput digital signal}. Its readings are {@link InputRecorder recorded}.
  */
 public class DIOTrigger extends MBTrigger {
 	/** The {@link DigitalInput digital signal} */
@@ -15,5 +17,10 @@ public class DIOTrigger extends MBTrigger {
 	 */
 	public DIOTrigger(DigitalInput source) { this.source = source; }
 	
-	public boolean get() { return source.get(); }
+	public boolean get() {
+		boolean value = source.get();
+		InputRecorder.recordDigital(source.getChannel(), value);
+		
+		return value;
+	}
 }
\ No newline at end of file
@@ -2,9 +2,10 @@ package micobyte.frc.lib.triggers;
 
 import java.util.function.Predicate;
 
-import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.GenericHID;
 
+import micobyte.frc.lib.io.HIDSnapshot;
+
 /**
  * A {@link edu.wpi.first.wpilibj.buttons.Trigger Trigger} that is tripped when an axis on a {@link GenericHID HID device} is accepted by the given {@link Predicate selector}
  */
@@ -31,7 +32,7 @@ public class HIDAxisTrigger extends MBTrigger {
 	public HIDAxisTrigger(int channel, int axis, Predicate<Double> valueSelector) { this.channel = channel; this.axis = axis; this.valueSelector = valueSelector; }
 	
 	public boolean get() {
-		double val = DriverStation.getInstance().getStickAxis(channel, axis);
+		double val = HIDSnapshot.getAxis(channel, axis);
 		return valueSelector.test(val);
 	}
 	
@@ -0,0 +1,47 @@
+package micobyte.frc.lib.vision;
+
+import edu.wpi.cscore.CvSink;
+import edu.wpi.cscore.VideoSource;
+import edu.wpi.first.wpilibj.Timer;
+
+import micobyte.frc.lib.MBLibUtil;
+
+/**
+ * A {@link FrameSource} that grabs frames from a camera, through a {@link CvSink}. Each frame's capture time is the
+ * {@link Timer#getFPGATimestamp() FPGA timestamp} it was grabbed at.
+ */
+public class CameraFrameSource implements FrameSource {
+	/** The sink */
+	private final CvSink sink;
+	/** The last error, so it is only logged once */
+	private String lastError;
+	
+	/**
+	 * Creates the source
+	 * @param name The name of the sink
+	 * @param camera The camera
+	 */
+	public CameraFrameSource(String name, VideoSource camera) {
+		sink = new CvSink(name);
+		sink.setSource(camera);
+	}
+	
+	/** @return The sink */
+	public CvSink getSink() { return sink; }
+	
+	public boolean grab(VisionFrame frame) {
+		while(sink.grabFrame(frame.getImage()) == 0) {
+			if(Thread.currentThread().isInterrupted()) return false;
+			
+			String error = sink.getError();
+			if(!error.equals(lastError)) MBLibUtil.log("Camera " + sink.getName() + " couldn't grab a frame: " + error);
+			lastError = error;
+		}
+		
+		frame.setCaptureTime(Timer.getFPGATimestamp());
+		lastError = null;
+		return true;
+	}
+	
+	public void close() { sink.free(); }
+}
@@ -0,0 +1,292 @@
+package micobyte.frc.lib.vision;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import edu.wpi.cscore.MjpegServer;
+import edu.wpi.cscore.UsbCamera;
+import edu.wpi.cscore.VideoMode;
+import edu.wpi.cscore.VideoMode.PixelFormat;
+import edu.wpi.first.wpilibj.CameraServer;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+
+import micobyte.frc.lib.IUpdateable;
+import micobyte.frc.lib.MBLibUtil;
+import micobyte.frc.lib.Metrics;
+
+/**
+ * Manages several {@link UsbCamera USB cameras} streamed to the dashboard through one {@link MjpegServer}, and adapts their quality to the network.<br>
+ * Only the {@link #setActive(UsbCamera) active} camera is streamed. Switching cameras switches the server's source, so the dashboard's stream stays open.
+ * The active camera's {@link VideoMode video mode} is stepped down a ladder of {@link #DEFAULT_LEVELS levels} (lower resolution and frame rate) when the
+ * robot is sending more than the {@link #setBudget(double) bandwidth budget}, or the driver station's packets start arriving late (which is the
+ * first sign of a congested link the robot can see), and back up once there has been headroom for a while. The inactive cameras are kept at the lowest level.<br>
+ * The packets are timed on a thread of its own, which does nothing but {@link DriverStation#waitForData() wait for them}, so a slow tick of the main loop
+ * doesn't look like a late packet.
+ * It should be {@link #update() updated} each tick of the main loop (such as by a {@link micobyte.frc.lib.command.CommandUpdate CommandUpdate}).
+ */
+public class CameraManager implements IUpdateable {
+	/** The default levels, from the best to the worst */
+	public static final VideoMode[] DEFAULT_LEVELS = {
+		new VideoMode(PixelFormat.kMJPEG, 320, 240, 30),
+		new VideoMode(PixelFormat.kMJPEG, 320, 240, 15),
+		new VideoMode(PixelFormat.kMJPEG, 160, 120, 15),
+		new VideoMode(PixelFormat.kMJPEG, 160, 120, 7)
+	};
+	
+	/** The field's bandwidth limit, in bits per second */
+	public static final double FIELD_BANDWIDTH_LIMIT = 4e6;
+	/** How often the network is measured, in seconds */
+	private static final double SAMPLE_PERIOD = 0.5;
+	/** How long there must be headroom before the quality goes up a level, in seconds */
+	private static final double STEP_UP_DELAY = 3;
+	/** The fraction of the budget below which there is headroom */
+	private static final double HEADROOM = 0.6;
+	/** The longest gap between the driver station's packets before they count as late, in seconds */
+	private static final double LATE_PACKET_GAP = 0.06;
+	
+	/** Where Linux keeps each network interface's counters */
+	private static final String NET_DEV = "/proc/net/dev";
+	
+	/**
+	 * A managed camera
+	 */
+	private static class Camera {
+		/** The camera */
+		private final UsbCamera camera;
+		/** The level it is at, or -1 if it hasn't been set */
+		private int level = -1;
+		
+		private Camera(UsbCamera camera) { this.camera = camera; }
+	}
+	
+	/** The server */
+	private final MjpegServer server;
+	/** The levels, from the best to the worst */
+	private final VideoMode[] levels;
+	/** The cameras */
+	private final ArrayList<Camera> cameras = new ArrayList<Camera>();
+	/** The active camera, or {@code null} for none */
+	private Camera active;
+	
+	/** The active camera's level */
+	private int level;
+	/** The bandwidth budget, in bits per second */
+	private double budget = FIELD_BANDWIDTH_LIMIT * 0.75;
+	
+	/** When the driver station's last packet arrived, in seconds, or 0 before the first */
+	private double lastPacket;
+	/** The longest gap between the driver station's packets since the network was last measured, in seconds */
+	private double maxGap;
+	/** When the network was last measured, in seconds */
+	private double lastSample;
+	/** The number of bytes sent, when the network was last measured, or -1 if it can't be read */
+	private long lastBytes = -1;
+	/** When there started being headroom, in seconds, or {@link Double#NaN NaN} if there isn't any */
+	private double headroomSince = Double.NaN;
+	
+	/** The rate the robot is sending at, in bits per second */
+	private final Metrics.Gauge bandwidth;
+	/** The longest gap between the driver station's packets, in seconds */
+	private final Metrics.Gauge packetGap;
+	/** The active camera's level */
+	private final Metrics.Gauge levelGauge;
+	
+	/**
+	 * Creates the manager, with the {@link #DEFAULT_LEVELS default levels}
+	 * @param name The name of the server, which is published to the dashboard by the {@link CameraServer}
+	 */
+	public CameraManager(String name) { this(name, DEFAULT_LEVELS); }
+	
+	/**
+	 * Creates the manager
+	 * @param name The name of the server, which is published to the dashboard by the {@link CameraServer}
+	 * @param levels The {@link VideoMode video modes} to choose from, from the best to the worst
+	 */
+	public CameraManager(String name, VideoMode... levels) {
+		if(levels.length < 1) throw new IllegalArgumentException("Must provide at least one video mode");
+		
+		this.levels = levels.clone();
+		server = CameraServer.getInstance().addServer(name);
+		
+		bandwidth = Metrics.gauge("camera." + name + ".bandwidth");
+		packetGap = Metrics.gauge("camera." + name + ".packetGap");
+		levelGauge = Metrics.gauge("camera." + name + ".level");
+		
+		Thread packetTimer = new Thread(this::timePackets, "MBLib camera packet timer: " + name);
+		packetTimer.setDaemon(true);
+		packetTimer.start();
+	}
+	
+	/**
+	 * Runs the thread that times the driver station's packets
+	 */
+	private void timePackets() {
+		DriverStation ds = DriverStation.getInstance();
+		
+		while(true) {
+			ds.waitForData();
+			packetArrived(Timer.getFPGATimestamp());
+		}
+	}
+	
+	/**
+	 * Records that a driver station packet has arrived
+	 * @param now When it arrived, in seconds
+	 */
+	private synchronized void packetArrived(double now) {
+		if(lastPacket > 0) maxGap = Math.max(maxGap, now - lastPacket);
+		lastPacket = now;
+	}
+	
+	/**
+	 * Adds a camera, which is made the active one if there isn't one yet
+	 * @param camera The camera
+	 * @return The camera
+	 */
+	public synchronized UsbCamera addCamera(UsbCamera camera) {
+		Camera c = new Camera(camera);
+		cameras.add(c);
+		CameraServer.getInstance().addCamera(camera);
+		
+		if(active == null) setActive(c);
+		else setLevel(c, levels.length - 1);
+		
+		return camera;
+	}
+	
+	/**
+	 * Streams a camera, and puts the camera that was streamed at the lowest level
+	 * @param camera The camera, which must have been {@link #addCamera(UsbCamera) added}
+	 * @throws IllegalArgumentException If the camera hasn't been added
+	 */
+	public synchronized void setActive(UsbCamera camera) {
+		for(Camera c : cameras) if(c.camera.equals(camera)) {
+			setActive(c);
+			return;
+		}
+		
+		throw new IllegalArgumentException("Camera \"" + camera.getName() + "\" hasn't been added to the camera manager");
+	}
+	
+	/**
+	 * Streams a camera
+	 * @param camera The camera
+	 */
+	private void setActive(Camera camera) {
+		if(camera == active) return;
+		
+		if(active != null) setLevel(active, levels.length - 1);
+		active = camera;
+		
+		setLevel(active, level);
+		server.setSource(active.camera);
+	}
+	
+	/** @return The active camera, or {@code null} if there are none */
+	public synchronized UsbCamera getActive() { return (active == null ? null : active.camera); }
+	
+	/** @return The server */
+	public MjpegServer getServer() { return server; }
+	
+	/**
+	 * Sets the bandwidth budget, which the robot's whole outgoing traffic (not just the stream) should stay below
+	 * @param bitsPerSecond The budget, in bits per second
+	 */
+	public synchronized void setBudget(double bitsPerSecond) { budget = bitsPerSecond; }
+	
+	/** @return The active camera's level, from 0 for the best */
+	public synchronized int getLevel() { return level; }
+	
+	/** @return The active camera's {@link VideoMode video mode} */
+	public synchronized VideoMode getVideoMode() { return levels[level]; }
+	
+	/**
+	 * Puts a camera at a level, if it isn't already
+	 * @param camera The camera
+	 * @param level The level
+	 */
+	private void setLevel(Camera camera, int level) {
+		if(camera.level == level) return;
+		
+		camera.level = level;
+		if(!camera.camera.setVideoMode(levels[level])) MBLibUtil.log("Camera " + camera.camera.getName() + " doesn't support " + describe(levels[level]));
+	}
+	
+	/**
+	 * @param mode The {@link VideoMode video mode}
+	 * @return A description of it
+	 */
+	private static String describe(VideoMode mode) { return mode.width + "x" + mode.height + " at " + mode.fps + " FPS"; }
+	
+	/**
+	 * Measures the network, and changes the active camera's level if needed
+	 */
+	public synchronized void update() {
+		double now = Timer.getFPGATimestamp();
+		if(now - lastSample < SAMPLE_PERIOD) return;
+		
+		// A packet that still hasn't arrived is at least this late
+		if(lastPacket > 0) maxGap = Math.max(maxGap, now - lastPacket);
+		
+		long bytes = readBytesSent();
+		double rate = (bytes >= 0 && lastBytes >= 0 ? (bytes - lastBytes) * 8 / (now - lastSample) : 0);
+		
+		bandwidth.set(rate);
+		packetGap.set(maxGap);
+		
+		if(active != null) {
+			if(rate > budget || maxGap > LATE_PACKET_GAP) {
+				headroomSince = Double.NaN;
+				if(level < levels.length - 1) changeLevel(level + 1, rate);
+			} else if(rate < budget * HEADROOM) {
+				if(Double.isNaN(headroomSince)) headroomSince = now;
+				
+				if(level > 0 && now - headroomSince >= STEP_UP_DELAY) {
+					changeLevel(level - 1, rate);
+					headroomSince = now;
+				}
+			} else headroomSince = Double.NaN;
+		}
+		
+		levelGauge.set(level);
+		lastBytes = bytes;
+		lastSample = now;
+		maxGap = 0;
+	}
+	
+	/**
+	 * Changes the active camera's level, and logs it
+	 * @param level The new level
+	 * @param rate The rate the robot is sending at, in bits per second
+	 */
+	private void changeLevel(int level, double rate) {
+		this.level = level;
+		setLevel(active, level);
+		
+		MBLibUtil.log("Camera " + active.camera.getName() + " is now streaming " + describe(levels[level]) + " (sending " + Math.round(rate / 1e3)
+			+ " kbit/s, packets up to " + Math.round(maxGap * 1e3) + " ms apart)");
+	}
+	
+	/** @return The number of bytes sent by every network interface but the loopback, or -1 if it can't be read (such as off the roboRIO) */
+	private static long readBytesSent() {
+		try(BufferedReader in = new BufferedReader(new FileReader(NET_DEV))) {
+			long total = 0;
+			String line;
+			
+			while((line = in.readLine()) != null) {
+				int colon = line.indexOf(':');
+				if(colon < 0 || line.substring(0, colon).trim().equals("lo")) continue;
+				
+				String[] fields = line.substring(colon + 1).trim().split("\\s+");
+				if(fields.length > 8) total += Long.parseLong(fields[8]);
+			}
+			
+			return total;
+		} catch(IOException | NumberFormatException e) {
+			return -1;
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package micobyte.frc.lib.vision;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.videoio.VideoCapture;
+import org.opencv.videoio.Videoio;
+
+/**
+ * A {@link FrameSource} that reads frames from a recording: either a video file, or a directory of images (read in name order), so a
+ * {@link StagedPipeline} can be benchmarked offline. OpenCV's native library must have been loaded (which, off the robot, is done with
+ * {@code System.loadLibrary(Core.NATIVE_LIBRARY_NAME)}).<br>
+ * Each frame's capture time is its time in the recording. The frames can be read as fast as the pipeline takes them (so every frame is processed),
+ * or at the recording's frame rate, like a camera (so frames are dropped if the pipeline falls behind).
+ */
+public class FileFrameSource implements FrameSource {
+	/** The video, or {@code null} if reading images */
+	private final VideoCapture video;
+	/** The images, or {@code null} if reading a video */
+	private final File[] images;
+	/** The frame rate, in frames per second */
+	private final double fps;
+	/** Whether to read the frames at the frame rate */
+	private final boolean realTime;
+	
+	/** The number of frames read */
+	private int count;
+	/** When the first frame was read, from {@link System#nanoTime()} */
+	private long startNanos;
+	
+	/**
+	 * Creates the source
+	 * @param file The video file, or the directory of images
+	 * @param fps The frame rate of a directory of images, in frames per second (a video's own frame rate is used, if it has one)
+	 * @param realTime Whether to read the frames at the frame rate, like a camera, rather than as fast as the pipeline takes them
+	 * @throws IllegalArgumentException If the file can't be read
+	 */
+	public FileFrameSource(File file, double fps, boolean realTime) {
+		this.realTime = realTime;
+		
+		if(file.isDirectory()) {
+			images = file.listFiles(File::isFile);
+			Arrays.sort(images);
+			video = null;
+			
+			this.fps = fps;
+		} else {
+			video = new VideoCapture(file.getPath());
+			if(!video.isOpened()) throw new IllegalArgumentException("Can't read video \"" + file + "\"");
+			images = null;
+			
+			double videoFPS = video.get(Videoio.CAP_PROP_FPS);
+			this.fps = (videoFPS > 0 ? videoFPS : fps);
+		}
+	}
+	
+	/**
+	 * Creates the source, which reads the frames as fast as the pipeline takes them
+	 * @param file The video file, or the directory of images
+	 * @throws IllegalArgumentException If the file can't be read
+	 */
+	public FileFrameSource(File file) { this(file, 30, false); }
+	
+	public boolean grab(VisionFrame frame) {
+		if(count == 0) startNanos = System.nanoTime();
+		
+		if(video != null) {
+			if(!video.read(frame.getImage())) return false;
+		} else {
+			if(count >= images.length) return false;
+			
+			Mat image = Imgcodecs.imread(images[count].getPath());
+			image.copyTo(frame.getImage());
+			image.release();
+		}
+		
+		frame.setCaptureTime(count / fps);
+		count++;
+		
+		if(realTime) {
+			long wait = startNanos + Math.round(count / fps * 1e9) - System.nanoTime();
+			
+			try {
+				if(wait > 0) Thread.sleep(wait / 1000000, (int)(wait % 1000000));
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	public boolean isLive() { return realTime; }
+	
+	/** @return The number of frames read */
+	public int getFramesRead() { return count; }
+	
+	public void close() { if(video != null) video.release(); }
+}
@@ -0,0 +1,25 @@
+package micobyte.frc.lib.vision;
+
+/**
+ * Where a {@link StagedPipeline} gets its frames from, such as a {@link CameraFrameSource camera} or a {@link FileFrameSource recording}
+ */
+public interface FrameSource {
+	/**
+	 * Grabs the next frame into the frame's {@link VisionFrame#getImage() image}, and {@link VisionFrame#setCaptureTime(double) sets when it was captured}
+	 * @param frame The frame
+	 * @return Whether a frame was grabbed, or false if there are no more
+	 */
+	public boolean grab(VisionFrame frame);
+	
+	/**
+	 * Whether the frames arrive in real time, in which case the oldest frame waiting for the pipeline is dropped when it falls behind.
+	 * Otherwise, the source waits for the pipeline, so every frame is processed.
+	 * @return Whether the frames arrive in real time
+	 */
+	public default boolean isLive() { return true; }
+	
+	/**
+	 * Closes the source, once the pipeline has stopped
+	 */
+	public default void close() {}
+}
@@ -0,0 +1,335 @@
+package micobyte.frc.lib.vision;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+
+import micobyte.frc.lib.MBLibUtil;
+import micobyte.frc.lib.Metrics;
+
+/**
+ * A vision pipeline split into {@link Stage stages} (such as a colour threshold, finding contours, and filtering them), each on its own thread,
+ * connected by bounded queues, so consecutive frames are processed at the same time, on different cores.
+ * Expensive work on each region of interest can also be spread over a {@link ForkJoinPool}, with a {@link #perRegion(BiFunction) per-region stage}.<br>
+ * The frames are {@link VisionFrame pooled}, so the pipeline allocates nothing per frame itself. If the {@link FrameSource} is {@link FrameSource#isLive() live},
+ * the oldest frame waiting for the first stage is dropped when the pipeline falls behind.<br>
+ * How long each stage takes goes into a {@link Metrics.Histogram histogram}, as does the latency of the whole pipeline, which can be
+ * {@link #getSummary() summarised}, such as after {@link #run(FrameSource, BiConsumer) running} it offline on a {@link FileFrameSource recording}:
+ * <pre>
+ * StagedPipeline&lt;List&lt;Rect&gt;&gt; pipeline = StagedPipeline.create("targets", 2)
+ * 	.then("threshold", (image, frame) -&gt; { Core.inRange(image, low, high, frame.getMat(0)); return frame.getMat(0); })
+ * 	.then("contours", (mask, frame) -&gt; findContours(mask))
+ * 	.then("filter", (contours, frame) -&gt; filterContours(contours));
+ *
+ * pipeline.run(new FileFrameSource(new File("match.avi")), (targets, frame) -&gt; {});
+ * System.out.println(pipeline.getSummary());
+ * </pre>
+ * @param <O> The type of the last stage's output
+ */
+public class StagedPipeline<O> {
+	/**
+	 * A stage of the pipeline, which is only ever run on its own thread
+	 * @param <I> The type of its input (the previous stage's output, or the frame's image for the first stage)
+	 * @param <O> The type of its output
+	 */
+	@FunctionalInterface
+	public static interface Stage<I, O> {
+		/**
+		 * Processes a frame
+		 * @param input The input
+		 * @param frame The frame, for its image, capture time and scratch {@link Mat Mats}
+		 * @return The output
+		 */
+		public O process(I input, VisionFrame frame);
+	}
+	
+	/** Passed through the queues, to tell each stage there are no more frames */
+	private static final VisionFrame END = new VisionFrame();
+	
+	/** The name */
+	private final String name;
+	/** How many frames can wait for each stage */
+	private final int queueCapacity;
+	
+	/** The stages */
+	private final ArrayList<Stage<Object, Object>> stages = new ArrayList<Stage<Object, Object>>();
+	/** The name of each stage */
+	private final ArrayList<String> stageNames = new ArrayList<String>();
+	/** How long each stage takes, in seconds */
+	private final ArrayList<Metrics.Histogram> stageTimes = new ArrayList<Metrics.Histogram>();
+	
+	/** How long each frame takes to go through the whole pipeline, in seconds */
+	private final Metrics.Histogram latency;
+	/** The number of frames grabbed */
+	private final Metrics.Counter frames;
+	/** The number of frames dropped */
+	private final Metrics.Counter dropped;
+	
+	/** The threads: the source's, then each stage's, or {@code null} if not started */
+	private Thread[] threads;
+	
+	private StagedPipeline(String name, int queueCapacity) {
+		if(queueCapacity < 1) throw new IllegalArgumentException("Queue capacity must be at least 1");
+		
+		this.name = name;
+		this.queueCapacity = queueCapacity;
+		
+		latency = Metrics.histogram("vision." + name + ".latency");
+		frames = Metrics.counter("vision." + name + ".frames");
+		dropped = Metrics.counter("vision." + name + ".dropped");
+	}
+	
+	/**
+	 * Creates a pipeline with no stages yet
+	 * @param name The name, which is used for its threads and {@link Metrics}
+	 * @param queueCapacity How many frames can wait for each stage
+	 * @return The pipeline, whose output is the frame's image until a stage is added
+	 */
+	public static StagedPipeline<Mat> create(String name, int queueCapacity) { return new StagedPipeline<Mat>(name, queueCapacity); }
+	
+	/** @return The name */
+	public String getName() { return name; }
+	
+	/**
+	 * Adds a stage to the end of the pipeline
+	 * @param stageName The stage's name
+	 * @param stage The stage
+	 * @return This pipeline, with the stage's output as its output
+	 * @throws IllegalStateException If the pipeline has been started
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized <N> StagedPipeline<N> then(String stageName, Stage<? super O, ? extends N> stage) {
+		if(threads != null) throw new IllegalStateException("Stages can't be added to vision pipeline \"" + name + "\" after it has been started");
+		
+		stages.add((Stage<Object, Object>)stage);
+		stageNames.add(stageName);
+		stageTimes.add(Metrics.histogram("vision." + name + "." + stageName));
+		
+		return (StagedPipeline<N>)this;
+	}
+	
+	/**
+	 * Creates a stage that runs some work on each region of interest of the frame's image in parallel, on the {@link ForkJoinPool#commonPool() common pool}
+	 * @param work The work, which is given the region of the image, and where it is
+	 * @return The stage, whose input is the regions, and whose output is each region's result, in order
+	 */
+	public static <R> Stage<List<Rect>, List<R>> perRegion(BiFunction<Mat, Rect, R> work) { return perRegion(ForkJoinPool.commonPool(), work); }
+	
+	/**
+	 * Creates a stage that runs some work on each region of interest of the frame's image in parallel
+	 * @param pool The pool to run the work on
+	 * @param work The work, which is given the region of the image, and where it is
+	 * @return The stage, whose input is the regions, and whose output is each region's result, in order
+	 */
+	public static <R> Stage<List<Rect>, List<R>> perRegion(ForkJoinPool pool, BiFunction<Mat, Rect, R> work) {
+		return (regions, frame) -> {
+			ArrayList<ForkJoinTask<R>> tasks = new ArrayList<ForkJoinTask<R>>(regions.size());
+			for(Rect region : regions) tasks.add(pool.submit(() -> {
+				Mat roi = frame.getImage().submat(region);
+				
+				try {
+					return work.apply(roi, region);
+				} finally {
+					roi.release();
+				}
+			}));
+			
+			ArrayList<R> results = new ArrayList<R>(tasks.size());
+			for(ForkJoinTask<R> task : tasks) results.add(task.join());
+			
+			return results;
+		};
+	}
+	
+	/**
+	 * Starts the pipeline, on its own threads
+	 * @param source Where to get the frames from
+	 * @param listener Called with the last stage's output for each frame, on the last stage's thread. It should copy anything it keeps,
+	 * as the frame (and its {@link Mat Mats}) will be reused.
+	 * @throws IllegalStateException If the pipeline has no stages, or has already been started
+	 */
+	@SuppressWarnings("unchecked")
+	public synchronized void start(FrameSource source, BiConsumer<? super O, VisionFrame> listener) {
+		if(stages.isEmpty()) throw new IllegalStateException("Vision pipeline \"" + name + "\" has no stages");
+		if(threads != null) throw new IllegalStateException("Vision pipeline \"" + name + "\" has already been started");
+		
+		int count = stages.size();
+		ArrayBlockingQueue<VisionFrame> free = new ArrayBlockingQueue<VisionFrame>(1 + count * (queueCapacity + 1));
+		while(free.remainingCapacity() > 0) free.add(new VisionFrame());
+		
+		ArrayList<ArrayBlockingQueue<VisionFrame>> queues = new ArrayList<ArrayBlockingQueue<VisionFrame>>();
+		for(int i = 0; i < count; i++) queues.add(new ArrayBlockingQueue<VisionFrame>(queueCapacity));
+		
+		threads = new Thread[count + 1];
+		threads[0] = new Thread(() -> runSource(source, free, queues.get(0)), "MBLib vision " + name + ": source");
+		
+		for(int i = 0; i < count; i++) {
+			int stage = i;
+			ArrayBlockingQueue<VisionFrame> next = (stage + 1 < count ? queues.get(stage + 1) : null);
+			threads[stage + 1] = new Thread(() -> runStage(stage, queues.get(stage), next, free, (BiConsumer<Object, VisionFrame>)listener),
+					"MBLib vision " + name + ": " + stageNames.get(stage));
+		}
+		
+		for(Thread thread : threads) {
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+	
+	/**
+	 * Runs the pipeline until the source has no more frames (such as the end of a {@link FileFrameSource recording}), then closes it
+	 * @param source Where to get the frames from
+	 * @param listener Called with the last stage's output for each frame, on the last stage's thread. It should copy anything it keeps,
+	 * as the frame (and its {@link Mat Mats}) will be reused.
+	 * @throws InterruptedException If interrupted whilst waiting, in which case the pipeline is {@link #stop() stopped}
+	 */
+	public void run(FrameSource source, BiConsumer<? super O, VisionFrame> listener) throws InterruptedException {
+		start(source, listener);
+		
+		try {
+			threads[threads.length - 1].join();
+		} finally {
+			stop();
+		}
+	}
+	
+	/**
+	 * Runs the source's thread
+	 * @param source The source
+	 * @param free The frames that aren't in use
+	 * @param first The first stage's queue
+	 */
+	private void runSource(FrameSource source, ArrayBlockingQueue<VisionFrame> free, ArrayBlockingQueue<VisionFrame> first) {
+		boolean live = source.isLive();
+		long number = 0;
+		
+		try {
+			while(!Thread.currentThread().isInterrupted()) {
+				VisionFrame frame = free.take();
+				if(!source.grab(frame)) break;
+				
+				frame.number = number++;
+				frame.startNanos = System.nanoTime();
+				frame.value = frame.getImage();
+				frames.increment();
+				
+				if(live) {
+					while(!first.offer(frame)) {
+						VisionFrame old = first.poll();
+						
+						if(old != null) {
+							dropped.increment();
+							free.add(old);
+						}
+					}
+				} else first.put(frame);
+			}
+			
+			first.put(END);
+		} catch(InterruptedException e) {
+		} catch(RuntimeException e) {
+			MBLibUtil.logError("Error whilst grabbing a frame for vision " + name, e);
+			first.offer(END);
+		} finally {
+			source.close();
+		}
+	}
+	
+	/**
+	 * Runs a stage's thread
+	 * @param stage The stage's index
+	 * @param in The stage's queue
+	 * @param next The next stage's queue, or {@code null} if it is the last stage
+	 * @param free The frames that aren't in use
+	 * @param listener Called with the last stage's output
+	 */
+	private void runStage(int stage, ArrayBlockingQueue<VisionFrame> in, ArrayBlockingQueue<VisionFrame> next,
+			ArrayBlockingQueue<VisionFrame> free, BiConsumer<Object, VisionFrame> listener) {
+		Stage<Object, Object> work = stages.get(stage);
+		Metrics.Histogram time = stageTimes.get(stage);
+		
+		try {
+			while(true) {
+				VisionFrame frame = in.take();
+				
+				if(frame == END) {
+					if(next != null) next.put(END);
+					return;
+				}
+				
+				try {
+					long start = System.nanoTime();
+					frame.value = work.process(frame.value, frame);
+					time.recordSince(start);
+					
+					if(next != null) {
+						next.put(frame);
+						continue;
+					}
+					
+					latency.recordSince(frame.startNanos);
+					listener.accept(frame.value, frame);
+				} catch(RuntimeException e) {
+					MBLibUtil.logError("Error whilst processing vision " + name + ", in stage " + stageNames.get(stage), e);
+				}
+				
+				frame.value = null;
+				free.add(frame);
+			}
+		} catch(InterruptedException e) {}
+	}
+	
+	/**
+	 * Stops the pipeline
+	 */
+	public synchronized void stop() {
+		if(threads != null) for(Thread thread : threads) thread.interrupt();
+	}
+	
+	/**
+	 * Gets how long a stage takes
+	 * @param stageName The stage's name
+	 * @return The {@link Metrics.Histogram histogram} of how long it takes, in seconds, or {@code null} if there is no such stage
+	 */
+	public Metrics.Histogram getStageTime(String stageName) {
+		int i = stageNames.indexOf(stageName);
+		return (i < 0 ? null : stageTimes.get(i));
+	}
+	
+	/** @return How long each frame takes to go through the whole pipeline, in seconds */
+	public Metrics.Histogram getLatency() { return latency; }
+	
+	/** @return The number of frames grabbed */
+	public long getFramesGrabbed() { return frames.get(); }
+	
+	/** @return The number of frames dropped, because the pipeline fell behind a {@link FrameSource#isLive() live} source */
+	public long getFramesDropped() { return dropped.get(); }
+	
+	/** @return A summary of how long each stage takes, and the latency, in milliseconds */
+	public String getSummary() {
+		StringBuilder summary = new StringBuilder("Vision ").append(name).append(": ").append(frames.get()).append(" frames, ").append(dropped.get()).append(" dropped");
+		
+		for(int i = 0; i < stageNames.size(); i++) appendTimes(summary.append("; ").append(stageNames.get(i)).append(' '), stageTimes.get(i));
+		appendTimes(summary.append("; latency "), latency);
+		
+		return summary.toString();
+	}
+	
+	/**
+	 * Appends a histogram's mean, 95th percentile and maximum to a summary, in milliseconds
+	 * @param summary The summary
+	 * @param histogram The histogram
+	 */
+	private static void appendTimes(StringBuilder summary, Metrics.Histogram histogram) {
+		summary.append("mean=").append(Math.round(histogram.getMean() * 1e4) / 10.0)
+			.append(" p95=").append(Math.round(histogram.getPercentile(0.95) * 1e4) / 10.0)
+			.append(" max=").append(Math.round(histogram.getMax() * 1e4) / 10.0);
+	}
+}
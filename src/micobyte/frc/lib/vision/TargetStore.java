@@ -0,0 +1,339 @@
+package micobyte.frc.lib.vision;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.wpi.first.networktables.EntryListenerFlags;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.Timer;
+
+import micobyte.frc.lib.Metrics;
+
+/**
+ * Holds the latest vision targets found by a coprocessor, decoded once, into preallocated primitive records (angle, distance, area and timestamp),
+ * so every command that uses them reads the same values, without parsing the message again.<br>
+ * The targets are published like a seqlock: a writer bumps a sequence number before and after writing them, and a reader copies them
+ * into its own {@link Snapshot} and retries if the sequence number changed meanwhile, so {@link #read(Snapshot) reading} a consistent snapshot takes
+ * no locks and allocates nothing, from any thread.<br>
+ * Messages come from:
+ * <ul>
+ * <li>Lines of text, such as from a {@link micobyte.frc.lib.subsystem.SubsystemSerial#onLineRecieved(CharSequence) serial port}, which are {@link #decode(CharSequence) decoded}
+ * from {@code latency:angle,distance,area;angle,distance,area;...}, where the latency (in milliseconds) is optional, and an empty line means no targets</li>
+ * <li>A NetworkTables table {@link #listenTo(NetworkTable) listened to}, whose {@code targets} entry is a number array of {@code angle, distance, area} for each target,
+ * and whose optional {@code latency} entry is the latency, in milliseconds</li>
+ * </ul>
+ */
+public class TargetStore {
+	/** The number of values in each record */
+	private static final int FIELDS = 4;
+	/** Where each value is in a record */
+	private static final int ANGLE = 0, DISTANCE = 1, AREA = 2, TIMESTAMP = 3;
+	
+	/** The most targets it can hold */
+	private final int capacity;
+	/** The records, as the {@link Double#doubleToRawLongBits(double) bits} of each value */
+	private final AtomicLongArray records;
+	/** The number of targets */
+	private final AtomicInteger count = new AtomicInteger();
+	/** The sequence number, which is odd whilst the targets are being written */
+	private final AtomicLong sequence = new AtomicLong();
+	
+	/** The targets being decoded, as angle, distance and area for each */
+	private final double[] decoded;
+	/** Where the decoder is in the line */
+	private int position;
+	
+	/** The number of messages decoded */
+	private final Metrics.Counter messages;
+	/** The number of messages that couldn't be decoded */
+	private final Metrics.Counter malformed;
+	
+	/**
+	 * A consistent copy of the targets, which belongs to whoever {@link TargetStore#read(Snapshot) reads} into it
+	 */
+	public static final class Snapshot {
+		/** Each target's values */
+		private final double[] angles, distances, areas, timestamps;
+		/** The number of targets */
+		private int count;
+		/** The store's sequence number when it was read, or -1 if it hasn't been */
+		private long sequence = -1;
+		
+		/**
+		 * Creates the snapshot
+		 * @param capacity The most targets it can hold, which should be the store's {@link TargetStore#getCapacity() capacity}
+		 */
+		public Snapshot(int capacity) {
+			angles = new double[capacity];
+			distances = new double[capacity];
+			areas = new double[capacity];
+			timestamps = new double[capacity];
+		}
+		
+		/** @return The number of targets */
+		public int getCount() { return count; }
+		
+		/**
+		 * @param i The target
+		 * @return Its angle from the robot's heading, in degrees
+		 */
+		public double getAngle(int i) { return angles[i]; }
+		
+		/**
+		 * @param i The target
+		 * @return Its distance from the robot
+		 */
+		public double getDistance(int i) { return distances[i]; }
+		
+		/**
+		 * @param i The target
+		 * @return Its area
+		 */
+		public double getArea(int i) { return areas[i]; }
+		
+		/**
+		 * @param i The target
+		 * @return When it was seen, as an {@link Timer#getFPGATimestamp() FPGA timestamp}, in seconds
+		 */
+		public double getTimestamp(int i) { return timestamps[i]; }
+		
+		/** @return The target with the largest area, or -1 if there are none */
+		public int getLargest() {
+			int largest = -1;
+			for(int i = 0; i < count; i++) if(largest < 0 || areas[i] > areas[largest]) largest = i;
+			
+			return largest;
+		}
+		
+		/** @return The store's sequence number when it was read, which changes each time new targets are published */
+		public long getSequence() { return sequence; }
+	}
+	
+	/**
+	 * Creates the store
+	 * @param name The name, which is used for its {@link Metrics}
+	 * @param capacity The most targets it can hold
+	 */
+	public TargetStore(String name, int capacity) {
+		if(capacity < 1) throw new IllegalArgumentException("Target store capacity must be at least 1");
+		
+		this.capacity = capacity;
+		records = new AtomicLongArray(capacity * FIELDS);
+		decoded = new double[capacity * 3];
+		
+		messages = Metrics.counter("targets." + name + ".messages");
+		malformed = Metrics.counter("targets." + name + ".malformed");
+	}
+	
+	/** @return The most targets it can hold */
+	public int getCapacity() { return capacity; }
+	
+	/** @return A new {@link Snapshot} that can hold every target */
+	public Snapshot createSnapshot() { return new Snapshot(capacity); }
+	
+	/** @return The sequence number, which changes each time new targets are published */
+	public long getSequence() { return sequence.get() & ~1L; }
+	
+	/**
+	 * Copies the targets into a snapshot, without locking or allocating
+	 * @param snapshot The snapshot
+	 * @return Whether the targets have changed since the snapshot was last read into
+	 */
+	public boolean read(Snapshot snapshot) {
+		while(true) {
+			long before = sequence.get();
+			
+			if((before & 1) != 0) {
+				Thread.yield();
+				continue;
+			}
+			
+			int n = Math.min(count.get(), Math.min(capacity, snapshot.angles.length));
+			for(int i = 0; i < n; i++) {
+				int r = i * FIELDS;
+				
+				snapshot.angles[i] = Double.longBitsToDouble(records.get(r + ANGLE));
+				snapshot.distances[i] = Double.longBitsToDouble(records.get(r + DISTANCE));
+				snapshot.areas[i] = Double.longBitsToDouble(records.get(r + AREA));
+				snapshot.timestamps[i] = Double.longBitsToDouble(records.get(r + TIMESTAMP));
+			}
+			
+			if(sequence.get() == before) {
+				boolean changed = before != snapshot.sequence;
+				
+				snapshot.count = n;
+				snapshot.sequence = before;
+				return changed;
+			}
+		}
+	}
+	
+	/**
+	 * Publishes targets, replacing the last ones
+	 * @param values The angle, distance and area of each target, one after the other
+	 * @param targets The number of targets, of which only as many as the store's capacity are kept
+	 * @param timestamp When they were seen, as an {@link Timer#getFPGATimestamp() FPGA timestamp}, in seconds
+	 */
+	public synchronized void publish(double[] values, int targets, double timestamp) {
+		int n = Math.min(Math.min(targets, values.length / 3), capacity);
+		long s = sequence.get();
+		
+		sequence.set(s + 1);
+		
+		for(int i = 0; i < n; i++) {
+			int r = i * FIELDS;
+			
+			records.lazySet(r + ANGLE, Double.doubleToRawLongBits(values[i * 3]));
+			records.lazySet(r + DISTANCE, Double.doubleToRawLongBits(values[i * 3 + 1]));
+			records.lazySet(r + AREA, Double.doubleToRawLongBits(values[i * 3 + 2]));
+			records.lazySet(r + TIMESTAMP, Double.doubleToRawLongBits(timestamp));
+		}
+		
+		count.lazySet(n);
+		sequence.set(s + 2);
+	}
+	
+	/**
+	 * Decodes a line of text from a coprocessor, and publishes its targets, without allocating
+	 * @param line The line, as {@code latency:angle,distance,area;angle,distance,area;...}, where the latency (in milliseconds) is optional
+	 * @return Whether the line could be decoded, or false if it was ignored
+	 */
+	public synchronized boolean decode(CharSequence line) {
+		double now = Timer.getFPGATimestamp(), latency = 0;
+		int length = line.length(), n = 0;
+		
+		position = 0;
+		for(int i = 0; i < length; i++) if(line.charAt(i) == ':') {
+			latency = number(line);
+			if(!skip(line, ':')) return malformed();
+			break;
+		}
+		
+		skipSpaces(line);
+		while(position < length) {
+			if(n == capacity) break;
+			
+			decoded[n * 3] = number(line);
+			if(!skip(line, ',')) return malformed();
+			decoded[n * 3 + 1] = number(line);
+			if(!skip(line, ',')) return malformed();
+			decoded[n * 3 + 2] = number(line);
+			
+			if(Double.isNaN(decoded[n * 3]) || Double.isNaN(decoded[n * 3 + 1]) || Double.isNaN(decoded[n * 3 + 2])) return malformed();
+			n++;
+			
+			skipSpaces(line);
+			if(position < length && !skip(line, ';')) return malformed();
+			skipSpaces(line);
+		}
+		
+		if(Double.isNaN(latency)) return malformed();
+		
+		messages.increment();
+		publish(decoded, n, now - latency / 1000);
+		return true;
+	}
+	
+	/**
+	 * Counts a message that couldn't be decoded
+	 * @return false
+	 */
+	private boolean malformed() {
+		malformed.increment();
+		return false;
+	}
+	
+	/**
+	 * Skips any spaces in the line
+	 * @param line The line
+	 */
+	private void skipSpaces(CharSequence line) { while(position < line.length() && Character.isWhitespace(line.charAt(position))) position++; }
+	
+	/**
+	 * Skips a character in the line, and any spaces around it
+	 * @param line The line
+	 * @param ch The character
+	 * @return Whether it was there
+	 */
+	private boolean skip(CharSequence line, char ch) {
+		skipSpaces(line);
+		if(position >= line.length() || line.charAt(position) != ch) return false;
+		
+		position++;
+		skipSpaces(line);
+		return true;
+	}
+	
+	/**
+	 * Reads a decimal number from the line, such as {@code -12.5} or {@code 3e2}
+	 * @param line The line
+	 * @return The number, or {@link Double#NaN NaN} if there isn't one
+	 */
+	private double number(CharSequence line) {
+		skipSpaces(line);
+		
+		int length = line.length(), start = position;
+		boolean negative = false;
+		long mantissa = 0;
+		int scale = 0, digits = 0;
+		
+		if(position < length && (line.charAt(position) == '-' || line.charAt(position) == '+')) negative = line.charAt(position++) == '-';
+		
+		boolean fraction = false;
+		while(position < length) {
+			char ch = line.charAt(position);
+			
+			if(ch == '.' && !fraction) fraction = true;
+			else if(ch >= '0' && ch <= '9') {
+				if(mantissa < Long.MAX_VALUE / 10) {
+					mantissa = mantissa * 10 + (ch - '0');
+					if(fraction) scale--;
+				} else if(!fraction) scale++;
+				
+				digits++;
+			} else break;
+			
+			position++;
+		}
+		
+		if(digits == 0) {
+			position = start;
+			return Double.NaN;
+		}
+		
+		if(position < length && (line.charAt(position) == 'e' || line.charAt(position) == 'E')) {
+			position++;
+			
+			boolean negativeExponent = false;
+			if(position < length && (line.charAt(position) == '-' || line.charAt(position) == '+')) negativeExponent = line.charAt(position++) == '-';
+			
+			int exponent = 0, exponentDigits = 0;
+			while(position < length && line.charAt(position) >= '0' && line.charAt(position) <= '9') {
+				exponent = Math.min(exponent * 10 + (line.charAt(position++) - '0'), 1000);
+				exponentDigits++;
+			}
+			
+			if(exponentDigits == 0) return Double.NaN;
+			scale += (negativeExponent ? -exponent : exponent);
+		}
+		
+		double value = (scale == 0 ? mantissa : (scale > 0 ? mantissa * Math.pow(10, scale) : mantissa / Math.pow(10, -scale)));
+		return (negative ? -value : value);
+	}
+	
+	/**
+	 * Listens to a NetworkTables table a coprocessor publishes its targets to, and publishes them each time its {@code targets} entry changes
+	 * @param table The table, whose {@code targets} entry is a number array of {@code angle, distance, area} for each target,
+	 * and whose optional {@code latency} entry is the latency, in milliseconds
+	 */
+	public void listenTo(NetworkTable table) {
+		table.getEntry("targets").addListener(n -> {
+			double[] values = n.value.getDoubleArray();
+			double latency = table.getEntry("latency").getDouble(0);
+			
+			messages.increment();
+			publish(values, values.length / 3, Timer.getFPGATimestamp() - latency / 1000);
+		}, EntryListenerFlags.kImmediate | EntryListenerFlags.kNew | EntryListenerFlags.kUpdate);
+	}
+}
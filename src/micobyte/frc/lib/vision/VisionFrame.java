@@ -0,0 +1,56 @@
+package micobyte.frc.lib.vision;
+
+import java.util.ArrayList;
+
+import org.opencv.core.Mat;
+
+/**
+ * A frame going through a {@link StagedPipeline}. Frames are pooled by the pipeline, so the image and the scratch {@link Mat Mats} are reused
+ * from frame to frame, and nothing needs to be allocated per frame.
+ */
+public final class VisionFrame {
+	/** The image, or {@code null} until it is first used */
+	private Mat image;
+	/** The scratch {@link Mat Mats} */
+	private final ArrayList<Mat> mats = new ArrayList<Mat>();
+	
+	/** When the frame was captured, in seconds */
+	private double captureTime;
+	/** The frame's number */
+	long number;
+	/** When the frame started going through the pipeline, from {@link System#nanoTime()} */
+	long startNanos;
+	/** The output of the last stage that processed the frame */
+	Object value;
+	
+	VisionFrame() {}
+	
+	/** @return The image, which the {@link FrameSource} grabs into */
+	public Mat getImage() {
+		if(image == null) image = new Mat();
+		return image;
+	}
+	
+	/** @return When the frame was captured, in seconds, in the {@link FrameSource}'s time base */
+	public double getCaptureTime() { return captureTime; }
+	
+	/**
+	 * Sets when the frame was captured, which is called by the {@link FrameSource}
+	 * @param seconds The time, in seconds
+	 */
+	public void setCaptureTime(double seconds) { captureTime = seconds; }
+	
+	/** @return The frame's number, counting every frame grabbed (including the ones dropped) from 0 */
+	public long getNumber() { return number; }
+	
+	/**
+	 * Gets a scratch {@link Mat}, which belongs to this frame, and is kept when the frame is reused. Stages can output into them,
+	 * so long as no later stage uses the same slot for something else.
+	 * @param slot The slot, from 0
+	 * @return The {@link Mat}
+	 */
+	public Mat getMat(int slot) {
+		while(mats.size() <= slot) mats.add(new Mat());
+		return mats.get(slot);
+	}
+}
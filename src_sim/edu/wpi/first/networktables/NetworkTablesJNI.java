@@ -0,0 +1,200 @@
+package edu.wpi.first.networktables;
+
+import java.nio.ByteBuffer;
+
+import micobyte.frc.lib.sim.SimNetworkTables;
+import micobyte.frc.lib.sim.SimNetworkTables.Notification;
+
+/**
+ * MBLib's pure-Java stand-in for ntcore's JNI wrapper, which doesn't load ntcore's native library. Entries are kept in this JVM by {@link SimNetworkTables},
+ * which every instance shares, and nothing is sent over the network, saved or loaded. Remote procedure calls throw an {@link UnsupportedOperationException}.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public final class NetworkTablesJNI {
+	/** The handle of the default instance */
+	private static final int DEFAULT_INSTANCE = 1;
+	/** The handle of the last instance created */
+	private static int lastInstance = DEFAULT_INSTANCE;
+	
+	private NetworkTablesJNI() {}
+	
+	/**
+	 * Gets an entry's value, if it is of a type
+	 * @param entry The entry's handle
+	 * @param type The type
+	 * @param defaultValue What to return if it isn't
+	 * @return The value, or the default
+	 */
+	private static Object get(int entry, int type, Object defaultValue) {
+		Object value = SimNetworkTables.getValue(entry);
+		return (SimNetworkTables.typeOf(value) == type ? value : defaultValue);
+	}
+	
+	/**
+	 * Converts notifications from {@link SimNetworkTables} into ntcore's
+	 * @param inst The instance
+	 * @param notifications The notifications
+	 * @return ntcore's notifications
+	 */
+	private static EntryNotification[] convert(NetworkTableInstance inst, Notification[] notifications) {
+		EntryNotification[] converted = new EntryNotification[notifications.length];
+		for(int i = 0; i < notifications.length; i++) {
+			Notification n = notifications[i];
+			converted[i] = new EntryNotification(inst, n.listener, n.entry, n.name, new NetworkTableValue(n.type, n.value, n.time), n.flags);
+		}
+		
+		return converted;
+	}
+	
+	/**
+	 * Waits for a poller that is never notified to be cancelled
+	 * @param poller The poller's handle
+	 * @param timeout The longest time to wait, in seconds, or a negative number for forever
+	 * @throws InterruptedException If the poll was cancelled
+	 */
+	private static void waitForCancel(int poller, double timeout) throws InterruptedException { SimNetworkTables.poll(poller, timeout); }
+	
+	public static int getDefaultInstance() { return DEFAULT_INSTANCE; }
+	public static synchronized int createInstance() { return ++lastInstance; }
+	public static void destroyInstance(int inst) {}
+	public static int getInstanceFromHandle(int handle) { return DEFAULT_INSTANCE; }
+	
+	public static int getEntry(int inst, String key) { return SimNetworkTables.getEntry(key); }
+	public static int[] getEntries(int inst, String prefix, int types) { return SimNetworkTables.getEntries(prefix, types); }
+	public static String getEntryName(int entry) { return SimNetworkTables.getName(entry); }
+	public static long getEntryLastChange(int entry) { return SimNetworkTables.getLastChange(entry); }
+	
+	public static int getType(int entry) { return SimNetworkTables.getType(entry); }
+	
+	public static boolean setBoolean(int entry, long time, boolean value, boolean force) { return SimNetworkTables.set(entry, value, force, true); }
+	public static boolean setDouble(int entry, long time, double value, boolean force) { return SimNetworkTables.set(entry, value, force, true); }
+	public static boolean setString(int entry, long time, String value, boolean force) { return SimNetworkTables.set(entry, value, force, true); }
+	public static boolean setRaw(int entry, long time, byte[] value, boolean force) { return SimNetworkTables.set(entry, value, force, true); }
+	public static boolean setRaw(int entry, long time, ByteBuffer value, int len, boolean force) { return setRaw(entry, time, toArray(value, len), force); }
+	public static boolean setBooleanArray(int entry, long time, boolean[] value, boolean force) { return SimNetworkTables.set(entry, value, force, true); }
+	public static boolean setDoubleArray(int entry, long time, double[] value, boolean force) { return SimNetworkTables.set(entry, value, force, true); }
+	public static boolean setStringArray(int entry, long time, String[] value, boolean force) { return SimNetworkTables.set(entry, value, force, true); }
+	
+	public static NetworkTableValue getValue(int entry) { return new NetworkTableValue(SimNetworkTables.getType(entry), SimNetworkTables.getValue(entry), SimNetworkTables.getLastChange(entry)); }
+	
+	public static boolean getBoolean(int entry, boolean defaultValue) { return (Boolean)get(entry, NetworkTableType.kBoolean.getValue(), defaultValue); }
+	public static double getDouble(int entry, double defaultValue) { return (Double)get(entry, NetworkTableType.kDouble.getValue(), defaultValue); }
+	public static String getString(int entry, String defaultValue) { return (String)get(entry, NetworkTableType.kString.getValue(), defaultValue); }
+	public static byte[] getRaw(int entry, byte[] defaultValue) { return (byte[])get(entry, NetworkTableType.kRaw.getValue(), defaultValue); }
+	public static boolean[] getBooleanArray(int entry, boolean[] defaultValue) { return (boolean[])get(entry, NetworkTableType.kBooleanArray.getValue(), defaultValue); }
+	public static double[] getDoubleArray(int entry, double[] defaultValue) { return (double[])get(entry, NetworkTableType.kDoubleArray.getValue(), defaultValue); }
+	public static String[] getStringArray(int entry, String[] defaultValue) { return (String[])get(entry, NetworkTableType.kStringArray.getValue(), defaultValue); }
+	
+	public static boolean setDefaultBoolean(int entry, long time, boolean defaultValue) { return SimNetworkTables.setDefault(entry, defaultValue); }
+	public static boolean setDefaultDouble(int entry, long time, double defaultValue) { return SimNetworkTables.setDefault(entry, defaultValue); }
+	public static boolean setDefaultString(int entry, long time, String defaultValue) { return SimNetworkTables.setDefault(entry, defaultValue); }
+	public static boolean setDefaultRaw(int entry, long time, byte[] defaultValue) { return SimNetworkTables.setDefault(entry, defaultValue); }
+	public static boolean setDefaultBooleanArray(int entry, long time, boolean[] defaultValue) { return SimNetworkTables.setDefault(entry, defaultValue); }
+	public static boolean setDefaultDoubleArray(int entry, long time, double[] defaultValue) { return SimNetworkTables.setDefault(entry, defaultValue); }
+	public static boolean setDefaultStringArray(int entry, long time, String[] defaultValue) { return SimNetworkTables.setDefault(entry, defaultValue); }
+	
+	public static void setEntryFlags(int entry, int flags) { SimNetworkTables.setFlags(entry, flags); }
+	public static int getEntryFlags(int entry) { return SimNetworkTables.getFlags(entry); }
+	
+	public static void deleteEntry(int entry) { SimNetworkTables.delete(entry); }
+	
+	public static void deleteAllEntries(int inst) { SimNetworkTables.deleteAll(); }
+	
+	public static EntryInfo getEntryInfoHandle(NetworkTableInstance inst, int entry) {
+		return new EntryInfo(inst, entry, SimNetworkTables.getName(entry), SimNetworkTables.getType(entry), SimNetworkTables.getFlags(entry), SimNetworkTables.getLastChange(entry));
+	}
+	
+	public static EntryInfo[] getEntryInfo(NetworkTableInstance instObject, int inst, String prefix, int types) {
+		int[] entries = SimNetworkTables.getEntries(prefix, types);
+		EntryInfo[] info = new EntryInfo[entries.length];
+		for(int i = 0; i < entries.length; i++) info[i] = getEntryInfoHandle(instObject, entries[i]);
+		
+		return info;
+	}
+	
+	public static int createEntryListenerPoller(int inst) { return SimNetworkTables.createPoller(); }
+	public static void destroyEntryListenerPoller(int poller) { SimNetworkTables.destroyPoller(poller); }
+	public static int addPolledEntryListener(int poller, String prefix, int flags) { return SimNetworkTables.addListener(poller, prefix, 0, flags); }
+	public static int addPolledEntryListener(int poller, int entry, int flags) { return SimNetworkTables.addListener(poller, null, entry, flags); }
+	public static EntryNotification[] pollEntryListener(NetworkTableInstance inst, int poller) throws InterruptedException { return convert(inst, SimNetworkTables.poll(poller, -1)); }
+	public static EntryNotification[] pollEntryListenerTimeout(NetworkTableInstance inst, int poller, double timeout) throws InterruptedException { return convert(inst, SimNetworkTables.poll(poller, timeout)); }
+	public static void cancelPollEntryListener(int poller) { SimNetworkTables.cancelPoll(poller); }
+	public static void removeEntryListener(int entryListener) { SimNetworkTables.removeListener(entryListener); }
+	public static boolean waitForEntryListenerQueue(int inst, double timeout) { return true; }
+	
+	public static int createConnectionListenerPoller(int inst) { return SimNetworkTables.createPoller(); }
+	public static void destroyConnectionListenerPoller(int poller) { SimNetworkTables.destroyPoller(poller); }
+	public static int addPolledConnectionListener(int poller, boolean immediateNotify) { return 0; }
+	public static ConnectionNotification[] pollConnectionListener(NetworkTableInstance inst, int poller) throws InterruptedException { waitForCancel(poller, -1); return new ConnectionNotification[0]; }
+	public static ConnectionNotification[] pollConnectionListenerTimeout(NetworkTableInstance inst, int poller, double timeout) throws InterruptedException { waitForCancel(poller, timeout); return new ConnectionNotification[0]; }
+	public static void cancelPollConnectionListener(int poller) { SimNetworkTables.cancelPoll(poller); }
+	public static void removeConnectionListener(int connListener) {}
+	public static boolean waitForConnectionListenerQueue(int inst, double timeout) { return true; }
+	
+	public static int createRpcCallPoller(int inst) { return SimNetworkTables.createPoller(); }
+	public static void destroyRpcCallPoller(int poller) { SimNetworkTables.destroyPoller(poller); }
+	public static void createPolledRpc(int entry, byte[] def, int poller) { throw new UnsupportedOperationException("Remote procedure calls aren't simulated"); }
+	public static RpcAnswer[] pollRpc(NetworkTableInstance inst, int poller) throws InterruptedException { waitForCancel(poller, -1); return new RpcAnswer[0]; }
+	public static RpcAnswer[] pollRpcTimeout(NetworkTableInstance inst, int poller, double timeout) throws InterruptedException { waitForCancel(poller, timeout); return new RpcAnswer[0]; }
+	public static void cancelPollRpc(int poller) { SimNetworkTables.cancelPoll(poller); }
+	public static boolean waitForRpcCallQueue(int inst, double timeout) { return true; }
+	public static void postRpcResponse(int entry, int call, byte[] result) { throw new UnsupportedOperationException("Remote procedure calls aren't simulated"); }
+	public static int callRpc(int entry, byte[] params) { throw new UnsupportedOperationException("Remote procedure calls aren't simulated"); }
+	public static byte[] getRpcResult(int entry, int call) { throw new UnsupportedOperationException("Remote procedure calls aren't simulated"); }
+	public static byte[] getRpcResult(int entry, int call, double timeout) { throw new UnsupportedOperationException("Remote procedure calls aren't simulated"); }
+	public static void cancelRpcResult(int entry, int call) {}
+	
+	public static byte[] getRpc(int entry, byte[] defaultValue) { return defaultValue; }
+	
+	public static void setNetworkIdentity(int inst, String name) {}
+	public static int getNetworkMode(int inst) { return NetworkTableInstance.kNetModeNone; }
+	public static void startServer(int inst, String persistFilename, String listenAddress, int port) {}
+	public static void stopServer(int inst) {}
+	public static void startClient(int inst) {}
+	public static void startClient(int inst, String serverName, int port) {}
+	public static void startClient(int inst, String[] serverNames, int[] ports) {}
+	public static void startClientTeam(int inst, int team, int port) {}
+	public static void stopClient(int inst) {}
+	public static void setServer(int inst, String serverName, int port) {}
+	public static void setServer(int inst, String[] serverNames, int[] ports) {}
+	public static void setServerTeam(int inst, int team, int port) {}
+	public static void startDSClient(int inst, int port) {}
+	public static void stopDSClient(int inst) {}
+	public static void setUpdateRate(int inst, double interval) {}
+	
+	public static void flush(int inst) {}
+	
+	public static ConnectionInfo[] getConnections(int inst) { return new ConnectionInfo[0]; }
+	
+	public static boolean isConnected(int inst) { return false; }
+	
+	public static void savePersistent(int inst, String filename) throws PersistentException {}
+	public static String[] loadPersistent(int inst, String filename) throws PersistentException { return new String[0]; }
+	
+	public static void saveEntries(int inst, String filename, String prefix) throws PersistentException {}
+	public static String[] loadEntries(int inst, String filename, String prefix) throws PersistentException { return new String[0]; }
+	
+	public static long now() { return SimNetworkTables.now(); }
+	
+	public static int createLoggerPoller(int inst) { return SimNetworkTables.createPoller(); }
+	public static void destroyLoggerPoller(int poller) { SimNetworkTables.destroyPoller(poller); }
+	public static int addPolledLogger(int poller, int minLevel, int maxLevel) { return 0; }
+	public static LogMessage[] pollLogger(NetworkTableInstance inst, int poller) throws InterruptedException { waitForCancel(poller, -1); return new LogMessage[0]; }
+	public static LogMessage[] pollLoggerTimeout(NetworkTableInstance inst, int poller, double timeout) throws InterruptedException { waitForCancel(poller, timeout); return new LogMessage[0]; }
+	public static void cancelPollLogger(int poller) { SimNetworkTables.cancelPoll(poller); }
+	public static void removeLogger(int logger) {}
+	public static boolean waitForLoggerQueue(int inst, double timeout) { return true; }
+	
+	/**
+	 * Copies the start of a {@link ByteBuffer}
+	 * @param buffer The buffer
+	 * @param len How many bytes to copy
+	 * @return The bytes
+	 */
+	private static byte[] toArray(ByteBuffer buffer, int len) {
+		byte[] bytes = new byte[len];
+		for(int i = 0; i < len; i++) bytes[i] = buffer.get(i);
+		
+		return bytes;
+	}
+}
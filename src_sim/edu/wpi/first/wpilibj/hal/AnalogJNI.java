@@ -0,0 +1,107 @@
+package edu.wpi.first.wpilibj.hal;
+
+import java.nio.IntBuffer;
+
+import edu.wpi.first.wpilibj.AccumulatorResult;
+
+import micobyte.frc.lib.sim.SimHAL;
+
+/**
+ * MBLib's pure-Java stand-in for WPILib's analog I/O JNI wrapper, which simulates the analog inputs and outputs using {@link SimHAL}.
+ * Accumulators always read 0, and analog triggers are not simulated. Handles are channel numbers.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public class AnalogJNI extends JNIWrapper {
+	/** The voltage that reads as the highest raw value */
+	private static final double FULL_SCALE = 5;
+	/** The highest raw value */
+	private static final int MAX_VALUE = 4095;
+	
+	/**
+	 * The types of analog trigger output
+	 */
+	public interface AnalogTriggerType {
+		int kInWindow = 0;
+		int kState = 1;
+		int kRisingPulse = 2;
+		int kFallingPulse = 3;
+	}
+	
+	public static int initializeAnalogInputPort(int halPortHandle) { return halPortHandle; }
+	
+	public static void freeAnalogInputPort(int portHandle) {}
+	
+	public static int initializeAnalogOutputPort(int halPortHandle) { return halPortHandle; }
+	
+	public static void freeAnalogOutputPort(int portHandle) {}
+	
+	public static boolean checkAnalogModule(byte module) { return module == 1; }
+	
+	public static boolean checkAnalogInputChannel(int channel) { return channel >= 0 && channel < SimHAL.ANALOG_INPUTS; }
+	
+	public static boolean checkAnalogOutputChannel(int channel) { return channel >= 0 && channel < SimHAL.ANALOG_OUTPUTS; }
+	
+	public static void setAnalogOutput(int portHandle, double voltage) { SimHAL.setAnalogOutput(portHandle, voltage); }
+	
+	public static double getAnalogOutput(int portHandle) { return SimHAL.getAnalogOutput(portHandle); }
+	
+	public static void setAnalogSampleRate(double samplesPerSecond) {}
+	
+	public static double getAnalogSampleRate() { return 50000; }
+	
+	public static void setAnalogAverageBits(int analogPortHandle, int bits) {}
+	
+	public static int getAnalogAverageBits(int analogPortHandle) { return 0; }
+	
+	public static void setAnalogOversampleBits(int analogPortHandle, int bits) {}
+	
+	public static int getAnalogOversampleBits(int analogPortHandle) { return 0; }
+	
+	public static short getAnalogValue(int analogPortHandle) { return (short)getAnalogVoltsToValue(analogPortHandle, SimHAL.getAnalogInput(analogPortHandle)); }
+	
+	public static int getAnalogAverageValue(int analogPortHandle) { return getAnalogValue(analogPortHandle); }
+	
+	public static int getAnalogVoltsToValue(int analogPortHandle, double voltage) { return (int)Math.round(Math.max(0, Math.min(FULL_SCALE, voltage)) / FULL_SCALE * MAX_VALUE); }
+	
+	public static double getAnalogVoltage(int analogPortHandle) { return SimHAL.getAnalogInput(analogPortHandle); }
+	
+	public static double getAnalogAverageVoltage(int analogPortHandle) { return SimHAL.getAnalogInput(analogPortHandle); }
+	
+	public static int getAnalogLSBWeight(int analogPortHandle) { return (int)Math.round(FULL_SCALE / (MAX_VALUE + 1) * 1e9); }
+	
+	public static int getAnalogOffset(int analogPortHandle) { return 0; }
+	
+	public static boolean isAccumulatorChannel(int analogPortHandle) { return analogPortHandle < 2; }
+	
+	public static void initAccumulator(int analogPortHandle) {}
+	
+	public static void resetAccumulator(int analogPortHandle) {}
+	
+	public static void setAccumulatorCenter(int analogPortHandle, int center) {}
+	
+	public static void setAccumulatorDeadband(int analogPortHandle, int deadband) {}
+	
+	public static long getAccumulatorValue(int analogPortHandle) { return 0; }
+	
+	public static int getAccumulatorCount(int analogPortHandle) { return 0; }
+	
+	public static void getAccumulatorOutput(int analogPortHandle, AccumulatorResult result) { result.value = 0; result.count = 0; }
+	
+	public static int initializeAnalogTrigger(int analogInputHandle, IntBuffer index) { throw new UnsupportedOperationException("Analog triggers aren't simulated"); }
+	
+	public static void cleanAnalogTrigger(int analogTriggerHandle) {}
+	
+	public static void setAnalogTriggerLimitsRaw(int analogTriggerHandle, int lower, int upper) {}
+	
+	public static void setAnalogTriggerLimitsVoltage(int analogTriggerHandle, double lower, double upper) {}
+	
+	public static void setAnalogTriggerAveraged(int analogTriggerHandle, boolean useAveragedValue) {}
+	
+	public static void setAnalogTriggerFiltered(int analogTriggerHandle, boolean useFilteredValue) {}
+	
+	public static boolean getAnalogTriggerInWindow(int analogTriggerHandle) { return false; }
+	
+	public static boolean getAnalogTriggerTriggerState(int analogTriggerHandle) { return false; }
+	
+	public static boolean getAnalogTriggerOutput(int analogTriggerHandle, int type) { return false; }
+}
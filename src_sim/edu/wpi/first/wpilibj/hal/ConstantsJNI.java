@@ -0,0 +1,9 @@
+package edu.wpi.first.wpilibj.hal;
+
+/**
+ * MBLib's pure-Java stand-in for WPILib's constants JNI wrapper.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public class ConstantsJNI extends JNIWrapper {
+	public static int getSystemClockTicksPerMicrosecond() { return 40; }
+}
@@ -0,0 +1,40 @@
+package edu.wpi.first.wpilibj.hal;
+
+import micobyte.frc.lib.sim.SimHAL;
+
+/**
+ * MBLib's pure-Java stand-in for WPILib's digital I/O JNI wrapper, which simulates the digital I/O channels using {@link SimHAL}.
+ * Pulses and digital PWM outputs are not simulated. Handles are channel numbers.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public class DIOJNI extends JNIWrapper {
+	public static int initializeDIOPort(int halPortHandle, boolean input) { return halPortHandle; }
+	
+	public static boolean checkDIOChannel(int channel) { return channel >= 0 && channel < SimHAL.DIO_CHANNELS; }
+	
+	public static void freeDIOPort(int dioPortHandle) {}
+	
+	public static void setDIO(int dioPortHandle, short value) { SimHAL.setDIO(dioPortHandle, value != 0); }
+	
+	public static boolean getDIO(int dioPortHandle) { return SimHAL.getDIO(dioPortHandle); }
+	
+	public static boolean getDIODirection(int dioPortHandle) { return true; }
+	
+	public static void pulse(int dioPortHandle, double pulseLength) {}
+	
+	public static boolean isPulsing(int dioPortHandle) { return false; }
+	
+	public static boolean isAnyPulsing() { return false; }
+	
+	public static short getLoopTiming() { return 0; }
+	
+	public static int allocateDigitalPWM() { return 0; }
+	
+	public static void freeDigitalPWM(int pwmGenerator) {}
+	
+	public static void setDigitalPWMRate(double rate) {}
+	
+	public static void setDigitalPWMDutyCycle(int pwmGenerator, double dutyCycle) {}
+	
+	public static void setDigitalPWMOutputChannel(int pwmGenerator, int channel) {}
+}
@@ -0,0 +1,87 @@
+package edu.wpi.first.wpilibj.hal;
+
+import java.nio.ByteBuffer;
+
+import micobyte.frc.lib.sim.SimHAL;
+
+/**
+ * MBLib's pure-Java stand-in for WPILib's HAL JNI wrapper, which simulates the driver station and joysticks using {@link SimHAL}.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public class HAL extends JNIWrapper {
+	public static int kMaxJoystickAxes = 12;
+	public static int kMaxJoystickPOVs = 12;
+	
+	public static void waitForDSData() { SimHAL.waitForDSThreadPacket(); }
+	
+	public static boolean initialize(int timeout, int mode) { return true; }
+	
+	public static void observeUserProgramStarting() {}
+	
+	public static void observeUserProgramDisabled() {}
+	
+	public static void observeUserProgramAutonomous() {}
+	
+	public static void observeUserProgramTeleop() {}
+	
+	public static void observeUserProgramTest() {}
+	
+	public static void report(int resource, int instanceNumber) { report(resource, instanceNumber, 0, ""); }
+	
+	public static void report(int resource, int instanceNumber, int context) { report(resource, instanceNumber, context, ""); }
+	
+	public static int report(int resource, int instanceNumber, int context, String feature) { return 0; }
+	
+	public static void getControlWord(ControlWord controlWord) {
+		int word = SimHAL.getControlWord();
+		controlWord.update((word & 1) != 0, ((word >> 1) & 1) != 0, ((word >> 2) & 1) != 0, ((word >> 3) & 1) != 0, ((word >> 4) & 1) != 0, ((word >> 5) & 1) != 0);
+	}
+	
+	public static AllianceStationID getAllianceStation() { return AllianceStationID.values()[SimHAL.getAllianceStation()]; }
+	
+	public static boolean isNewControlData() { return SimHAL.isNewControlData(); }
+	
+	public static void releaseDSMutex() {}
+	
+	public static boolean waitForDSDataTimeout(double timeout) { return SimHAL.waitForRobotPacket(timeout); }
+	
+	public static short getJoystickAxes(byte joystickNum, float[] axesArray) { return SimHAL.getJoystickAxes(joystickNum, axesArray); }
+	
+	public static short getJoystickPOVs(byte joystickNum, short[] povsArray) { return SimHAL.getJoystickPOVs(joystickNum, povsArray); }
+	
+	public static int getJoystickButtons(byte joystickNum, ByteBuffer count) {
+		count.put(0, (byte)SimHAL.getJoystickButtonCount(joystickNum));
+		return SimHAL.getJoystickButtons(joystickNum);
+	}
+	
+	public static int setJoystickOutputs(byte joystickNum, int outputs, short leftRumble, short rightRumble) {
+		SimHAL.setJoystickRumble(joystickNum, leftRumble & 0xFFFF, rightRumble & 0xFFFF);
+		return 0;
+	}
+	
+	public static int getJoystickIsXbox(byte joystickNum) { return (SimHAL.isJoystickXbox(joystickNum) ? 1 : 0); }
+	
+	public static int getJoystickType(byte joystickNum) { return SimHAL.getJoystickType(joystickNum); }
+	
+	public static String getJoystickName(byte joystickNum) { return SimHAL.getJoystickName(joystickNum); }
+	
+	public static int getJoystickAxisType(byte joystickNum, byte axis) { return 0; }
+	
+	public static double getMatchTime() { return SimHAL.getMatchTime(); }
+	
+	public static boolean getSystemActive() { return true; }
+	
+	public static boolean getBrownedOut() { return SimHAL.isBrownedOut(); }
+	
+	public static int getMatchInfo(MatchInfoData info) {
+		Object[] data = SimHAL.getMatchInfo();
+		info.setData((String)data[0], (String)data[1], (Integer)data[2], (Integer)data[3], (Integer)data[4]);
+		
+		return 0;
+	}
+	
+	public static int sendError(boolean isError, int errorCode, boolean isLVCode, String details, String location, String callStack, boolean printMsg) {
+		if(printMsg) System.err.println((isError ? "ERROR " : "Warning ") + errorCode + " " + details + " " + location + "\n" + callStack);
+		return 0;
+	}
+}
@@ -0,0 +1,37 @@
+package edu.wpi.first.wpilibj.hal;
+
+import micobyte.frc.lib.sim.SimHAL;
+
+/**
+ * MBLib's pure-Java stand-in for WPILib's HAL utility JNI wrapper, which simulates the FPGA using {@link SimHAL}.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public class HALUtil extends JNIWrapper {
+	public static final int NULL_PARAMETER = -1005;
+	public static final int SAMPLE_RATE_TOO_HIGH = 1001;
+	public static final int VOLTAGE_OUT_OF_RANGE = 1002;
+	public static final int LOOP_TIMING_ERROR = 1004;
+	public static final int INCOMPATIBLE_STATE = 1015;
+	public static final int ANALOG_TRIGGER_PULSE_OUTPUT_ERROR = -1011;
+	public static final int NO_AVAILABLE_RESOURCES = -104;
+	public static final int PARAMETER_OUT_OF_RANGE = -1028;
+	
+	public static short getFPGAVersion() { return 2018; }
+	
+	public static int getFPGARevision() { return 0; }
+	
+	public static long getFPGATime() { return SimHAL.getFPGATime(); }
+	
+	/** @return 1, meaning the HAL is not running on a roboRIO */
+	public static int getHALRuntimeType() { return 1; }
+	
+	public static boolean getFPGAButton() { return SimHAL.getUserButton(); }
+	
+	public static String getHALErrorMessage(int code) { return "Simulated HAL error " + code; }
+	
+	public static int getHALErrno() { return 0; }
+	
+	public static String getHALstrerror(int errno) { return ""; }
+	
+	public static String getHALstrerror() { return getHALstrerror(getHALErrno()); }
+}
@@ -0,0 +1,13 @@
+package edu.wpi.first.wpilibj.hal;
+
+/**
+ * MBLib's pure-Java stand-in for WPILib's base class for all JNI wrappers, which doesn't load the roboRIO's native library.<br>
+ * Every stand-in in this package is backed by {@link micobyte.frc.lib.sim.SimHAL SimHAL}. Any JNI class that has no stand-in still extends this class,
+ * so calling one of its methods will throw an {@link UnsatisfiedLinkError}.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public class JNIWrapper {
+	public static int getPortWithModule(byte module, byte channel) { return channel; }
+	
+	public static int getPort(byte channel) { return channel; }
+}
@@ -0,0 +1,21 @@
+package edu.wpi.first.wpilibj.hal;
+
+import micobyte.frc.lib.sim.SimHAL;
+
+/**
+ * MBLib's pure-Java stand-in for WPILib's notifier JNI wrapper. Alarms go off in simulated time, as it is {@link SimHAL#advance(double) advanced}.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public class NotifierJNI extends JNIWrapper {
+	public static int initializeNotifier() { return SimHAL.createNotifier(); }
+	
+	public static void stopNotifier(int notifierHandle) { SimHAL.stopNotifier(notifierHandle); }
+	
+	public static void cleanNotifier(int notifierHandle) {}
+	
+	public static void updateNotifierAlarm(int notifierHandle, long triggerTime) { SimHAL.setNotifierAlarm(notifierHandle, triggerTime); }
+	
+	public static void cancelNotifierAlarm(int notifierHandle) { SimHAL.setNotifierAlarm(notifierHandle, -1); }
+	
+	public static long waitForNotifierAlarm(int notifierHandle) { return SimHAL.waitForNotifier(notifierHandle); }
+}
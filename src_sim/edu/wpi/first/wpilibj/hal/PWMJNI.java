@@ -0,0 +1,57 @@
+package edu.wpi.first.wpilibj.hal;
+
+import java.lang.reflect.Constructor;
+
+import edu.wpi.first.wpilibj.PWMConfigDataResult;
+
+import micobyte.frc.lib.sim.SimHAL;
+
+/**
+ * MBLib's pure-Java stand-in for WPILib's PWM JNI wrapper, which records what each PWM channel (and so each {@link edu.wpi.first.wpilibj.SpeedController SpeedController})
+ * is set to in {@link SimHAL}. Handles are channel numbers.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public class PWMJNI extends DIOJNI {
+	public static int initializePWMPort(int halPortHandle) { return halPortHandle; }
+	
+	public static boolean checkPWMChannel(int channel) { return channel >= 0 && channel < SimHAL.PWM_CHANNELS; }
+	
+	public static void freePWMPort(int pwmPortHandle) { SimHAL.setPWMRaw(pwmPortHandle, (short)0); }
+	
+	public static void setPWMConfigRaw(int pwmPortHandle, int maxPwm, int deadbandMaxPwm, int centerPwm, int deadbandMinPwm, int minPwm) {}
+	
+	public static void setPWMConfig(int pwmPortHandle, double maxPwm, double deadbandMaxPwm, double centerPwm, double deadbandMinPwm, double minPwm) {}
+	
+	public static PWMConfigDataResult getPWMConfigRaw(int pwmPortHandle) {
+		try {
+			Constructor<PWMConfigDataResult> c = PWMConfigDataResult.class.getDeclaredConstructor(int.class, int.class, int.class, int.class, int.class);
+			c.setAccessible(true);
+			
+			return c.newInstance(2000, 1501, 1500, 1499, 1000);
+		} catch(ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	public static void setPWMEliminateDeadband(int pwmPortHandle, boolean eliminateDeadband) {}
+	
+	public static boolean getPWMEliminateDeadband(int pwmPortHandle) { return false; }
+	
+	public static void setPWMRaw(int pwmPortHandle, short value) { SimHAL.setPWMRaw(pwmPortHandle, value); }
+	
+	public static void setPWMSpeed(int pwmPortHandle, double speed) { SimHAL.setPWMSpeed(pwmPortHandle, Math.max(-1, Math.min(1, speed))); }
+	
+	public static void setPWMPosition(int pwmPortHandle, double position) { setPWMSpeed(pwmPortHandle, position * 2 - 1); }
+	
+	public static short getPWMRaw(int pwmPortHandle) { return SimHAL.getPWMRaw(pwmPortHandle); }
+	
+	public static double getPWMSpeed(int pwmPortHandle) { return SimHAL.getPWMSpeed(pwmPortHandle); }
+	
+	public static double getPWMPosition(int pwmPortHandle) { return (SimHAL.getPWMSpeed(pwmPortHandle) + 1) / 2; }
+	
+	public static void setPWMDisabled(int pwmPortHandle) { SimHAL.setPWMRaw(pwmPortHandle, (short)0); }
+	
+	public static void latchPWMZero(int pwmPortHandle) {}
+	
+	public static void setPWMPeriodScale(int pwmPortHandle, int squelchMask) {}
+}
@@ -0,0 +1,45 @@
+package edu.wpi.first.wpilibj.hal;
+
+import micobyte.frc.lib.sim.SimHAL;
+
+/**
+ * MBLib's pure-Java stand-in for WPILib's port count JNI wrapper, which reports a roboRIO's ports.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public class PortsJNI extends JNIWrapper {
+	public static int getNumAccumulators() { return 2; }
+	
+	public static int getNumAnalogTriggers() { return 8; }
+	
+	public static int getNumAnalogInputs() { return SimHAL.ANALOG_INPUTS; }
+	
+	public static int getNumAnalogOutputs() { return SimHAL.ANALOG_OUTPUTS; }
+	
+	public static int getNumCounters() { return 8; }
+	
+	public static int getNumDigitalHeaders() { return 10; }
+	
+	public static int getNumPWMHeaders() { return 10; }
+	
+	public static int getNumDigitalChannels() { return SimHAL.DIO_CHANNELS; }
+	
+	public static int getNumPWMChannels() { return SimHAL.PWM_CHANNELS; }
+	
+	public static int getNumDigitalPWMOutputs() { return 6; }
+	
+	public static int getNumEncoders() { return 8; }
+	
+	public static int getNumInterrupts() { return 8; }
+	
+	public static int getNumRelayChannels() { return 8; }
+	
+	public static int getNumRelayHeaders() { return 4; }
+	
+	public static int getNumPCMModules() { return 63; }
+	
+	public static int getNumSolenoidChannels() { return 8; }
+	
+	public static int getNumPDPModules() { return 63; }
+	
+	public static int getNumPDPChannels() { return 16; }
+}
@@ -0,0 +1,38 @@
+package edu.wpi.first.wpilibj.hal;
+
+import micobyte.frc.lib.sim.SimHAL;
+
+/**
+ * MBLib's pure-Java stand-in for WPILib's power JNI wrapper, which reports the {@link SimHAL#setBatteryVoltage(double) simulated battery voltage},
+ * and healthy user rails.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public class PowerJNI extends JNIWrapper {
+	public static double getVinVoltage() { return SimHAL.getBatteryVoltage(); }
+	
+	public static double getVinCurrent() { return 0; }
+	
+	public static double getUserVoltage6V() { return 6; }
+	
+	public static double getUserCurrent6V() { return 0; }
+	
+	public static boolean getUserActive6V() { return true; }
+	
+	public static int getUserCurrentFaults6V() { return 0; }
+	
+	public static double getUserVoltage5V() { return 5; }
+	
+	public static double getUserCurrent5V() { return 0; }
+	
+	public static boolean getUserActive5V() { return true; }
+	
+	public static int getUserCurrentFaults5V() { return 0; }
+	
+	public static double getUserVoltage3V3() { return 3.3; }
+	
+	public static double getUserCurrent3V3() { return 0; }
+	
+	public static boolean getUserActive3V3() { return true; }
+	
+	public static int getUserCurrentFaults3V3() { return 0; }
+}
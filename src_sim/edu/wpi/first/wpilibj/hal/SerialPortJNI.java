@@ -0,0 +1,47 @@
+package edu.wpi.first.wpilibj.hal;
+
+import micobyte.frc.lib.sim.SimHAL;
+
+/**
+ * MBLib's pure-Java stand-in for WPILib's serial port JNI wrapper, which {@link SimHAL#sendSerial(int, byte[]) feeds} and
+ * {@link SimHAL#receiveSerial(int) records} each port in {@link SimHAL}, or {@link SimHAL#setSerialLoopback(int, boolean) loops it back}.
+ * Reads never wait for data, and the port settings are ignored.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public class SerialPortJNI extends JNIWrapper {
+	public static void serialInitializePort(byte port) { SimHAL.clearSerial(port); }
+	
+	public static void serialSetBaudRate(byte port, int baud) {}
+	
+	public static void serialSetDataBits(byte port, byte bits) {}
+	
+	public static void serialSetParity(byte port, byte parity) {}
+	
+	public static void serialSetStopBits(byte port, byte stopBits) {}
+	
+	public static void serialSetWriteMode(byte port, byte mode) {}
+	
+	public static void serialSetFlowControl(byte port, byte flow) {}
+	
+	public static void serialSetTimeout(byte port, double timeout) {}
+	
+	public static void serialEnableTermination(byte port, char terminator) {}
+	
+	public static void serialDisableTermination(byte port) {}
+	
+	public static void serialSetReadBufferSize(byte port, int size) {}
+	
+	public static void serialSetWriteBufferSize(byte port, int size) {}
+	
+	public static int serialGetBytesReceived(byte port) { return SimHAL.getSerialBytesReceived(port); }
+	
+	public static int serialRead(byte port, byte[] buffer, int count) { return SimHAL.readSerial(port, buffer, count); }
+	
+	public static int serialWrite(byte port, byte[] buffer, int count) { return SimHAL.writeSerial(port, buffer, count); }
+	
+	public static void serialFlush(byte port) {}
+	
+	public static void serialClear(byte port) { SimHAL.clearSerial(port); }
+	
+	public static void serialClose(byte port) { SimHAL.clearSerial(port); }
+}
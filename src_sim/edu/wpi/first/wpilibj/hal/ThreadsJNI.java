@@ -0,0 +1,13 @@
+package edu.wpi.first.wpilibj.hal;
+
+/**
+ * MBLib's pure-Java stand-in for WPILib's thread priority JNI wrapper. Priorities are not changed on a desktop JVM.<br>
+ * <b>This is an internal class. It should not be used by the end user.</b>
+ */
+public class ThreadsJNI extends JNIWrapper {
+	public static int getCurrentThreadPriority() { return 0; }
+	
+	public static boolean getCurrentThreadIsRealTime() { return false; }
+	
+	public static boolean setCurrentThreadPriority(boolean realTime, int priority) { return true; }
+}
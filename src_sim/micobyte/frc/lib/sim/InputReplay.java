@@ -0,0 +1,130 @@
+package micobyte.frc.lib.sim;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import edu.wpi.first.wpilibj.hal.AllianceStationID;
+
+import micobyte.frc.lib.io.InputRecorder;
+
+/**
+ * Replays an {@link InputRecorder input recording} into a {@link RobotSimulator}, one recorded tick per {@link RobotSimulator#step(double) step}.<br>
+ * Each step moves time forwards to when the tick was recorded, and feeds the robot the same driver station state, joysticks, digital and analog inputs,
+ * and serial lines, so the robot gives the same outputs and runs the same {@link edu.wpi.first.wpilibj.command.Command commands} as it did, as fast as it can.
+ */
+public class InputReplay {
+	/** The largest raw value of an analog input */
+	private static final double ANALOG_MAX_VALUE = 4095;
+	/** The voltage of the largest raw value of an analog input */
+	private static final double ANALOG_FULL_SCALE = 5;
+	
+	/** The recording */
+	private final ByteBuffer data;
+	/** The recorded FPGA time of the last tick replayed, in microseconds, or -1 if none has been */
+	private long lastTime = -1;
+	/** The number of ticks replayed */
+	private long ticks;
+	
+	/**
+	 * Creates the replay
+	 * @param recording The recording, as {@link InputRecorder#writeTo(java.io.OutputStream) written}
+	 * @throws IllegalArgumentException If it isn't a recording
+	 */
+	public InputReplay(byte[] recording) {
+		data = ByteBuffer.wrap(recording);
+		
+		if(data.remaining() < 5 || data.getInt() != InputRecorder.MAGIC) throw new IllegalArgumentException("Not an input recording");
+		if(data.get() != InputRecorder.VERSION) throw new IllegalArgumentException("Unsupported input recording version");
+	}
+	
+	/**
+	 * Creates the replay from a saved recording
+	 * @param file The file
+	 * @throws IOException If it couldn't be read
+	 */
+	public InputReplay(File file) throws IOException { this(Files.readAllBytes(file.toPath())); }
+	
+	/**
+	 * Reads a string, as a short length then its characters as bytes
+	 * @return The string
+	 */
+	private String getString() {
+		char[] chars = new char[data.getShort()];
+		for(int i = 0; i < chars.length; i++) chars[i] = (char)(data.get() & 0xFF);
+		
+		return new String(chars);
+	}
+	
+	/**
+	 * Feeds the simulator every record up to the next tick
+	 */
+	private void applyRecords() {
+		while(data.hasRemaining() && data.get(data.position()) != InputRecorder.TICK) {
+			byte type = data.get();
+			
+			if(type == InputRecorder.JOYSTICK) {
+				int stick = data.get(), axes = data.get();
+				for(int i = 0; i < axes; i++) SimHAL.setJoystickAxis(stick, i, data.getFloat());
+				
+				int povs = data.get();
+				for(int i = 0; i < povs; i++) SimHAL.setJoystickPOV(stick, i, data.getShort());
+				
+				int buttonCount = data.get();
+				SimHAL.setJoystickButtons(stick, data.getInt());
+				SimHAL.setJoystickCounts(stick, axes, povs, buttonCount);
+			} else if(type == InputRecorder.MATCH) {
+				SimHAL.setAllianceStation(AllianceStationID.values()[data.get()]);
+				SimHAL.setGameSpecificMessage(getString());
+			} else if(type == InputRecorder.DIGITAL) {
+				SimHAL.setDIO(data.get(), data.get() != 0);
+			} else if(type == InputRecorder.ANALOG) {
+				SimHAL.setAnalogInput(data.get(), data.getShort() / ANALOG_MAX_VALUE * ANALOG_FULL_SCALE);
+			} else if(type == InputRecorder.SERIAL_LINE) {
+				int port = data.get();
+				SimHAL.sendSerial(port, (getString() + "\n").getBytes(StandardCharsets.ISO_8859_1));
+			} else throw new IllegalStateException("Corrupt input recording");
+		}
+	}
+	
+	/**
+	 * Replays the next recorded tick. Anything recorded before the first tick (such as while the robot started up) is replayed with it.
+	 * @param sim The simulator
+	 * @return false if there are no more ticks
+	 * @throws IllegalStateException If the robot has stopped
+	 */
+	public boolean step(RobotSimulator sim) {
+		applyRecords();
+		if(!data.hasRemaining()) return false;
+		data.get();
+		
+		long time = data.getLong();
+		int word = data.get();
+		SimHAL.setMode((word & 1) != 0, (word & 2) != 0, (word & 4) != 0);
+		SimHAL.setAttached((word & 16) != 0, (word & 32) != 0);
+		SimHAL.setMatchTime(data.getFloat());
+		applyRecords();
+		
+		sim.step((time - (lastTime < 0 ? Math.min(time, SimHAL.getFPGATime()) : lastTime)) / 1e6);
+		lastTime = time;
+		ticks++;
+		
+		return true;
+	}
+	
+	/**
+	 * Replays every remaining recorded tick, as fast as possible
+	 * @param sim The simulator
+	 * @return The number of ticks replayed
+	 * @throws IllegalStateException If the robot has stopped
+	 */
+	public long run(RobotSimulator sim) {
+		while(step(sim));
+		return ticks;
+	}
+	
+	/** @return The number of ticks replayed */
+	public long getTicks() { return ticks; }
+}
@@ -0,0 +1,173 @@
+package micobyte.frc.lib.sim;
+
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.RobotBase;
+
+/**
+ * A {@link RobotSimulator} that drives a robot (such as a {@link micobyte.frc.lib.robot.CommandBasedRobot CommandBasedRobot}) through scripted match phases,
+ * with the FMS attached and the match time counting down like on the field.<br>
+ * Time only moves with each {@link #step() step}, so {@link edu.wpi.first.wpilibj.command.WaitCommand WaitCommands}, {@link edu.wpi.first.wpilibj.command.TimedCommand TimedCommands},
+ * {@link micobyte.frc.lib.command.MeteredTimedCommand MeteredTimedCommands} and {@link micobyte.frc.lib.io.RumbleSeries#play(edu.wpi.first.wpilibj.GenericHID) asynchronously played}
+ * {@link micobyte.frc.lib.io.RumbleSeries RumbleSeries} (which are played by a {@link edu.wpi.first.wpilibj.Notifier Notifier}) take exactly as long on every run,
+ * however fast the computer is. The real time each step takes is measured, so the robot's per-tick cost can be found without a robot.
+ */
+public class MatchSimulator extends RobotSimulator {
+	/** The length of the autonomous period, in seconds */
+	public static final double AUTONOMOUS_LENGTH = 15;
+	/** The length of the teleop period, in seconds */
+	public static final double TELEOP_LENGTH = 135;
+	/** How long the robot is disabled between the autonomous and teleop periods, in seconds */
+	public static final double PERIOD_GAP = 1;
+	
+	/**
+	 * The phases of a match
+	 */
+	public enum Phase {
+		/** The robot is disabled */
+		DISABLED(false, false, false),
+		/** The robot is in autonomous mode */
+		AUTONOMOUS(true, true, false),
+		/** The robot is in teleop mode */
+		TELEOP(true, false, false),
+		/** The robot is in test mode */
+		TEST(true, false, true);
+		
+		/** Whether the robot is enabled */
+		private final boolean enabled;
+		/** Whether the robot is in autonomous mode */
+		private final boolean autonomous;
+		/** Whether the robot is in test mode */
+		private final boolean test;
+		
+		private Phase(boolean enabled, boolean autonomous, boolean test) {
+			this.enabled = enabled;
+			this.autonomous = autonomous;
+			this.test = test;
+		}
+	}
+	
+	/**
+	 * An action scheduled for a simulated time
+	 */
+	private static class Event {
+		/** When to run the action, in simulated seconds */
+		private final double time;
+		/** The action */
+		private final Runnable action;
+		
+		private Event(double time, Runnable action) {
+			this.time = time;
+			this.action = action;
+		}
+	}
+	
+	/** The scheduled actions, in the order they are run */
+	private final ArrayList<Event> events = new ArrayList<Event>();
+	
+	/** The current phase */
+	private Phase phase = Phase.DISABLED;
+	/** The number of steps measured */
+	private long ticks;
+	/** The total real time of every step measured, in nanoseconds */
+	private long totalTickTime;
+	/** The longest real time of a step measured, in nanoseconds */
+	private long maxTickTime;
+	
+	/**
+	 * Sets up WPILib the same way {@link RobotBase#main(String...)} does, then creates the robot and the simulator. The robot is started by the first {@link #step()}.
+	 * @param factory Creates the robot, such as its constructor
+	 */
+	public MatchSimulator(Supplier<? extends RobotBase> factory) { super(factory); }
+	
+	/**
+	 * Runs an action just before the first packet sent at or after a simulated time, such as changing the {@link SimHAL#setJoystickAxis(int, int, double) joysticks}.
+	 * Actions scheduled for the same time are run in the order they were added.
+	 * @param seconds When to run the action, in simulated seconds
+	 * @param action The action
+	 * @return This simulator, so calls can be chained
+	 */
+	public MatchSimulator at(double seconds, Runnable action) {
+		int i = events.size();
+		while(i > 0 && events.get(i - 1).time > seconds) i--;
+		
+		events.add(i, new Event(seconds, action));
+		return this;
+	}
+	
+	/**
+	 * Runs any scheduled actions that are due, then sends a packet, measuring how long the robot takes to handle it
+	 * @param seconds How far to move time, in seconds
+	 * @throws IllegalStateException If the robot has stopped
+	 */
+	@Override
+	public void step(double seconds) {
+		double now = getTime() + seconds;
+		while(!events.isEmpty() && events.get(0).time <= now + 1e-9) events.remove(0).action.run();
+		
+		long start = System.nanoTime();
+		super.step(seconds);
+		long elapsed = System.nanoTime() - start;
+		
+		if(getSteps() > 1) {
+			ticks++;
+			totalTickTime += elapsed;
+			maxTickTime = Math.max(maxTickTime, elapsed);
+		}
+	}
+	
+	/**
+	 * Runs the robot in one phase, as fast as possible. While the robot is enabled, the match time counts down from the length of the phase.
+	 * @param phase The phase
+	 * @param seconds How long the phase lasts, in simulated seconds
+	 * @throws IllegalStateException If the robot has stopped
+	 */
+	public void runPhase(Phase phase, double seconds) {
+		this.phase = phase;
+		SimHAL.setMode(phase.enabled, phase.autonomous, phase.test);
+		
+		long count = Math.round(seconds / PACKET_PERIOD);
+		for(long i = 0; i < count; i++) {
+			SimHAL.setMatchTime(phase.enabled ? (count - i) * PACKET_PERIOD : -1);
+			step();
+		}
+	}
+	
+	/**
+	 * Runs a full match with the FMS attached: disabled before the match, the {@link #AUTONOMOUS_LENGTH autonomous period}, a short {@link #PERIOD_GAP gap},
+	 * the {@link #TELEOP_LENGTH teleop period}, and disabled after the match
+	 * @param preMatch How long the robot is disabled before the match, in simulated seconds, which gives it time to start up
+	 * @throws IllegalStateException If the robot has stopped
+	 */
+	public void runMatch(double preMatch) {
+		SimHAL.setAttached(true, true);
+		
+		runPhase(Phase.DISABLED, preMatch);
+		runPhase(Phase.AUTONOMOUS, AUTONOMOUS_LENGTH);
+		runPhase(Phase.DISABLED, PERIOD_GAP);
+		runPhase(Phase.TELEOP, TELEOP_LENGTH);
+		runPhase(Phase.DISABLED, PERIOD_GAP);
+	}
+	
+	/** @return The current phase */
+	public Phase getPhase() { return phase; }
+	
+	/** @return How many steps have been measured. The first step, which starts the robot, is not. */
+	public long getTickCount() { return ticks; }
+	
+	/** @return The average real time the robot took to handle a packet, in seconds */
+	public double getAverageTickTime() { return (ticks == 0 ? 0 : totalTickTime / 1e9 / ticks); }
+	
+	/** @return The longest real time the robot took to handle a packet, in seconds */
+	public double getMaxTickTime() { return maxTickTime / 1e9; }
+	
+	/**
+	 * Forgets the step times measured so far, such as after the robot has warmed up
+	 */
+	public void resetTickTimes() {
+		ticks = 0;
+		totalTickTime = 0;
+		maxTickTime = 0;
+	}
+}
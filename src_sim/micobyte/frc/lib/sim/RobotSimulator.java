@@ -0,0 +1,110 @@
+package micobyte.frc.lib.sim;
+
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.HLUsageReporting;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotState;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.internal.HardwareHLUsageReporting;
+import edu.wpi.first.wpilibj.internal.HardwareTimer;
+
+/**
+ * Runs a robot (such as a {@link micobyte.frc.lib.robot.BasicRobot BasicRobot}) headless on a desktop JVM, using MBLib's {@link SimHAL simulated HAL}.<br>
+ * The robot runs its normal {@link RobotBase#startCompetition() main loop} on its own thread, and each {@link #step()} sends it one driver station packet,
+ * then waits for it to finish handling the packet, so simulated time moves in lock step with the robot's loop, and runs as fast as the robot allows.
+ * NetworkTables is kept in the JVM by {@link SimNetworkTables}, so nothing is sent to a dashboard.
+ */
+public class RobotSimulator {
+	/** The time between driver station packets, in seconds */
+	public static final double PACKET_PERIOD = 0.02;
+	
+	/** The robot */
+	private final RobotBase robot;
+	/** The thread the robot runs on */
+	private final Thread thread;
+	
+	/** What stopped the robot, or {@code null} if it is still running */
+	private volatile Throwable error;
+	/** How many packets have been sent */
+	private transient long steps;
+	
+	/**
+	 * Sets up WPILib the same way {@link RobotBase#main(String...)} does, then creates the robot and the simulator. The robot is started by the first {@link #step()}.
+	 * @param factory Creates the robot, such as its constructor
+	 */
+	public RobotSimulator(Supplier<? extends RobotBase> factory) {
+		Timer.SetImplementation(new HardwareTimer());
+		HLUsageReporting.SetImplementation(new HardwareHLUsageReporting());
+		RobotState.SetImplementation(DriverStation.getInstance());
+		
+		robot = factory.get();
+		
+		thread = new Thread(() -> {
+			try {
+				this.robot.startCompetition();
+				error = new IllegalStateException("The robot's main loop returned");
+			} catch(Throwable e) {
+				error = e;
+			}
+			
+			SimHAL.robotStopped();
+		}, "Simulated robot");
+		thread.setDaemon(true);
+	}
+	
+	/**
+	 * Moves time forwards by one {@link #PACKET_PERIOD packet period}, then sends the robot a driver station packet, and waits for it to be handled
+	 * @throws IllegalStateException If the robot has stopped
+	 */
+	public void step() { step(PACKET_PERIOD); }
+	
+	/**
+	 * Moves time forwards, then sends the robot a driver station packet, and waits for it to be handled
+	 * @param seconds How far to move time, in seconds
+	 * @throws IllegalStateException If the robot has stopped
+	 */
+	public void step(double seconds) {
+		if(steps++ == 0) thread.start();
+		
+		SimHAL.advance(seconds);
+		if(!SimHAL.sendPacket()) throw new IllegalStateException("The robot has stopped", error);
+	}
+	
+	/**
+	 * Runs the robot for a while
+	 * @param seconds How long to run it for, in simulated seconds
+	 * @param speed How many times faster than real time to run it, or 0 for as fast as possible
+	 * @throws IllegalStateException If the robot has stopped
+	 */
+	public void run(double seconds, double speed) {
+		long count = Math.round(seconds / PACKET_PERIOD);
+		long start = System.nanoTime();
+		
+		for(long i = 1; i <= count; i++) {
+			step();
+			
+			if(speed > 0) {
+				long wait = start + Math.round(i * PACKET_PERIOD * 1e9 / speed) - System.nanoTime();
+				if(wait > 0) {
+					try {
+						Thread.sleep(wait / 1000000, (int)(wait % 1000000));
+					} catch(InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+				}
+			}
+		}
+	}
+	
+	/** @return How many packets have been sent */
+	public long getSteps() { return steps; }
+	
+	/** @return The simulated time, in seconds */
+	public double getTime() { return SimHAL.getTime(); }
+	
+	/** @return The robot */
+	public RobotBase getRobot() { return robot; }
+}
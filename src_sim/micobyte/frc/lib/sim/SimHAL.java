@@ -0,0 +1,683 @@
+package micobyte.frc.lib.sim;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+
+import edu.wpi.first.wpilibj.hal.AllianceStationID;
+
+/**
+ * The state behind MBLib's pure-Java stand-ins for WPILib's <code>edu.wpi.first.wpilibj.hal.*JNI</code> classes, which let a robot run on a desktop JVM
+ * without the roboRIO's native library. The stand-ins are in the <code>src_sim</code> source folder, which must come before WPILib on the classpath,
+ * and must never be deployed to a robot.<br>
+ * Everything here is guarded by the {@link SimHAL} class's monitor. Time only moves when it is {@link #advance(double) advanced}, normally by a {@link RobotSimulator}.
+ * The stand-ins cover the driver station, joysticks, PWM, digital I/O, analog I/O, serial ports, notifiers, power and the FPGA.
+ * Other hardware (CAN, PCM, PDP, relays, counters, encoders, I2C and SPI) is not simulated. NetworkTables has its own stand-in, backed by {@link SimNetworkTables}.
+ */
+public final class SimHAL {
+	/** The number of joystick ports */
+	public static final int JOYSTICK_PORTS = 6;
+	/** The number of axes or POVs per joystick */
+	public static final int JOYSTICK_CHANNELS = 12;
+	/** The number of PWM channels */
+	public static final int PWM_CHANNELS = 20;
+	/** The number of digital I/O channels */
+	public static final int DIO_CHANNELS = 31;
+	/** The number of analog inputs */
+	public static final int ANALOG_INPUTS = 8;
+	/** The number of analog outputs */
+	public static final int ANALOG_OUTPUTS = 2;
+	/** The number of serial ports */
+	public static final int SERIAL_PORTS = 5;
+	
+	/** The FPGA time, in microseconds */
+	private static long time;
+	
+	/** Whether the robot is enabled */
+	private static boolean enabled;
+	/** Whether the robot is in autonomous mode */
+	private static boolean autonomous;
+	/** Whether the robot is in test mode */
+	private static boolean test;
+	/** Whether the robot is emergency stopped */
+	private static boolean eStop;
+	/** Whether the FMS is attached */
+	private static boolean fmsAttached;
+	/** Whether the driver station is attached */
+	private static boolean dsAttached = true;
+	/** The alliance station, from 0 (Red 1) to 5 (Blue 3) */
+	private static int allianceStation;
+	/** The match time, in seconds, or -1 for none */
+	private static double matchTime = -1;
+	/** The event name */
+	private static String eventName = "";
+	/** The game-specific message */
+	private static String gameSpecificMessage = "";
+	/** The match number */
+	private static int matchNumber;
+	/** The replay number */
+	private static int replayNumber;
+	/** The match type */
+	private static int matchType;
+	/** Whether the robot is browned out */
+	private static boolean brownedOut;
+	/** The battery voltage */
+	private static double batteryVoltage = 12.5;
+	/** Whether the roboRIO's user button is pressed */
+	private static boolean userButton;
+	
+	/** The axes of each joystick */
+	private static final float[][] joystickAxes = new float[JOYSTICK_PORTS][JOYSTICK_CHANNELS];
+	/** The number of axes of each joystick */
+	private static final int[] joystickAxisCounts = new int[JOYSTICK_PORTS];
+	/** The POVs of each joystick */
+	private static final short[][] joystickPOVs = new short[JOYSTICK_PORTS][JOYSTICK_CHANNELS];
+	/** The number of POVs of each joystick */
+	private static final int[] joystickPOVCounts = new int[JOYSTICK_PORTS];
+	/** The buttons of each joystick, as a bitmask with button 1 in bit 0 */
+	private static final int[] joystickButtons = new int[JOYSTICK_PORTS];
+	/** The number of buttons of each joystick */
+	private static final int[] joystickButtonCounts = new int[JOYSTICK_PORTS];
+	/** Whether each joystick is an XBOX controller */
+	private static final boolean[] joystickXbox = new boolean[JOYSTICK_PORTS];
+	/** The HID type of each joystick */
+	private static final int[] joystickTypes = new int[JOYSTICK_PORTS];
+	/** The name of each joystick */
+	private static final String[] joystickNames = new String[JOYSTICK_PORTS];
+	/** The left rumble of each joystick, from 0 to 65535 */
+	private static final int[] joystickLeftRumble = new int[JOYSTICK_PORTS];
+	/** The right rumble of each joystick, from 0 to 65535 */
+	private static final int[] joystickRightRumble = new int[JOYSTICK_PORTS];
+	
+	/** The speed of each PWM channel */
+	private static final double[] pwmSpeeds = new double[PWM_CHANNELS];
+	/** The raw value of each PWM channel */
+	private static final short[] pwmRaw = new short[PWM_CHANNELS];
+	/** The value of each digital I/O channel */
+	private static final boolean[] dio = new boolean[DIO_CHANNELS];
+	/** The voltage of each analog input */
+	private static final double[] analogInputs = new double[ANALOG_INPUTS];
+	/** The voltage of each analog output */
+	private static final double[] analogOutputs = new double[ANALOG_OUTPUTS];
+	
+	/** The bytes waiting to be read from each serial port */
+	private static final SerialBuffer[] serialIn = new SerialBuffer[SERIAL_PORTS];
+	/** The bytes written to each serial port */
+	private static final ByteArrayOutputStream[] serialOut = new ByteArrayOutputStream[SERIAL_PORTS];
+	/** Whether what is written to each serial port is also read back from it */
+	private static final boolean[] serialLoopback = new boolean[SERIAL_PORTS];
+	
+	/** How often {@link #advance(double)} checks that the thread of the notifier it is waiting for hasn't died, in milliseconds */
+	private static final long NOTIFIER_CHECK_INTERVAL = 100;
+	
+	/** The notifiers, by handle - 1 */
+	private static final ArrayList<Notifier> notifiers = new ArrayList<Notifier>();
+	
+	/** The number of driver station packets sent */
+	private static long packets;
+	/** The last packet the driver station thread received */
+	private static long dsReceived;
+	/** The last packet the driver station thread finished handling */
+	private static long dsHandled;
+	/** The last packet the robot received */
+	private static long robotReceived;
+	/** The last packet the robot finished handling, or -1 if it hasn't started waiting for packets */
+	private static long robotHandled = -1;
+	/** Whether the robot has stopped */
+	private static boolean robotStopped;
+	/** The last packet {@link #isNewControlData()} was called for */
+	private static long lastControlDataPacket;
+	
+	static {
+		for(int i = 0; i < SERIAL_PORTS; i++) {
+			serialIn[i] = new SerialBuffer();
+			serialOut[i] = new ByteArrayOutputStream();
+		}
+	}
+	
+	private SimHAL() {}
+	
+	/**
+	 * Waits on the {@link SimHAL} class's monitor, ignoring interrupts
+	 * @param millis The longest time to wait, in milliseconds, or 0 for forever
+	 */
+	private static void await(long millis) {
+		try {
+			SimHAL.class.wait(millis);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/** @return The FPGA time, in seconds */
+	public static synchronized double getTime() { return time / 1e6; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @return The FPGA time, in microseconds
+	 */
+	public static synchronized long getFPGATime() { return time; }
+	
+	/**
+	 * Moves time forwards, running every {@link edu.wpi.first.wpilibj.Notifier Notifier} that is due on the way, in order, and waiting for each to finish.
+	 * A {@link edu.wpi.first.wpilibj.Notifier Notifier} whose thread has died (such as from its handler throwing) is treated as stopped, rather than waited for forever.
+	 * @param seconds How far to move time, in seconds
+	 */
+	public static synchronized void advance(double seconds) {
+		long target = time + Math.round(seconds * 1e6);
+		
+		while(true) {
+			Notifier next = null;
+			for(Notifier n : notifiers) if(!n.stopped && n.alarm >= 0 && n.alarm <= target && (next == null || n.alarm < next.alarm)) next = n;
+			if(next == null) break;
+			
+			time = Math.max(time, next.alarm);
+			next.alarm = -1;
+			next.fired = true;
+			next.busy = true;
+			SimHAL.class.notifyAll();
+			
+			while(next.busy && !next.stopped) {
+				if(next.thread != null && !next.thread.isAlive()) next.stopped = true;
+				else await(NOTIFIER_CHECK_INTERVAL);
+			}
+		}
+		
+		time = target;
+	}
+	
+	/**
+	 * Sends a driver station packet, and waits for the driver station thread, and then the robot's main loop, to handle it
+	 * @return false if the robot has stopped
+	 */
+	public static synchronized boolean sendPacket() {
+		packets++;
+		SimHAL.class.notifyAll();
+		
+		while(robotHandled < packets && !robotStopped) await(0);
+		return !robotStopped;
+	}
+	
+	/**
+	 * Marks the robot as stopped, so nothing waits for it any more<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 */
+	public static synchronized void robotStopped() { robotStopped = true; SimHAL.class.notifyAll(); }
+	
+	/**
+	 * Called by the driver station thread to wait for the next packet<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 */
+	public static synchronized void waitForDSThreadPacket() {
+		dsHandled = dsReceived;
+		SimHAL.class.notifyAll();
+		
+		while(packets == dsReceived) await(0);
+		dsReceived = packets;
+	}
+	
+	/**
+	 * Called by the robot's main loop to wait for the driver station thread to handle the next packet<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param timeout The longest time to wait, in seconds, or 0 for forever
+	 * @return Whether there was a new packet
+	 */
+	public static synchronized boolean waitForRobotPacket(double timeout) {
+		robotHandled = robotReceived;
+		SimHAL.class.notifyAll();
+		
+		long end = System.currentTimeMillis() + Math.round(timeout * 1000);
+		while(dsHandled == robotReceived) {
+			long left = end - System.currentTimeMillis();
+			if(timeout > 0 && left <= 0) return false;
+			
+			await(timeout > 0 ? left : 0);
+		}
+		
+		robotReceived = dsHandled;
+		return true;
+	}
+	
+	/**
+	 * Called by the driver station thread to check for a new packet<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @return Whether a packet has been received since this was last called
+	 */
+	public static synchronized boolean isNewControlData() {
+		boolean isNew = (dsReceived != lastControlDataPacket);
+		lastControlDataPacket = dsReceived;
+		
+		return isNew;
+	}
+	
+	/**
+	 * Sets the robot's mode
+	 * @param enabled Whether the robot is enabled
+	 * @param autonomous Whether it is in autonomous mode
+	 * @param test Whether it is in test mode
+	 */
+	public static synchronized void setMode(boolean enabled, boolean autonomous, boolean test) { SimHAL.enabled = enabled; SimHAL.autonomous = autonomous; SimHAL.test = test; }
+	
+	/** @param eStop Whether the robot is emergency stopped */
+	public static synchronized void setEStop(boolean eStop) { SimHAL.eStop = eStop; }
+	
+	/**
+	 * Sets whether the FMS and driver station are attached
+	 * @param fms Whether the FMS is attached
+	 * @param ds Whether the driver station is attached
+	 */
+	public static synchronized void setAttached(boolean fms, boolean ds) { fmsAttached = fms; dsAttached = ds; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @return The control word, as the driver station sends it
+	 */
+	public static synchronized int getControlWord() {
+		return (enabled ? 1 : 0) | (autonomous ? 2 : 0) | (test ? 4 : 0) | (eStop ? 8 : 0) | (fmsAttached ? 16 : 0) | (dsAttached ? 32 : 0);
+	}
+	
+	/** @param station The alliance station */
+	public static synchronized void setAllianceStation(AllianceStationID station) { allianceStation = station.ordinal(); }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @return The alliance station, from 0 (Red 1) to 5 (Blue 3)
+	 */
+	public static synchronized int getAllianceStation() { return allianceStation; }
+	
+	/** @param seconds The match time, in seconds, or -1 for none */
+	public static synchronized void setMatchTime(double seconds) { matchTime = seconds; }
+	
+	/** @return The match time, in seconds, or -1 for none */
+	public static synchronized double getMatchTime() { return matchTime; }
+	
+	/** @param message The game-specific message */
+	public static synchronized void setGameSpecificMessage(String message) { gameSpecificMessage = message; }
+	
+	/**
+	 * Sets the match info
+	 * @param event The event name
+	 * @param number The match number
+	 * @param replay The replay number
+	 * @param type The match type
+	 */
+	public static synchronized void setMatchInfo(String event, int number, int replay, int type) { eventName = event; matchNumber = number; replayNumber = replay; matchType = type; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @return The match info, in the order {event name, game-specific message, match number, replay number, match type}
+	 */
+	public static synchronized Object[] getMatchInfo() { return new Object[] { eventName, gameSpecificMessage, matchNumber, replayNumber, matchType }; }
+	
+	/** @param brownedOut Whether the robot is browned out */
+	public static synchronized void setBrownedOut(boolean brownedOut) { SimHAL.brownedOut = brownedOut; }
+	
+	/** @return Whether the robot is browned out */
+	public static synchronized boolean isBrownedOut() { return brownedOut; }
+	
+	/** @param volts The battery voltage */
+	public static synchronized void setBatteryVoltage(double volts) { batteryVoltage = volts; }
+	
+	/** @return The battery voltage */
+	public static synchronized double getBatteryVoltage() { return batteryVoltage; }
+	
+	/** @param pressed Whether the roboRIO's user button is pressed */
+	public static synchronized void setUserButton(boolean pressed) { userButton = pressed; }
+	
+	/** @return Whether the roboRIO's user button is pressed */
+	public static synchronized boolean getUserButton() { return userButton; }
+	
+	/**
+	 * Sets an axis of a joystick
+	 * @param stick The joystick port
+	 * @param axis The axis
+	 * @param value The value, from -1 to 1
+	 */
+	public static synchronized void setJoystickAxis(int stick, int axis, double value) {
+		joystickAxes[stick][axis] = (float)value;
+		joystickAxisCounts[stick] = Math.max(joystickAxisCounts[stick], axis + 1);
+	}
+	
+	/**
+	 * Sets a POV of a joystick
+	 * @param stick The joystick port
+	 * @param pov The POV
+	 * @param angle The angle, in degrees, or -1 for not pressed
+	 */
+	public static synchronized void setJoystickPOV(int stick, int pov, int angle) {
+		joystickPOVs[stick][pov] = (short)angle;
+		joystickPOVCounts[stick] = Math.max(joystickPOVCounts[stick], pov + 1);
+	}
+	
+	/**
+	 * Sets a button of a joystick
+	 * @param stick The joystick port
+	 * @param button The button, starting at 1
+	 * @param pressed Whether it is pressed
+	 */
+	public static synchronized void setJoystickButton(int stick, int button, boolean pressed) {
+		if(pressed) joystickButtons[stick] |= 1 << (button - 1);
+		else joystickButtons[stick] &= ~(1 << (button - 1));
+		
+		joystickButtonCounts[stick] = Math.max(joystickButtonCounts[stick], button);
+	}
+	
+	/**
+	 * Sets how many axes, POVs and buttons a joystick has
+	 * @param stick The joystick port
+	 * @param axes The number of axes
+	 * @param povs The number of POVs
+	 * @param buttons The number of buttons
+	 */
+	public static synchronized void setJoystickCounts(int stick, int axes, int povs, int buttons) {
+		joystickAxisCounts[stick] = axes;
+		joystickPOVCounts[stick] = povs;
+		joystickButtonCounts[stick] = buttons;
+	}
+	
+	/**
+	 * Sets every button of a joystick
+	 * @param stick The joystick port
+	 * @param buttons The buttons, as a bitmask with button 1 in bit 0
+	 */
+	public static synchronized void setJoystickButtons(int stick, int buttons) { joystickButtons[stick] = buttons; }
+	
+	/**
+	 * Sets what kind of joystick is plugged into a port
+	 * @param stick The joystick port
+	 * @param xbox Whether it is an XBOX controller
+	 * @param type The HID type
+	 * @param name The name
+	 */
+	public static synchronized void setJoystickInfo(int stick, boolean xbox, int type, String name) { joystickXbox[stick] = xbox; joystickTypes[stick] = type; joystickNames[stick] = name; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param stick The joystick port
+	 * @param axes The array to copy the axes into
+	 * @return The number of axes
+	 */
+	public static synchronized short getJoystickAxes(int stick, float[] axes) {
+		System.arraycopy(joystickAxes[stick], 0, axes, 0, Math.min(axes.length, JOYSTICK_CHANNELS));
+		return (short)joystickAxisCounts[stick];
+	}
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param stick The joystick port
+	 * @param povs The array to copy the POVs into
+	 * @return The number of POVs
+	 */
+	public static synchronized short getJoystickPOVs(int stick, short[] povs) {
+		System.arraycopy(joystickPOVs[stick], 0, povs, 0, Math.min(povs.length, JOYSTICK_CHANNELS));
+		return (short)joystickPOVCounts[stick];
+	}
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param stick The joystick port
+	 * @return The buttons, as a bitmask with button 1 in bit 0
+	 */
+	public static synchronized int getJoystickButtons(int stick) { return joystickButtons[stick]; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param stick The joystick port
+	 * @return The number of buttons
+	 */
+	public static synchronized int getJoystickButtonCount(int stick) { return joystickButtonCounts[stick]; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param stick The joystick port
+	 * @return Whether it is an XBOX controller
+	 */
+	public static synchronized boolean isJoystickXbox(int stick) { return joystickXbox[stick]; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param stick The joystick port
+	 * @return The HID type
+	 */
+	public static synchronized int getJoystickType(int stick) { return joystickTypes[stick]; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param stick The joystick port
+	 * @return The name
+	 */
+	public static synchronized String getJoystickName(int stick) { return (joystickNames[stick] == null ? "" : joystickNames[stick]); }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param stick The joystick port
+	 * @param left The left rumble, from 0 to 65535
+	 * @param right The right rumble, from 0 to 65535
+	 */
+	public static synchronized void setJoystickRumble(int stick, int left, int right) { joystickLeftRumble[stick] = left; joystickRightRumble[stick] = right; }
+	
+	/**
+	 * Gets how hard a joystick is rumbling
+	 * @param stick The joystick port
+	 * @param left true for the left side, false for the right
+	 * @return The rumble, from 0 to 1
+	 */
+	public static synchronized double getJoystickRumble(int stick, boolean left) { return (left ? joystickLeftRumble[stick] : joystickRightRumble[stick]) / 65535.0; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param channel The PWM channel
+	 * @param speed The speed
+	 */
+	public static synchronized void setPWMSpeed(int channel, double speed) { pwmSpeeds[channel] = speed; pwmRaw[channel] = (short)Math.round(1000 + (speed + 1) * 500); }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param channel The PWM channel
+	 * @param raw The raw value, or 0 for disabled
+	 */
+	public static synchronized void setPWMRaw(int channel, short raw) { pwmRaw[channel] = raw; pwmSpeeds[channel] = (raw == 0 ? 0 : Math.max(-1, Math.min(1, (raw - 1000) / 500.0 - 1))); }
+	
+	/**
+	 * Gets the speed a PWM channel is set to
+	 * @param channel The PWM channel
+	 * @return The speed, from -1 to 1
+	 */
+	public static synchronized double getPWMSpeed(int channel) { return pwmSpeeds[channel]; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param channel The PWM channel
+	 * @return The raw value
+	 */
+	public static synchronized short getPWMRaw(int channel) { return pwmRaw[channel]; }
+	
+	/**
+	 * Sets a digital I/O channel, as if something were connected to it
+	 * @param channel The channel
+	 * @param value The value
+	 */
+	public static synchronized void setDIO(int channel, boolean value) { dio[channel] = value; }
+	
+	/**
+	 * Gets a digital I/O channel
+	 * @param channel The channel
+	 * @return The value
+	 */
+	public static synchronized boolean getDIO(int channel) { return dio[channel]; }
+	
+	/**
+	 * Sets the voltage of an analog input, as if something were connected to it
+	 * @param channel The channel
+	 * @param volts The voltage
+	 */
+	public static synchronized void setAnalogInput(int channel, double volts) { analogInputs[channel] = volts; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param channel The channel
+	 * @return The voltage of the analog input
+	 */
+	public static synchronized double getAnalogInput(int channel) { return analogInputs[channel]; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param channel The channel
+	 * @param volts The voltage to set the analog output to
+	 */
+	public static synchronized void setAnalogOutput(int channel, double volts) { analogOutputs[channel] = volts; }
+	
+	/**
+	 * Gets the voltage of an analog output
+	 * @param channel The channel
+	 * @return The voltage
+	 */
+	public static synchronized double getAnalogOutput(int channel) { return analogOutputs[channel]; }
+	
+	/**
+	 * Sets whether what is written to a serial port is read back from it
+	 * @param port The port, as its {@link edu.wpi.first.wpilibj.SerialPort.Port#value value}
+	 * @param loopback Whether to loop it back
+	 */
+	public static synchronized void setSerialLoopback(int port, boolean loopback) { serialLoopback[port] = loopback; }
+	
+	/**
+	 * Queues bytes to be read from a serial port, as if something connected to it had sent them
+	 * @param port The port, as its {@link edu.wpi.first.wpilibj.SerialPort.Port#value value}
+	 * @param data The bytes
+	 */
+	public static synchronized void sendSerial(int port, byte[] data) { serialIn[port].write(data, 0, data.length); }
+	
+	/**
+	 * Takes everything written to a serial port since this was last called
+	 * @param port The port, as its {@link edu.wpi.first.wpilibj.SerialPort.Port#value value}
+	 * @return The bytes
+	 */
+	public static synchronized byte[] receiveSerial(int port) {
+		byte[] data = serialOut[port].toByteArray();
+		serialOut[port].reset();
+		
+		return data;
+	}
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param port The port
+	 * @param buffer The bytes to write
+	 * @param count How many to write
+	 * @return How many were written
+	 */
+	public static synchronized int writeSerial(int port, byte[] buffer, int count) {
+		serialOut[port].write(buffer, 0, count);
+		if(serialLoopback[port]) serialIn[port].write(buffer, 0, count);
+		
+		return count;
+	}
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param port The port
+	 * @param buffer The array to read into
+	 * @param count The most bytes to read
+	 * @return How many bytes were read
+	 */
+	public static synchronized int readSerial(int port, byte[] buffer, int count) { return serialIn[port].read(buffer, count); }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param port The port
+	 * @return How many bytes are waiting to be read
+	 */
+	public static synchronized int getSerialBytesReceived(int port) { return serialIn[port].size(); }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param port The port
+	 */
+	public static synchronized void clearSerial(int port) { serialIn[port].reset(); }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @return The handle of a new notifier
+	 */
+	public static synchronized int createNotifier() {
+		notifiers.add(new Notifier());
+		return notifiers.size();
+	}
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param handle The notifier's handle
+	 * @param alarm When it should next go off, in microseconds, or -1 for never
+	 */
+	public static synchronized void setNotifierAlarm(int handle, long alarm) { notifiers.get(handle - 1).alarm = alarm; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param handle The notifier's handle
+	 */
+	public static synchronized void stopNotifier(int handle) {
+		notifiers.get(handle - 1).stopped = true;
+		SimHAL.class.notifyAll();
+	}
+	
+	/**
+	 * Called by a notifier's thread when it is ready for its alarm to go off again<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param handle The notifier's handle
+	 * @return The time it went off, in microseconds, or 0 if the notifier was stopped
+	 */
+	public static synchronized long waitForNotifier(int handle) {
+		Notifier n = notifiers.get(handle - 1);
+		n.thread = Thread.currentThread();
+		
+		if(!n.fired) {
+			n.busy = false;
+			SimHAL.class.notifyAll();
+		}
+		
+		while(!n.fired && !n.stopped) await(0);
+		if(n.stopped) return 0;
+		
+		n.fired = false;
+		return Math.max(time, 1);
+	}
+	
+	/**
+	 * The state of a simulated {@link edu.wpi.first.wpilibj.Notifier Notifier}<br>
+	 * <b>This is an internal class. It should not be used by the end user.</b>
+	 */
+	private static final class Notifier {
+		/** When it should next go off, in microseconds, or -1 for never */
+		private long alarm = -1;
+		/** Whether it has gone off, but its thread hasn't woken up yet */
+		private boolean fired;
+		/** Whether its thread is handling the alarm */
+		private boolean busy;
+		/** Whether it has been stopped */
+		private boolean stopped;
+		/** The thread that waits for it, or {@code null} if it hasn't waited yet */
+		private Thread thread;
+	}
+	
+	/**
+	 * The bytes waiting to be read from a serial port, which can be read without allocating, as they can from a real port<br>
+	 * <b>This is an internal class. It should not be used by the end user.</b>
+	 */
+	private static final class SerialBuffer extends ByteArrayOutputStream {
+		/**
+		 * Reads from the start of the buffer, and moves the rest of it down
+		 * @param buffer The array to read into
+		 * @param max The most bytes to read
+		 * @return How many bytes were read
+		 */
+		private int read(byte[] buffer, int max) {
+			int read = Math.min(max, count);
+			
+			System.arraycopy(buf, 0, buffer, 0, read);
+			System.arraycopy(buf, read, buf, 0, count - read);
+			count -= read;
+			
+			return read;
+		}
+	}
+}
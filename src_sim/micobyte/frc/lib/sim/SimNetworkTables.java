@@ -0,0 +1,473 @@
+package micobyte.frc.lib.sim;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * The state behind MBLib's pure-Java stand-in for ntcore's <code>edu.wpi.first.networktables.NetworkTablesJNI</code>, which lets anything that uses
+ * NetworkTables (including every {@link edu.wpi.first.wpilibj.command.Subsystem Subsystem}, through {@link edu.wpi.first.wpilibj.livewindow.LiveWindow LiveWindow})
+ * run on a desktop JVM without ntcore's native library. Like the {@link SimHAL} stand-ins, it is in the <code>src_sim</code> source folder,
+ * which must come before WPILib and NetworkTables on the classpath.<br>
+ * The entries are kept in this JVM only: there is no server, no client and nothing is saved or loaded, and every NetworkTables instance shares them.
+ * Entry listeners are notified as they would be by ntcore, with changes made by the robot being {@link #LOCAL local}, and those
+ * {@link #putRemote(String, Object) put remotely} (as by a dashboard) not. Remote procedure calls are not simulated.<br>
+ * Everything here is guarded by the {@link SimNetworkTables} class's monitor.
+ */
+public final class SimNetworkTables {
+	/** The listener flag for notifying of every existing entry when a listener is added, as in {@link edu.wpi.first.networktables.EntryListenerFlags} */
+	public static final int IMMEDIATE = 0x01;
+	/** The listener flag for notifying of changes made by the robot */
+	public static final int LOCAL = 0x02;
+	/** The listener flag for notifying of new entries */
+	public static final int NEW = 0x04;
+	/** The listener flag for notifying of deleted entries */
+	public static final int DELETE = 0x08;
+	/** The listener flag for notifying of changed values */
+	public static final int UPDATE = 0x10;
+	/** The listener flag for notifying of changed entry flags */
+	public static final int FLAGS = 0x20;
+	
+	/** The entries, by handle - 1 */
+	private static final ArrayList<Entry> entries = new ArrayList<Entry>();
+	/** The handles of the entries, by name */
+	private static final HashMap<String, Integer> entryHandles = new HashMap<String, Integer>();
+	/** The pollers, by handle */
+	private static final HashMap<Integer, Poller> pollers = new HashMap<Integer, Poller>();
+	/** The entry listeners, by handle */
+	private static final HashMap<Integer, Listener> listeners = new HashMap<Integer, Listener>();
+	/** The next handle to be given to a poller or listener */
+	private static int nextHandle = 1;
+	
+	private SimNetworkTables() {}
+	
+	/**
+	 * Gets the type of a value, as in {@link edu.wpi.first.networktables.NetworkTableType}
+	 * @param value The value
+	 * @return The type, or 0 if it can't be put in NetworkTables
+	 */
+	public static int typeOf(Object value) {
+		if(value instanceof Boolean) return 0x01;
+		else if(value instanceof Double) return 0x02;
+		else if(value instanceof String) return 0x04;
+		else if(value instanceof byte[]) return 0x08;
+		else if(value instanceof boolean[]) return 0x10;
+		else if(value instanceof double[]) return 0x20;
+		else if(value instanceof String[]) return 0x40;
+		else return 0;
+	}
+	
+	/**
+	 * Copies a value, so nothing outside can change it
+	 * @param value The value
+	 * @return The copy, or the value itself if it can't be changed
+	 */
+	private static Object copy(Object value) {
+		if(value instanceof byte[]) return ((byte[])value).clone();
+		else if(value instanceof boolean[]) return ((boolean[])value).clone();
+		else if(value instanceof double[]) return ((double[])value).clone();
+		else if(value instanceof String[]) return ((String[])value).clone();
+		else return value;
+	}
+	
+	/**
+	 * Puts a value into an entry as if a remote client (such as a dashboard) had, which notifies listeners that aren't {@link #LOCAL local}
+	 * @param key The full name of the entry, such as <code>/SmartDashboard/Speed</code>
+	 * @param value The value, which must be a {@link Boolean}, {@link Double}, {@link String}, or an array of bytes, booleans, doubles or {@link String strings}
+	 */
+	public static synchronized void putRemote(String key, Object value) {
+		if(typeOf(value) == 0) throw new IllegalArgumentException("Can't put a " + value.getClass().getSimpleName() + " in NetworkTables");
+		set(getEntry(key), value, true, false);
+	}
+	
+	/**
+	 * @param key The full name of the entry, such as <code>/SmartDashboard/Speed</code>
+	 * @return A copy of the entry's value, or {@code null} if it has none
+	 */
+	public static synchronized Object getValue(String key) {
+		Integer handle = entryHandles.get(key);
+		return (handle == null ? null : getValue(handle));
+	}
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @return The current time for NetworkTables, which is the {@link SimHAL#getFPGATime() FPGA time}, in microseconds
+	 */
+	public static long now() { return SimHAL.getFPGATime(); }
+	
+	/**
+	 * Gets an entry, creating it if it doesn't exist<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param key The full name of the entry
+	 * @return The entry's handle
+	 */
+	public static synchronized int getEntry(String key) {
+		Integer handle = entryHandles.get(key);
+		if(handle != null) return handle;
+		
+		entries.add(new Entry(key));
+		entryHandles.put(key, entries.size());
+		
+		return entries.size();
+	}
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param prefix What the names of the entries start with
+	 * @param types The types of entries, or 0 for any
+	 * @return The handles of the entries that have a value
+	 */
+	public static synchronized int[] getEntries(String prefix, int types) {
+		int[] handles = new int[entries.size()];
+		int count = 0;
+		
+		for(int i = 0; i < entries.size(); i++) {
+			Entry entry = entries.get(i);
+			if(entry.value != null && entry.name.startsWith(prefix) && (types == 0 || (types & entry.type) != 0)) handles[count++] = i + 1;
+		}
+		
+		return Arrays.copyOf(handles, count);
+	}
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param handle The entry's handle
+	 * @return The entry's name
+	 */
+	public static synchronized String getName(int handle) { return entries.get(handle - 1).name; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param handle The entry's handle
+	 * @return When the entry's value last changed, in microseconds
+	 */
+	public static synchronized long getLastChange(int handle) { return entries.get(handle - 1).lastChange; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param handle The entry's handle
+	 * @return The type of the entry's value, or 0 if it has none
+	 */
+	public static synchronized int getType(int handle) { return entries.get(handle - 1).type; }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param handle The entry's handle
+	 * @return A copy of the entry's value, or {@code null} if it has none
+	 */
+	public static synchronized Object getValue(int handle) { return copy(entries.get(handle - 1).value); }
+	
+	/**
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param handle The entry's handle
+	 * @return The entry's flags
+	 */
+	public static synchronized int getFlags(int handle) { return entries.get(handle - 1).flags; }
+	
+	/**
+	 * Sets an entry's flags<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param handle The entry's handle
+	 * @param flags The flags
+	 */
+	public static synchronized void setFlags(int handle, int flags) {
+		Entry entry = entries.get(handle - 1);
+		if(entry.flags == flags) return;
+		
+		entry.flags = flags;
+		if(entry.value != null) notify(handle, FLAGS | LOCAL);
+	}
+	
+	/**
+	 * Sets an entry's value<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param handle The entry's handle
+	 * @param value The value
+	 * @param force Whether to change the type of the entry if it already has a value of another type
+	 * @param local Whether the change was made by the robot, rather than remotely
+	 * @return false if the entry already has a value of another type, and it wasn't forced
+	 */
+	public static synchronized boolean set(int handle, Object value, boolean force, boolean local) {
+		Entry entry = entries.get(handle - 1);
+		int type = typeOf(value);
+		if(entry.value != null && entry.type != type && !force) return false;
+		
+		boolean isNew = (entry.value == null);
+		if(!isNew && Objects.deepEquals(entry.value, value)) return true;
+		
+		entry.value = copy(value);
+		entry.type = type;
+		entry.lastChange = now();
+		notify(handle, (isNew ? NEW : UPDATE) | (local ? LOCAL : 0));
+		
+		return true;
+	}
+	
+	/**
+	 * Sets an entry's value if it doesn't have one<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param handle The entry's handle
+	 * @param value The value
+	 * @return Whether the entry now has a value of the same type
+	 */
+	public static synchronized boolean setDefault(int handle, Object value) {
+		Entry entry = entries.get(handle - 1);
+		if(entry.value == null) return set(handle, value, false, true);
+		
+		return entry.type == typeOf(value);
+	}
+	
+	/**
+	 * Deletes an entry's value<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param handle The entry's handle
+	 */
+	public static synchronized void delete(int handle) {
+		Entry entry = entries.get(handle - 1);
+		if(entry.value == null) return;
+		
+		notify(handle, DELETE | LOCAL);
+		entry.value = null;
+		entry.type = 0;
+		entry.flags = 0;
+	}
+	
+	/**
+	 * Deletes every entry's value<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 */
+	public static synchronized void deleteAll() { for(int i = 1; i <= entries.size(); i++) delete(i); }
+	
+	/**
+	 * Tells every listener that wants to know about a change to an entry
+	 * @param handle The entry's handle
+	 * @param flags What changed
+	 */
+	private static void notify(int handle, int flags) {
+		Entry entry = entries.get(handle - 1);
+		
+		for(Listener listener : listeners.values()) {
+			if(!listener.matches(handle, entry.name) || (listener.flags & flags & ~LOCAL) == 0) continue;
+			if((flags & LOCAL) != 0 && (listener.flags & LOCAL) == 0) continue;
+			
+			Poller poller = pollers.get(listener.poller);
+			if(poller != null) poller.queue.add(new Notification(listener.handle, handle, entry.name, entry.value, entry.lastChange, flags));
+		}
+		
+		SimNetworkTables.class.notifyAll();
+	}
+	
+	/**
+	 * Creates a poller, for entry listeners (or any of the other kinds of listener, which are never notified)<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @return The poller's handle
+	 */
+	public static synchronized int createPoller() {
+		pollers.put(nextHandle, new Poller());
+		return nextHandle++;
+	}
+	
+	/**
+	 * Destroys a poller, and removes its listeners<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param poller The poller's handle
+	 */
+	public static synchronized void destroyPoller(int poller) {
+		cancelPoll(poller);
+		pollers.remove(poller);
+		listeners.values().removeIf(l -> l.poller == poller);
+	}
+	
+	/**
+	 * Makes the current (or next) {@link #poll(int, double)} of a poller throw an {@link InterruptedException} once it has nothing left to return<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param poller The poller's handle
+	 */
+	public static synchronized void cancelPoll(int poller) {
+		Poller p = pollers.get(poller);
+		if(p == null) return;
+		
+		p.cancelled = true;
+		SimNetworkTables.class.notifyAll();
+	}
+	
+	/**
+	 * Waits for a poller to have notifications<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param poller The poller's handle
+	 * @param timeout The longest time to wait, in seconds, or a negative number for forever
+	 * @return The notifications, which may be none if it timed out
+	 * @throws InterruptedException If the poll was {@link #cancelPoll(int) cancelled}, or the poller destroyed
+	 */
+	public static synchronized Notification[] poll(int poller, double timeout) throws InterruptedException {
+		long end = System.currentTimeMillis() + Math.round(timeout * 1000);
+		
+		while(true) {
+			Poller p = pollers.get(poller);
+			if(p == null) throw new InterruptedException();
+			
+			if(!p.queue.isEmpty()) {
+				Notification[] notifications = p.queue.toArray(new Notification[p.queue.size()]);
+				p.queue.clear();
+				
+				return notifications;
+			}
+			
+			if(p.cancelled) {
+				p.cancelled = false;
+				throw new InterruptedException();
+			}
+			
+			long left = end - System.currentTimeMillis();
+			if(timeout >= 0 && left <= 0) return new Notification[0];
+			
+			SimNetworkTables.class.wait(timeout >= 0 ? left : 0);
+		}
+	}
+	
+	/**
+	 * Adds an entry listener<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param poller The handle of the poller it is notified through
+	 * @param prefix What the names of the entries it listens to start with, or {@code null} to listen to one entry
+	 * @param entry The handle of the entry it listens to, if there is no prefix
+	 * @param flags The {@link edu.wpi.first.networktables.EntryListenerFlags flags}
+	 * @return The listener's handle
+	 */
+	public static synchronized int addListener(int poller, String prefix, int entry, int flags) {
+		Listener listener = new Listener(nextHandle++, poller, prefix, entry, flags);
+		listeners.put(listener.handle, listener);
+		
+		Poller p = pollers.get(poller);
+		if((flags & IMMEDIATE) != 0 && p != null) {
+			for(int i = 0; i < entries.size(); i++) {
+				Entry e = entries.get(i);
+				if(e.value != null && listener.matches(i + 1, e.name)) p.queue.add(new Notification(listener.handle, i + 1, e.name, e.value, e.lastChange, IMMEDIATE | NEW));
+			}
+			
+			SimNetworkTables.class.notifyAll();
+		}
+		
+		return listener.handle;
+	}
+	
+	/**
+	 * Removes an entry listener<br>
+	 * <b>This is an internal method. It should not be used by the end user.</b>
+	 * @param listener The listener's handle
+	 */
+	public static synchronized void removeListener(int listener) { listeners.remove(listener); }
+	
+	/**
+	 * A NetworkTables entry
+	 */
+	private static final class Entry {
+		/** The entry's full name */
+		private final String name;
+		/** The entry's value, or {@code null} if it has none */
+		private Object value;
+		/** The type of the entry's value */
+		private int type;
+		/** The entry's flags */
+		private int flags;
+		/** When the entry's value last changed, in microseconds */
+		private long lastChange;
+		
+		/**
+		 * Creates the entry, with no value
+		 * @param name The entry's full name
+		 */
+		private Entry(String name) { this.name = name; }
+	}
+	
+	/**
+	 * A queue of notifications, which a NetworkTables instance polls on its own thread
+	 */
+	private static final class Poller {
+		/** The notifications that haven't been polled */
+		private final ArrayDeque<Notification> queue = new ArrayDeque<Notification>();
+		/** Whether the poll has been cancelled */
+		private boolean cancelled;
+	}
+	
+	/**
+	 * An entry listener
+	 */
+	private static final class Listener {
+		/** The listener's handle */
+		private final int handle;
+		/** The handle of the poller it is notified through */
+		private final int poller;
+		/** What the names of the entries it listens to start with, or {@code null} to listen to one entry */
+		private final String prefix;
+		/** The handle of the entry it listens to, if there is no prefix */
+		private final int entry;
+		/** The {@link edu.wpi.first.networktables.EntryListenerFlags flags} */
+		private final int flags;
+		
+		/**
+		 * Creates the listener
+		 * @param handle The listener's handle
+		 * @param poller The handle of the poller it is notified through
+		 * @param prefix What the names of the entries it listens to start with, or {@code null} to listen to one entry
+		 * @param entry The handle of the entry it listens to, if there is no prefix
+		 * @param flags The flags
+		 */
+		private Listener(int handle, int poller, String prefix, int entry, int flags) {
+			this.handle = handle;
+			this.poller = poller;
+			this.prefix = prefix;
+			this.entry = entry;
+			this.flags = flags;
+		}
+		
+		/**
+		 * @param handle The entry's handle
+		 * @param name The entry's name
+		 * @return Whether this listens to the entry
+		 */
+		private boolean matches(int handle, String name) { return (prefix == null ? entry == handle : name.startsWith(prefix)); }
+	}
+	
+	/**
+	 * A change to an entry, for an entry listener<br>
+	 * <b>This is an internal class. It should not be used by the end user.</b>
+	 */
+	public static final class Notification {
+		/** The handle of the listener */
+		public final int listener;
+		/** The handle of the entry */
+		public final int entry;
+		/** The entry's name */
+		public final String name;
+		/** The type of the entry's value */
+		public final int type;
+		/** A copy of the entry's value, or {@code null} if it was deleted */
+		public final Object value;
+		/** When the entry's value last changed, in microseconds */
+		public final long time;
+		/** What changed */
+		public final int flags;
+		
+		/**
+		 * Creates the notification
+		 * @param listener The handle of the listener
+		 * @param entry The handle of the entry
+		 * @param name The entry's name
+		 * @param value The entry's value, which is copied
+		 * @param time When the entry's value last changed, in microseconds
+		 * @param flags What changed
+		 */
+		private Notification(int listener, int entry, String name, Object value, long time, int flags) {
+			this.listener = listener;
+			this.entry = entry;
+			this.name = name;
+			this.type = typeOf(value);
+			this.value = copy(value);
+			this.time = time;
+			this.flags = flags;
+		}
+	}
+}